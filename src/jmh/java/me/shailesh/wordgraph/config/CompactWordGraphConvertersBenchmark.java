@@ -0,0 +1,47 @@
+package me.shailesh.wordgraph.config;
+
+import me.shailesh.wordgraph.core.CompactWordGraph;
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.WordGraph;
+import org.bson.RawBsonDocument;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a stored word graph back into a compact graph, from the binary compact graph and from the adjacency list it
+ * replaced, with the documents written and read as the driver would send and return them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompactWordGraphConvertersBenchmark {
+
+	MappingMongoConverter converter;
+	RawBsonDocument legacy;
+	RawBsonDocument compact;
+
+	@Setup
+	public void setUp() {
+		converter = CompactWordGraphConvertersTests.createConverter();
+		var wga = new WordGraphAnalysis(CompactWordGraphConvertersTests.generateText(new Random(52), 50_000, 2_000), 100);
+		legacy = CompactWordGraphConvertersTests.write(converter, WordGraph.builder().adjacencyList(wga.getAdjacencyList()).build());
+		compact = CompactWordGraphConvertersTests.write(converter, WordGraph.builder().compactGraph(wga.getCompactGraph()).build());
+	}
+
+	@Benchmark
+	public CompactWordGraph readAdjacencyList() {
+		var adjacencyList = CompactWordGraphConvertersTests.read(converter, legacy).getAdjacencyList();
+		return WordGraphAnalysis.builder().adjacencyList(adjacencyList).build().getCompactGraph();
+	}
+
+	@Benchmark
+	public CompactWordGraph readCompactGraph() {
+		return CompactWordGraphConvertersTests.read(converter, compact).getCompactGraph();
+	}
+}
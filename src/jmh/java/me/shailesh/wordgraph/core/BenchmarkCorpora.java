@@ -0,0 +1,37 @@
+package me.shailesh.wordgraph.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * The texts the benchmarks run on. A corpus is either generated, with "uniform" or "zipf" word frequencies, or read
+ * from a file of real text given as the corpus, e.g. -p corpus=/data/moby-dick.txt
+ */
+final class BenchmarkCorpora {
+
+	private BenchmarkCorpora() {
+	}
+
+	/**
+	 * @param words the number of words of a generated corpus
+	 * @param vocabulary the number of distinct words of a generated corpus
+	 * @return the lowercase text of the corpus
+	 */
+	static String load(String corpus, int words, int vocabulary) {
+		var random = new Random(words * 31L + vocabulary);
+		return switch (corpus) {
+			case "uniform" -> WordGraphAnalysisTests.generateCorpus(random, words, vocabulary);
+			case "zipf" -> WordGraphAnalysisTests.generateZipfCorpus(random, words, vocabulary);
+			default -> {
+				try {
+					yield Files.readString(Path.of(corpus)).toLowerCase();
+				} catch (IOException e) {
+					throw new UncheckedIOException("Error reading the corpus " + corpus, e);
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,108 @@
+package me.shailesh.wordgraph.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every analysis of a word graph, on graphs built from the corpora like the API builds them. The compact graph is
+ * built in the setup, so only the algorithms are measured, with the inverse graph built by the inverse ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphAlgorithmsBenchmark {
+
+	@Param({"uniform", "zipf"})
+	String corpus;
+
+	@Param({"200000"})
+	int words;
+
+	@Param({"20000"})
+	int vocabulary;
+
+	@Param({"100", "1000"})
+	int maxWords;
+
+	WordGraphAnalysis wga;
+	String start;
+	String end;
+
+	@Setup
+	public void setUp() {
+		String text = BenchmarkCorpora.load(corpus, words, vocabulary);
+		wga = new WordGraphAnalysis(text, maxWords, AnalysisOptions.builder().largeGraph(true).build());
+		wga.getCompactGraph();
+		// Start from the most frequent word, which is in the largest component
+		start = Collections.max(wga.getWordFrequencies().entrySet(), Map.Entry.comparingByValue()).getKey();
+		// The last word a breadth first search reaches is one of the furthest from the start
+		end = wga.bfs(start).getPath().getLast();
+	}
+
+	@Benchmark
+	public Path bfs() {
+		return wga.bfs(start);
+	}
+
+	@Benchmark
+	public Path dfs() {
+		return wga.dfs(start);
+	}
+
+	@Benchmark
+	public SpanningTree primsMst() {
+		return wga.primsMst();
+	}
+
+	@Benchmark
+	public SpanningTree primsMstMax() {
+		return wga.primsMstMax();
+	}
+
+	@Benchmark
+	public SpanningTree kruskalsMst() {
+		return wga.kruskalsMst();
+	}
+
+	@Benchmark
+	public SpanningTree kruskalsMstMax() {
+		return wga.kruskalsMstMax();
+	}
+
+	@Benchmark
+	public SingleSourceShortestPath dijkstra() {
+		return wga.dijkstraShortestPath(start, false);
+	}
+
+	@Benchmark
+	public SingleSourceShortestPath dijkstraInverse() {
+		return wga.dijkstraShortestPath(start, true);
+	}
+
+	@Benchmark
+	public AllPairsShortestPaths floydWarshall() {
+		return wga.floydWarshall(false);
+	}
+
+	@Benchmark
+	public AllPairsShortestPaths floydWarshallInverse() {
+		return wga.floydWarshall(true);
+	}
+
+	@Benchmark
+	public List<Path> yenShortestPaths() {
+		return wga.yenShortestPaths(start, end, 10, false);
+	}
+
+	@Benchmark
+	public List<Path> yenShortestPathsInverse() {
+		return wga.yenShortestPaths(start, end, 10, true);
+	}
+}
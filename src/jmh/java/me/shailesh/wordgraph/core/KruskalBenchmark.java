@@ -0,0 +1,47 @@
+package me.shailesh.wordgraph.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KruskalBenchmark {
+
+	@Param({"1000", "10000"})
+	int vertexCount;
+
+	@Param({"8"})
+	int degree;
+
+	WordGraphAnalysis wga;
+	ReferenceGraphAlgorithms reference;
+
+	@Setup
+	public void setUp() {
+		wga = CompactWordGraphTests.generateGraph(new Random(vertexCount), vertexCount, degree);
+		// Build the compact graph up front so only the spanning tree is measured
+		wga.getCompactGraph();
+		reference = new ReferenceGraphAlgorithms(wga.getAdjacencyList());
+	}
+
+	@Benchmark
+	public SpanningTree kruskalsMst() {
+		return wga.kruskalsMst();
+	}
+
+	@Benchmark
+	public SpanningTree kruskalsMstMax() {
+		return wga.kruskalsMstMax();
+	}
+
+	@Benchmark
+	public SpanningTree referenceKruskalsMst() {
+		return reference.kruskalsMst();
+	}
+}
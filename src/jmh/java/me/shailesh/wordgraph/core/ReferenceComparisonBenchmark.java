@@ -0,0 +1,76 @@
+package me.shailesh.wordgraph.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The implementations against the ones they replaced, which are kept with the tests as references for their results.
+ * The references are slow, so they run on small inputs of their own rather than on the corpora of the other
+ * benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceComparisonBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Corpus {
+		String text;
+
+		@Setup
+		public void setUp() {
+			text = WordGraphAnalysisTests.generateCorpus(new Random(7), 6_000, 2_000);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Graph {
+		@Param({"1000", "2000"})
+		int vertexCount;
+
+		WordGraphAnalysis wga;
+		ReferenceGraphAlgorithms reference;
+
+		@Setup
+		public void setUp() {
+			wga = CompactWordGraphTests.generateGraph(new Random(vertexCount), vertexCount, 8);
+			wga.getCompactGraph();
+			reference = new ReferenceGraphAlgorithms(wga.getAdjacencyList());
+		}
+	}
+
+	@Benchmark
+	public WordGraphAnalysis construct(Corpus corpus) {
+		return new WordGraphAnalysis(corpus.text, 100);
+	}
+
+	@Benchmark
+	public WordGraphAnalysisTests.SentenceScanningGraph constructBySentenceScanning(Corpus corpus) {
+		return new WordGraphAnalysisTests.SentenceScanningGraph(corpus.text, 100);
+	}
+
+	@Benchmark
+	public ShortestPathTree dijkstra(Graph graph) {
+		return graph.wga.dijkstraShortestPathTree("w0", false);
+	}
+
+	@Benchmark
+	public SingleSourceShortestPath referenceDijkstra(Graph graph) {
+		return graph.reference.dijkstraShortestPath("w0", false);
+	}
+
+	@Benchmark
+	public DistanceMatrix floydWarshall(Graph graph) {
+		return graph.wga.floydWarshall(false).getDistanceMatrix();
+	}
+
+	@Benchmark
+	public List<SingleSourceShortestPath> referenceFloydWarshall(Graph graph) {
+		return graph.reference.floydWarshallShortestPaths(false);
+	}
+}
@@ -0,0 +1,67 @@
+package me.shailesh.wordgraph.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizer throughput, reported as the "bytes" counter in bytes of text per second, against the regex tokenizer it
+ * replaced. Run with -prof gc to see the allocation rate per token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenizerBenchmark {
+
+	private static final Pattern WORD_PATTERN = Pattern.compile("[a-z0-9_-]+");
+
+	@Param({"uniform", "zipf"})
+	String corpus;
+
+	@Param({"1000000"})
+	int words;
+
+	@Param({"20000"})
+	int vocabulary;
+
+	String text;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Bytes {
+		public long bytes;
+	}
+
+	@Setup
+	public void setUp() {
+		text = BenchmarkCorpora.load(corpus, words, vocabulary);
+	}
+
+	@Benchmark
+	public long tokenize(Bytes counter) {
+		try (TokenizedText tokenizedText = TokenizedText.of(text)) {
+			counter.bytes += text.length();
+			return tokenizedText.getTokenCount();
+		}
+	}
+
+	@Benchmark
+	public int tokenizeWithRegex(Bytes counter) {
+		Map<String, Integer> ids = new HashMap<>();
+		Matcher matcher = WORD_PATTERN.matcher(text);
+		int tokens = 0;
+		while (matcher.find()) {
+			ids.putIfAbsent(matcher.group(), ids.size());
+			tokens++;
+		}
+		counter.bytes += text.length();
+		return tokens + ids.size();
+	}
+}
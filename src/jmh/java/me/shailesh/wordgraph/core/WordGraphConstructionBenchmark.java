@@ -0,0 +1,55 @@
+package me.shailesh.wordgraph.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a word graph from a text, exactly and with approximate top words, for graphs of the default size and large
+ * graphs. Exact builds split the text into {@code parallelism} chunks, so scaling is measured with e.g.
+ * -p parallelism=1,2,4,8 on a large corpus file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordGraphConstructionBenchmark {
+
+	@Param({"uniform", "zipf"})
+	String corpus;
+
+	@Param({"10000", "200000"})
+	int words;
+
+	@Param({"1000", "20000"})
+	int vocabulary;
+
+	@Param({"100", "2000"})
+	int maxWords;
+
+	@Param({"1"})
+	int parallelism;
+
+	String text;
+	AnalysisOptions exact;
+	AnalysisOptions approximate;
+
+	@Setup
+	public void setUp() {
+		text = BenchmarkCorpora.load(corpus, words, vocabulary);
+		exact = AnalysisOptions.builder().largeGraph(true).parallelism(parallelism).build();
+		approximate = AnalysisOptions.builder().largeGraph(true).approximate(true).build();
+	}
+
+	@Benchmark
+	public WordGraphAnalysis construct() {
+		return new WordGraphAnalysis(text, maxWords, exact);
+	}
+
+	@Benchmark
+	public WordGraphAnalysis constructApproximately() {
+		return new WordGraphAnalysis(text, maxWords, approximate);
+	}
+}
@@ -0,0 +1,36 @@
+package me.shailesh.wordgraph.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * Exposes the stats of a cache as meters tagged with the name of the cache. The stats are read when the meters are
+ * published, so recording a hit costs nothing more than the counter of the cache.
+ */
+public final class CacheMetrics {
+
+    private CacheMetrics() {
+    }
+
+    public static void bind(MeterRegistry registry, String name, Supplier<CacheStats> stats) {
+        FunctionCounter.builder("wordgraph.cache.hits", stats, s -> s.get().getHits())
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("wordgraph.cache.misses", stats, s -> s.get().getMisses())
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("wordgraph.cache.evictions", stats, s -> s.get().getEvictions())
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("wordgraph.cache.size", stats, s -> s.get().getSize())
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("wordgraph.cache.estimated.bytes", stats, s -> s.get().getEstimatedBytes())
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
@@ -0,0 +1,20 @@
+package me.shailesh.wordgraph.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CacheStats {
+    private long hits;
+    private long misses;
+    // Entries removed to fit the size bound or because they expired
+    private long evictions;
+    private int size;
+    private long estimatedBytes;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,118 @@
+package me.shailesh.wordgraph.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * An in-process cache bounded by the estimated size of its values in bytes. The least recently used entries are
+ * evicted when the bound is exceeded, and entries expire a fixed time after they were added.
+ */
+public class ExpiringLruCache<K, V> {
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+    private final LongSupplier nanoClock;
+    // In access order, so the eldest entry is the least recently used
+    private final LinkedHashMap<K, CacheEntry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public ExpiringLruCache(long maxBytes, Duration ttl, ToLongFunction<V> weigher) {
+        this(maxBytes, ttl, weigher, System::nanoTime);
+    }
+
+    ExpiringLruCache(long maxBytes, Duration ttl, ToLongFunction<V> weigher, LongSupplier nanoClock) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return the value, or null if it is not in the cache or has expired
+     */
+    // Time complexity: O(1)
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry != null && nanoClock.getAsLong() - entry.expiresAt >= 0) {
+            remove(key, entry);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Get the value, or load and add it if it is not in the cache. The value is loaded without holding the lock of the
+     * cache, so a slow load does not block other keys; concurrent misses for the same key may each load it.
+     *
+     * @return the value, or null if the loader returns null, which is not cached
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Add or replace the value, then evict the least recently used entries until the cache fits in its bound.
+     * A value larger than the whole cache is not added.
+     */
+    // Time complexity: O(1) amortized
+    public synchronized void put(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        CacheEntry<V> previous = entries.get(key);
+        if (previous != null) {
+            remove(key, previous);
+        }
+        if (weight > maxBytes) {
+            return;
+        }
+        entries.put(key, new CacheEntry<>(value, weight, nanoClock.getAsLong() + ttlNanos));
+        bytes += weight;
+        Iterator<Map.Entry<K, CacheEntry<V>>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            CacheEntry<V> evicted = eldest.next().getValue();
+            eldest.remove();
+            bytes -= evicted.weight;
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), bytes);
+    }
+
+    private void remove(K key, CacheEntry<V> entry) {
+        entries.remove(key);
+        bytes -= entry.weight;
+    }
+
+    private record CacheEntry<V>(V value, long weight, long expiresAt) {
+    }
+}
@@ -0,0 +1,50 @@
+package me.shailesh.wordgraph.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Run a call at most once at a time per key. Callers that ask for a key while a call for it is running wait for that
+ * call and share its result or its exception, instead of running it again.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> call) {
+        var ownCall = new CompletableFuture<V>();
+        var runningCall = calls.putIfAbsent(key, ownCall);
+        if (runningCall != null) {
+            return join(runningCall);
+        }
+        try {
+            V value = call.get();
+            ownCall.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            ownCall.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, ownCall);
+        }
+    }
+
+    public int getRunningCount() {
+        return calls.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
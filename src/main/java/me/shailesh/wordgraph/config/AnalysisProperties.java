@@ -0,0 +1,20 @@
+package me.shailesh.wordgraph.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wordgraph.analysis")
+public class AnalysisProperties {
+    // Largest graph to run all pairs shortest paths on, which takes V^2 memory and V^3 time
+    private int maxAllPairsVertices = 1000;
+    // Largest graph to run a depth first search on, which expands a vertex every time it is popped and so takes V * E
+    // time in the worst case
+    private int maxDfsVertices = 5000;
+    // Chunks a text is split into to build its graph on the common ForkJoinPool, 0 for one per core or 1 for none
+    private int parallelism = 1;
+    // Most paths a k shortest paths query can ask for, each of which takes up to one Dijkstra per vertex of a path
+    private int maxShortestPaths = 100;
+}
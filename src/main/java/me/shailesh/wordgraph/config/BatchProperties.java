@@ -0,0 +1,15 @@
+package me.shailesh.wordgraph.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wordgraph.batch")
+public class BatchProperties {
+    // Word graphs that can be created in one batch
+    private int maxSize = 1000;
+    // Characters of all the texts of one batch together
+    private long maxTextLength = 50_000_000;
+}
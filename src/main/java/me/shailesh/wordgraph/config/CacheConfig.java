@@ -0,0 +1,21 @@
+package me.shailesh.wordgraph.config;
+
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.service.AnalysisGraph;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public ExpiringLruCache<String, AnalysisGraph> analysisGraphCache(
+            @Value("${wordgraph.cache.graphs.max-size:256MB}") DataSize maxSize,
+            @Value("${wordgraph.cache.graphs.ttl:30m}") Duration ttl) {
+        return new ExpiringLruCache<>(maxSize.toBytes(), ttl, AnalysisGraph::getEstimatedBytes);
+    }
+}
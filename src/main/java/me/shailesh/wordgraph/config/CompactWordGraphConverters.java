@@ -0,0 +1,56 @@
+package me.shailesh.wordgraph.config;
+
+import me.shailesh.wordgraph.core.CompactGraphEncoding;
+import me.shailesh.wordgraph.core.CompactWordGraph;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.List;
+
+/**
+ * Store compact word graphs as BSON binary in the {@link CompactGraphEncoding} form, and read them back straight
+ * into the form the graph algorithms run on.
+ */
+public class CompactWordGraphConverters {
+
+    private CompactWordGraphConverters() {
+    }
+
+    public static List<Converter<?, ?>> getConverters() {
+        return List.of(CompactWordGraphToBinaryConverter.INSTANCE, BinaryToCompactWordGraphConverter.INSTANCE,
+                BytesToCompactWordGraphConverter.INSTANCE);
+    }
+
+    @WritingConverter
+    enum CompactWordGraphToBinaryConverter implements Converter<CompactWordGraph, Binary> {
+        INSTANCE;
+
+        @Override
+        public Binary convert(CompactWordGraph source) {
+            return new Binary(CompactGraphEncoding.encode(source));
+        }
+    }
+
+    @ReadingConverter
+    enum BinaryToCompactWordGraphConverter implements Converter<Binary, CompactWordGraph> {
+        INSTANCE;
+
+        @Override
+        public CompactWordGraph convert(Binary source) {
+            return CompactGraphEncoding.decode(source.getData());
+        }
+    }
+
+    // The driver reads generic binary as byte[] into documents
+    @ReadingConverter
+    enum BytesToCompactWordGraphConverter implements Converter<byte[], CompactWordGraph> {
+        INSTANCE;
+
+        @Override
+        public CompactWordGraph convert(byte[] source) {
+            return CompactGraphEncoding.decode(source);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package me.shailesh.wordgraph.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wordgraph.ingest")
+public class IngestProperties {
+    // The directory server-local files can be read from to create word graphs, or empty to not allow any
+    private String allowedRoot = "";
+}
@@ -0,0 +1,21 @@
+package me.shailesh.wordgraph.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wordgraph.jobs")
+public class JobProperties {
+    // Threads of the pool that runs the CPU bound part of the jobs, 0 for one per core
+    private int cpuThreads = 0;
+    // Jobs that can be queued or running at once, beyond which new jobs are rejected
+    private int maxPendingJobs = 64;
+    // How long a finished job and its result can be fetched
+    private Duration retention = Duration.ofHours(1);
+    // Finished jobs that are kept with their results, beyond which the oldest are removed before their retention ends
+    private int maxFinishedJobs = 256;
+}
@@ -0,0 +1,15 @@
+package me.shailesh.wordgraph.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wordgraph.list")
+public class ListingProperties {
+    private int defaultPageSize = 50;
+    private int maxPageSize = 500;
+    // Number of characters of the text returned with each word graph in a listing
+    private int textPreviewLength = 200;
+}
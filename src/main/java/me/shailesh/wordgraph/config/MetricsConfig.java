@@ -0,0 +1,26 @@
+package me.shailesh.wordgraph.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.shailesh.wordgraph.cache.CacheMetrics;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.service.AlgorithmResultCache;
+import me.shailesh.wordgraph.service.AnalysisGraph;
+import me.shailesh.wordgraph.service.CorpusService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(ExpiringLruCache<String, AnalysisGraph> analysisGraphCache,
+                                    AlgorithmResultCache algorithmResultCache,
+                                    CorpusService corpusService) {
+        return registry -> {
+            CacheMetrics.bind(registry, "graphs", analysisGraphCache::getStats);
+            CacheMetrics.bind(registry, "results", algorithmResultCache::getStats);
+            CacheMetrics.bind(registry, "storedResults", algorithmResultCache::getStoredStats);
+            CacheMetrics.bind(registry, "corpora", corpusService::getCacheStats);
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package me.shailesh.wordgraph.controller;
+
+import lombok.AllArgsConstructor;
+import me.shailesh.wordgraph.model.CorpusCreateDto;
+import me.shailesh.wordgraph.model.CorpusDto;
+import me.shailesh.wordgraph.service.CorpusService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("api/v1/corpora")
+@AllArgsConstructor
+public class CorpusController {
+
+    private final CorpusService corpusService;
+
+    @PostMapping
+    public ResponseEntity<CorpusDto> createCorpus(@RequestBody CorpusCreateDto corpusCreate) {
+        try {
+            var corpus = corpusService.createCorpus(corpusCreate);
+            return ResponseEntity.created(URI.create("/api/v1/corpora/" + corpus.getId())).body(corpus);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(CorpusDto.builder().errorMessage(e.getMessage()).build());
+        }
+    }
+
+    /**
+     * Get the latest snapshot of the corpus, with the graph of its top words.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CorpusDto> fetchCorpus(@PathVariable String id) {
+        var corpus = corpusService.getCorpus(id);
+        if (corpus == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(corpus);
+    }
+
+    /**
+     * Add a plain text document to the corpus, and get the snapshot of the corpus with the document.
+     */
+    @PostMapping(value = "/{id}/documents", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<CorpusDto> addDocument(@PathVariable String id, @RequestBody String document) {
+        try {
+            var corpus = corpusService.addDocument(id, document);
+            if (corpus == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(corpus);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(CorpusDto.builder().errorMessage(e.getMessage()).build());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package me.shailesh.wordgraph.controller;
+
+import lombok.AllArgsConstructor;
+import me.shailesh.wordgraph.model.JobDto;
+import me.shailesh.wordgraph.model.JobRequest;
+import me.shailesh.wordgraph.service.JobRejectedException;
+import me.shailesh.wordgraph.service.JobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("api/v1/jobs")
+@AllArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+
+    /**
+     * Submit a job, which is polled at the returned location. Jobs are rejected with 429 while too many are pending.
+     */
+    @PostMapping
+    public ResponseEntity<JobDto> submitJob(@RequestBody JobRequest request) {
+        try {
+            var job = jobService.submit(request);
+            return ResponseEntity.accepted().location(URI.create("/api/v1/jobs/" + job.getId())).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(JobDto.builder().errorMessage(e.getMessage()).build());
+        } catch (JobRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1")
+                    .body(JobDto.builder().errorMessage(e.getMessage()).build());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobDto> fetchJob(@PathVariable String id) {
+        var job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<JobDto> cancelJob(@PathVariable String id) {
+        var job = jobService.cancel(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+}
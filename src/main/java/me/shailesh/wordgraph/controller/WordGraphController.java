@@ -1,32 +1,165 @@
 package me.shailesh.wordgraph.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import me.shailesh.wordgraph.cache.CacheStats;
+import me.shailesh.wordgraph.config.BatchProperties;
 import me.shailesh.wordgraph.model.WordGraph;
 import me.shailesh.wordgraph.model.WordGraphCreateDto;
 import me.shailesh.wordgraph.model.WordGraphDetailDto;
 import me.shailesh.wordgraph.model.WordGraphDto;
+import me.shailesh.wordgraph.model.WordGraphPage;
+import me.shailesh.wordgraph.service.FileIngestionDisabledException;
 import me.shailesh.wordgraph.service.WordGraphService;
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("api/v1/wordgraphs")
 @AllArgsConstructor
 public class WordGraphController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final WordGraphService wordGraphService;
+    private final ObjectMapper objectMapper;
+    private final BatchProperties batchProperties;
+
+    /**
+     * Get a page of word graphs. The id to get the next page after is returned in the X-Next-Cursor header, which is
+     * left out on the last page.
+     */
     @GetMapping
-    public ResponseEntity<List<WordGraphDto>> fetchAllWordGraphs() {
-        return ResponseEntity.ok(wordGraphService.getAllWordGraphs());
+    public ResponseEntity<List<WordGraphDto>> fetchAllWordGraphs(@RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+        WordGraphPage page;
+        try {
+            page = wordGraphService.getWordGraphs(after, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        var response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getWordGraphs());
+    }
+
+    /**
+     * Stream all the word graphs as newline delimited JSON, written as they are read from the database.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllWordGraphs(@RequestParam(required = false) String after) {
+        if (after != null && !after.isBlank() && !ObjectId.isValid(after)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> {
+            var writer = objectMapper.writerFor(WordGraphDto.class);
+            try (var wordGraphs = wordGraphService.streamWordGraphs(after)) {
+                var iterator = wordGraphs.iterator();
+                while (iterator.hasNext()) {
+                    out.write(writer.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PostMapping
     public ResponseEntity<WordGraphDetailDto> createWordGraph(@RequestBody WordGraphCreateDto wordGraphCreate) {
-        var wordGraphDetail = wordGraphService.createWordGraph(wordGraphCreate);
-        return ResponseEntity.ok(wordGraphDetail);
+        try {
+            return ResponseEntity.ok(wordGraphService.createWordGraph(wordGraphCreate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorOf(e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/stream", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<WordGraphDetailDto> createWordGraphFromStream(InputStream text, @RequestParam(defaultValue = "0") int maxWords) throws IOException {
+        try {
+            return ResponseEntity.ok(wordGraphService.createWordGraph(text, maxWords));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Create a word graph from a file on the server, given by its path relative to the allowed root of file ingestion.
+     */
+    @PostMapping("/file")
+    public ResponseEntity<WordGraphDetailDto> createWordGraphFromFile(@RequestParam String path, @RequestParam(defaultValue = "0") int maxWords) throws IOException {
+        try {
+            return ResponseEntity.ok(wordGraphService.createWordGraphFromFile(path, maxWords));
+        } catch (FileIngestionDisabledException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorOf(e.getMessage()));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Create many word graphs at once, from a JSON array or from newline delimited JSON. A batch that is refused as a
+     * whole gets a word graph with only the error message instead of the outcomes of its word graphs.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createWordGraphs(@RequestBody List<WordGraphCreateDto> wordGraphCreates) {
+        try {
+            return ResponseEntity.ok(wordGraphService.createWordGraphs(wordGraphCreates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * The body is parsed one word graph at a time, and refused as soon as it has more word graphs or more text than a
+     * batch can have, without reading the rest of it.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> createWordGraphsFromNdjson(InputStream wordGraphCreates) throws IOException {
+        List<WordGraphCreateDto> batch = new ArrayList<>();
+        long textLength = 0;
+        try (var parser = objectMapper.readerFor(WordGraphCreateDto.class).<WordGraphCreateDto>readValues(wordGraphCreates)) {
+            while (parser.hasNextValue()) {
+                if (batch.size() == batchProperties.getMaxSize()) {
+                    return ResponseEntity.badRequest().body(errorOf("A batch can have at most " + batchProperties.getMaxSize() + " word graphs"));
+                }
+                WordGraphCreateDto wordGraphCreate = parser.nextValue();
+                if (wordGraphCreate != null && wordGraphCreate.getText() != null) {
+                    textLength += wordGraphCreate.getText().length();
+                    if (textLength > batchProperties.getMaxTextLength()) {
+                        return ResponseEntity.badRequest().body(errorOf("A batch can have at most " + batchProperties.getMaxTextLength() + " characters of text"));
+                    }
+                }
+                batch.add(wordGraphCreate);
+            }
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(errorOf("Invalid word graph: " + e.getOriginalMessage()));
+        }
+        return createWordGraphs(batch);
+    }
+
+    private static WordGraphDetailDto errorOf(String errorMessage) {
+        return WordGraphDetailDto.builder().errorMessage(errorMessage).build();
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, CacheStats>> fetchCacheStats() {
+        return ResponseEntity.ok(wordGraphService.getCacheStats());
     }
 
     @GetMapping("/{id}")
@@ -39,18 +172,21 @@ public class WordGraphController {
     }
 
     @GetMapping("/{id}/traversal")
-    public ResponseEntity<WordGraphDetailDto> fetchWordGraphTraversal(@PathVariable String id, @RequestParam String start, @RequestParam(required = false) String type) {
-        var wordGraphDetail = wordGraphService.getWordGraphById(id);
+    public ResponseEntity<WordGraphDetailDto> fetchWordGraphTraversal(@PathVariable String id, @RequestParam String start, @RequestParam(required = false) String type, @RequestParam(required = false) boolean resultOnly) {
+        var wordGraphDetail = wordGraphService.getWordGraphForAnalysis(id, resultOnly);
         if(wordGraphDetail == null) {
             return ResponseEntity.notFound().build();
         }
         wordGraphDetail = wordGraphService.traversal(wordGraphDetail, start, type);
+        if(wordGraphDetail.getErrorMessage() != null) {
+            return ResponseEntity.badRequest().body(wordGraphDetail);
+        }
         return ResponseEntity.ok(wordGraphDetail);
     }
 
     @GetMapping("/{id}/mst")
-    public ResponseEntity<WordGraphDetailDto> fetchWordGraphMst(@PathVariable String id, @RequestParam(required = false) String type, @RequestParam(required = false) boolean maximum) {
-        var wordGraphDetail = wordGraphService.getWordGraphById(id);
+    public ResponseEntity<WordGraphDetailDto> fetchWordGraphMst(@PathVariable String id, @RequestParam(required = false) String type, @RequestParam(required = false) boolean maximum, @RequestParam(required = false) boolean resultOnly) {
+        var wordGraphDetail = wordGraphService.getWordGraphForAnalysis(id, resultOnly);
         if(wordGraphDetail == null) {
             return ResponseEntity.notFound().build();
         }
@@ -59,12 +195,25 @@ public class WordGraphController {
     }
 
     @GetMapping("/{id}/shortest-path")
-    public ResponseEntity<WordGraphDetailDto> fetchWordGraphShortestPath(@PathVariable String id, @RequestParam(required = false) String start, @RequestParam(required = false) String type, @RequestParam(required = false) boolean inverse) {
-        var wordGraphDetail = wordGraphService.getWordGraphById(id);
+    public ResponseEntity<WordGraphDetailDto> fetchWordGraphShortestPath(@PathVariable String id, @RequestParam(required = false) String start, @RequestParam(required = false) String type, @RequestParam(required = false) boolean inverse, @RequestParam(required = false) boolean matrix, @RequestParam(required = false) boolean resultOnly) {
+        var wordGraphDetail = wordGraphService.getWordGraphForAnalysis(id, resultOnly);
+        if(wordGraphDetail == null) {
+            return ResponseEntity.notFound().build();
+        }
+        wordGraphDetail = wordGraphService.shortestPath(wordGraphDetail, start, type, inverse, matrix);
+        if(wordGraphDetail.getErrorMessage() != null) {
+            return ResponseEntity.badRequest().body(wordGraphDetail);
+        }
+        return ResponseEntity.ok(wordGraphDetail);
+    }
+
+    @GetMapping("/{id}/k-shortest-paths")
+    public ResponseEntity<WordGraphDetailDto> fetchWordGraphKShortestPaths(@PathVariable String id, @RequestParam String start, @RequestParam String end, @RequestParam(defaultValue = "1") int k, @RequestParam(required = false) boolean inverse, @RequestParam(required = false) boolean resultOnly) {
+        var wordGraphDetail = wordGraphService.getWordGraphForAnalysis(id, resultOnly);
         if(wordGraphDetail == null) {
             return ResponseEntity.notFound().build();
         }
-        wordGraphDetail = wordGraphService.shortestPath(wordGraphDetail, start, type, inverse);
+        wordGraphDetail = wordGraphService.kShortestPaths(wordGraphDetail, start, end, k, inverse);
         if(wordGraphDetail.getErrorMessage() != null) {
             return ResponseEntity.badRequest().body(wordGraphDetail);
         }
@@ -0,0 +1,221 @@
+package me.shailesh.wordgraph.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The shortest paths between every pair of vertices, found with a blocked Floyd-Warshall over flat distance and
+ * next hop matrices. The tiles that do not depend on each other are updated in parallel on the common ForkJoinPool.
+ * Paths are only built as lists of words when the paths from a source are requested.
+ */
+public class AllPairsShortestPaths {
+    // The most vertices whose V^2 matrices, and the bytes of both, fit in an array
+    public static final int MAX_VERTICES = 13_000;
+    private static final int BLOCK_SIZE = 64;
+
+    private final CompactWordGraph graph;
+    private final int vertexCount;
+    // dist[i * V + j] is the distance from i to j, and next[i * V + j] the vertex after i on that path.
+    // Unreachable pairs are infinitely far apart, so no relaxation through them ever succeeds
+    private final double[] dist;
+    private final int[] next;
+
+    /**
+     * @throws IllegalArgumentException if the graph has more than MAX_VERTICES vertices
+     */
+    private AllPairsShortestPaths(CompactWordGraph graph) {
+        this.graph = graph;
+        vertexCount = graph.getVertexCount();
+        if (vertexCount > MAX_VERTICES) {
+            throw new IllegalArgumentException("All pairs shortest paths can be found for at most " + MAX_VERTICES
+                    + " vertices, and the graph has " + vertexCount);
+        }
+        dist = new double[vertexCount * vertexCount];
+        next = new int[vertexCount * vertexCount];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the graph has more than MAX_VERTICES vertices
+     */
+    // Time complexity: O(V^3), with the V^2 independent tile updates of each step run in parallel
+    public static AllPairsShortestPaths floydWarshall(CompactWordGraph graph) {
+        var allPairs = new AllPairsShortestPaths(graph);
+        allPairs.initialize();
+        allPairs.relax();
+        return allPairs;
+    }
+
+    /**
+     * Restore the shortest paths of the graph from {@link #toBytes()}, without running Floyd-Warshall again.
+     *
+     * @throws IllegalArgumentException if the bytes are not of a graph with as many vertices, or the graph has more
+     * than MAX_VERTICES vertices
+     */
+    public static AllPairsShortestPaths fromBytes(CompactWordGraph graph, byte[] bytes) {
+        var allPairs = new AllPairsShortestPaths(graph);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != allPairs.vertexCount || buffer.remaining() != (long) allPairs.dist.length * (Double.BYTES + Integer.BYTES)) {
+            throw new IllegalArgumentException("Shortest paths are not for a graph of " + allPairs.vertexCount + " vertices");
+        }
+        buffer.asDoubleBuffer().get(allPairs.dist);
+        buffer.position(buffer.position() + allPairs.dist.length * Double.BYTES);
+        buffer.asIntBuffer().get(allPairs.next);
+        return allPairs;
+    }
+
+    /**
+     * @return the vertex count followed by the distance and next hop matrices, to store the shortest paths
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + dist.length * (Double.BYTES + Integer.BYTES));
+        buffer.putInt(vertexCount);
+        buffer.asDoubleBuffer().put(dist);
+        buffer.position(buffer.position() + dist.length * Double.BYTES);
+        buffer.asIntBuffer().put(next);
+        return buffer.array();
+    }
+
+    public long getEstimatedBytes() {
+        return (long) dist.length * (Double.BYTES + Integer.BYTES);
+    }
+
+    private void initialize() {
+        int V = vertexCount;
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(next, -1);
+        for (int i = 0; i < V; i++) {
+            dist[i * V + i] = 0;
+            next[i * V + i] = i;
+            for (int edge = graph.getEdgeStart(i); edge < graph.getEdgeEnd(i); edge++) {
+                int j = graph.getTarget(edge);
+                dist[i * V + j] = graph.getWeight(edge);
+                next[i * V + j] = j;
+            }
+        }
+    }
+
+    /**
+     * For every block of intermediate vertices k, first the diagonal tile (k, k) is relaxed, then the tiles in row k
+     * and column k, which only depend on the diagonal tile, and then all the other tiles, which only depend on row k
+     * and column k.
+     */
+    private void relax() {
+        int blocks = (vertexCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        for (int k = 0; k < blocks; k++) {
+            int kb = k;
+            relaxTile(kb, kb, kb);
+            IntStream.range(0, blocks).parallel().forEach(j -> {
+                if (j != kb) {
+                    relaxTile(kb, j, kb);
+                    relaxTile(j, kb, kb);
+                }
+            });
+            IntStream.range(0, blocks * blocks).parallel().forEach(tile -> {
+                int i = tile / blocks;
+                int j = tile % blocks;
+                if (i != kb && j != kb) {
+                    relaxTile(i, j, kb);
+                }
+            });
+        }
+    }
+
+    // Update dist[i][j] = min(dist[i][j], dist[i][k] + dist[k][j]) for i, j and k in the given blocks
+    private void relaxTile(int ib, int jb, int kb) {
+        int V = vertexCount;
+        int iEnd = Math.min((ib + 1) * BLOCK_SIZE, V);
+        int jStart = jb * BLOCK_SIZE;
+        int jEnd = Math.min(jStart + BLOCK_SIZE, V);
+        int kEnd = Math.min((kb + 1) * BLOCK_SIZE, V);
+        for (int k = kb * BLOCK_SIZE; k < kEnd; k++) {
+            int kRow = k * V;
+            for (int i = ib * BLOCK_SIZE; i < iEnd; i++) {
+                int iRow = i * V;
+                double dik = dist[iRow + k];
+                if (dik == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                int nik = next[iRow + k];
+                for (int j = jStart; j < jEnd; j++) {
+                    double distance = dik + dist[kRow + j];
+                    if (distance < dist[iRow + j]) {
+                        dist[iRow + j] = distance;
+                        next[iRow + j] = nik;
+                    }
+                }
+            }
+        }
+    }
+
+    private double getDistance(int i, int j) {
+        double distance = dist[i * vertexCount + j];
+        return distance == Double.POSITIVE_INFINITY ? Double.MAX_VALUE : distance;
+    }
+
+    /**
+     * @return the distance between every pair of vertices, without building any path
+     */
+    public DistanceMatrix getDistanceMatrix() {
+        List<String> vertices = new ArrayList<>(vertexCount);
+        double[][] distances = new double[vertexCount][];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices.add(graph.getWord(i));
+            distances[i] = new double[vertexCount];
+            for (int j = 0; j < vertexCount; j++) {
+                distances[i][j] = getDistance(i, j);
+            }
+        }
+        return new DistanceMatrix(vertices, distances);
+    }
+
+    /**
+     * @return the paths from the source to every other vertex, or null if the source is not in the graph
+     */
+    // Time complexity: O(V * L), where L is the longest path
+    public SingleSourceShortestPath getSingleSourceShortestPath(String source) {
+        int i = graph.getId(source);
+        if (i == -1) {
+            return null;
+        }
+        return getSingleSourceShortestPath(i);
+    }
+
+    /**
+     * @return the paths from every vertex to every other vertex
+     */
+    public List<SingleSourceShortestPath> getSingleSourceShortestPaths() {
+        List<SingleSourceShortestPath> allShortestPaths = new ArrayList<>(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            allShortestPaths.add(getSingleSourceShortestPath(i));
+        }
+        return allShortestPaths;
+    }
+
+    private SingleSourceShortestPath getSingleSourceShortestPath(int i) {
+        Map<String, Path> shortestPaths = new HashMap<>();
+        for (int j = 0; j < vertexCount; j++) {
+            if (i != j) {
+                shortestPaths.put(graph.getWord(j), new Path(getDistance(i, j), constructPath(i, j)));
+            }
+        }
+        return new SingleSourceShortestPath(graph.getWord(i), shortestPaths);
+    }
+
+    private List<String> constructPath(int i, int j) {
+        if (next[i * vertexCount + j] == -1) {
+            return null;
+        }
+        List<String> path = new ArrayList<>();
+        while (i != j) {
+            path.add(graph.getWord(i));
+            i = next[i * vertexCount + j];
+        }
+        path.add(graph.getWord(j));
+        return path;
+    }
+}
@@ -0,0 +1,48 @@
+package me.shailesh.wordgraph.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Options that change how a word graph is built from a text. The defaults build the graph exactly as before any
+ * option existed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisOptions {
+    public static final double DEFAULT_ERROR_BOUND = 0.001;
+    public static final int DEFAULT_WINDOW_SIZE = 5;
+    public static final int MAX_WINDOW_SIZE = 1000;
+
+    // Find the top words with a fixed memory Space-Saving counter instead of counting every distinct word
+    private boolean approximate;
+    // Maximum overestimate of a word count in approximate mode, as a fraction of the number of words in the text
+    @Builder.Default
+    private double errorBound = DEFAULT_ERROR_BOUND;
+    @Builder.Default
+    private CoOccurrenceMode coOccurrence = CoOccurrenceMode.SENTENCE;
+    // The largest distance, in words, between two words that appear together in the window modes
+    @Builder.Default
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+    // Allow up to WordGraphAnalysis.MAX_LARGE_N words, with the edges counted only for the pairs that appear together
+    private boolean largeGraph;
+    // The most chunks a text is split into at sentence boundaries, to be tokenized and counted on the common
+    // ForkJoinPool, or 1 to build the graph on the calling thread. The graph is the same either way
+    @Builder.Default
+    private int parallelism = 1;
+    // Told how long each phase of the build took, which never changes the graph
+    @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private BuildPhaseListener phaseListener = BuildPhaseListener.NONE;
+
+    public static AnalysisOptions defaults() {
+        return AnalysisOptions.builder().build();
+    }
+}
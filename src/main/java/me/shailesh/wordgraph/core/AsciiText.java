@@ -0,0 +1,38 @@
+package me.shailesh.wordgraph.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A view of ASCII bytes as characters, so that text read as bytes is tokenized without decoding it into a String.
+ */
+class AsciiText implements CharSequence {
+    private final byte[] bytes;
+    private final int start;
+    private final int end;
+
+    AsciiText(byte[] bytes, int start, int end) {
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) bytes[start + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new AsciiText(bytes, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,13 @@
+package me.shailesh.wordgraph.core;
+
+/**
+ * The phases of building a word graph from a text.
+ */
+public enum BuildPhase {
+    // Splitting the text into words and sentences
+    TOKENIZE,
+    // Counting the words and keeping the most frequent ones
+    SELECT_TOP_WORDS,
+    // Counting the pairs of top words that appear together and adding the edges
+    BUILD_EDGES
+}
@@ -0,0 +1,12 @@
+package me.shailesh.wordgraph.core;
+
+/**
+ * Told how long every phase of building a word graph took, e.g. to record it as a metric.
+ */
+@FunctionalInterface
+public interface BuildPhaseListener {
+    BuildPhaseListener NONE = (phase, nanos) -> {
+    };
+
+    void onPhase(BuildPhase phase, long nanos);
+}
@@ -0,0 +1,136 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * A text tokenized in chunks that end at sentence boundaries, each chunk on the common ForkJoinPool. The words of the
+ * chunks are then given ids in order of first occurrence in the whole text, so the ids and frequencies are the same as
+ * those of the whole text tokenized at once, and a chunk never splits a sentence, a window or a word.
+ */
+class ChunkedText implements Vocabulary, AutoCloseable {
+    // Texts are not split into chunks shorter than this, which are not worth a task of their own
+    static final int MIN_CHUNK_LENGTH = 1 << 16;
+
+    private final List<TokenizedText> chunks;
+    // The id in the whole text of every word id of every chunk
+    private final int[][] chunkIds;
+    private final WordTable words = new WordTable();
+    private int[] frequencies = new int[64];
+    private Map<String, Integer> ids;
+
+    private ChunkedText(List<TokenizedText> chunks) {
+        this.chunks = chunks;
+        chunkIds = new int[chunks.size()][];
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            TokenizedText tokenizedText = chunks.get(chunk);
+            chunkIds[chunk] = new int[tokenizedText.getDistinctWordCount()];
+            for (int id = 0; id < tokenizedText.getDistinctWordCount(); id++) {
+                int globalId = words.intern(tokenizedText.getWord(id));
+                if (globalId == frequencies.length) {
+                    frequencies = Arrays.copyOf(frequencies, globalId * 2);
+                }
+                frequencies[globalId] += tokenizedText.getFrequency(id);
+                chunkIds[chunk][id] = globalId;
+            }
+        }
+    }
+
+    /**
+     * @param chunkCount the most chunks to split the text into, which are tokenized in parallel
+     */
+    // Time complexity: O(N / P + C * D), for P threads and C chunks of D distinct words each
+    static ChunkedText of(String text, int chunkCount) {
+        List<Integer> ends = findChunkEnds(text, Math.min(chunkCount, Math.max(1, text.length() / MIN_CHUNK_LENGTH)));
+        List<TokenizedText> chunks = IntStream.range(0, ends.size()).parallel()
+                .mapToObj(chunk -> {
+                    var tokenizedText = new TokenizedText();
+                    tokenizedText.accept(text, chunk == 0 ? 0 : ends.get(chunk - 1), ends.get(chunk));
+                    return tokenizedText;
+                })
+                .toList();
+        return new ChunkedText(chunks);
+    }
+
+    /**
+     * Every chunk but the last ends just after the first sentence delimiter at or after its share of the text, so a
+     * text with few delimiters may have fewer chunks.
+     */
+    private static List<Integer> findChunkEnds(String text, int chunkCount) {
+        List<Integer> ends = new ArrayList<>(chunkCount);
+        int end = 0;
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            int i = Math.max(end, (int) ((long) text.length() * chunk / chunkCount));
+            while (i < text.length() && !TokenizedText.isSentenceDelimiter(text.charAt(i))) {
+                i++;
+            }
+            if (i >= text.length() - 1) {
+                break;
+            }
+            end = i + 1;
+            ends.add(end);
+        }
+        ends.add(text.length());
+        return ends;
+    }
+
+    int getChunkCount() {
+        return chunks.size();
+    }
+
+    TokenizedText getChunk(int chunk) {
+        return chunks.get(chunk);
+    }
+
+    /**
+     * @param vertexOf the vertex of every word id of the whole text, or -1
+     * @return the vertex of every word id of the chunk, or -1
+     */
+    int[] getChunkVertices(int chunk, int[] vertexOf) {
+        int[] chunkVertexOf = new int[chunkIds[chunk].length];
+        for (int id = 0; id < chunkVertexOf.length; id++) {
+            chunkVertexOf[id] = vertexOf[chunkIds[chunk][id]];
+        }
+        return chunkVertexOf;
+    }
+
+    @Override
+    public int getDistinctWordCount() {
+        return words.size();
+    }
+
+    @Override
+    public String getWord(int id) {
+        return words.getWord(id);
+    }
+
+    @Override
+    public int getId(String word) {
+        return words.getId(word);
+    }
+
+    @Override
+    public int getFrequency(int id) {
+        return frequencies[id];
+    }
+
+    @Override
+    public Map<String, Integer> getIds() {
+        if (ids == null) {
+            ids = new HashMap<>();
+            for (int id = 0; id < words.size(); id++) {
+                ids.put(words.getWord(id), id);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void close() {
+        chunks.forEach(TokenizedText::close);
+    }
+}
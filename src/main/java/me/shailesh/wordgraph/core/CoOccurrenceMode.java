@@ -0,0 +1,13 @@
+package me.shailesh.wordgraph.core;
+
+/**
+ * How two words are found to appear together in a text, which decides the edges of the word graph.
+ */
+public enum CoOccurrenceMode {
+    // Once for every sentence both words are in
+    SENTENCE,
+    // Once for every two occurrences of the words at most the window size apart, within a sentence
+    WINDOW,
+    // Like WINDOW, but weighted by 1 / distance, so adjacent words count the most
+    DISTANCE_WEIGHTED
+}
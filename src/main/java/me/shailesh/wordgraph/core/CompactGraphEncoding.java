@@ -0,0 +1,161 @@
+package me.shailesh.wordgraph.core;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact binary form of a {@link CompactWordGraph} for storage. Each word is stored once in a vertex dictionary,
+ * and every edge only as the difference between its target id and the previous target id of its vertex, so that the
+ * edges keep their order. Counts, differences and whole weights are variable length integers of 1 byte for values up
+ * to 127. Weights are only stored as 8 byte doubles if any of them is not a whole number.
+ * <p>
+ * Layout: version, flags, vertex count, then the words as UTF-8 with their length, the degree of every vertex, the
+ * target differences of every edge, and the weights of every edge.
+ */
+public class CompactGraphEncoding {
+    private static final int VERSION = 1;
+    private static final int WHOLE_WEIGHTS = 1;
+    // Largest whole number that a double holds exactly
+    private static final double MAX_WHOLE_WEIGHT = 0x1p53;
+
+    private CompactGraphEncoding() {
+    }
+
+    // Time complexity: O(V + E)
+    public static byte[] encode(CompactWordGraph graph) {
+        int vertexCount = graph.getVertexCount();
+        int edgeCount = graph.getEdgeCount();
+        boolean wholeWeights = true;
+        for (int edge = 0; edge < edgeCount && wholeWeights; edge++) {
+            double weight = graph.getWeight(edge);
+            wholeWeights = weight >= 0 && weight <= MAX_WHOLE_WEIGHT && weight == Math.rint(weight);
+        }
+        var out = new ByteArrayOutputStream(vertexCount * 8 + edgeCount * 3 + 16);
+        out.write(VERSION);
+        out.write(wholeWeights ? WHOLE_WEIGHTS : 0);
+        writeVarLong(out, vertexCount);
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            byte[] word = graph.getWord(vertex).getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, word.length);
+            out.write(word, 0, word.length);
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            writeVarLong(out, graph.getEdgeEnd(vertex) - graph.getEdgeStart(vertex));
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int previous = vertex;
+            for (int edge = graph.getEdgeStart(vertex); edge < graph.getEdgeEnd(vertex); edge++) {
+                int target = graph.getTarget(edge);
+                // Zigzag encode the difference so that small negative differences are small too
+                int difference = target - previous;
+                writeVarLong(out, ((difference << 1) ^ (difference >> 31)) & 0xffffffffL);
+                previous = target;
+            }
+        }
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (wholeWeights) {
+                writeVarLong(out, (long) graph.getWeight(edge));
+            } else {
+                long bits = Double.doubleToLongBits(graph.getWeight(edge));
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) (bits >>> shift));
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded graph
+     */
+    // Time complexity: O(V + E)
+    public static CompactWordGraph decode(byte[] bytes) {
+        var in = new Input(bytes);
+        try {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unknown graph encoding version " + bytes[0]);
+            }
+            boolean wholeWeights = (in.readByte() & WHOLE_WEIGHTS) != 0;
+            int vertexCount = in.readInt();
+            String[] words = new String[vertexCount];
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                int length = in.readInt();
+                words[vertex] = new String(bytes, in.position, length, StandardCharsets.UTF_8);
+                in.position += length;
+            }
+            int[] offsets = new int[vertexCount + 1];
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                offsets[vertex + 1] = offsets[vertex] + in.readInt();
+            }
+            int edgeCount = offsets[vertexCount];
+            int[] targets = new int[edgeCount];
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                int previous = vertex;
+                for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                    int zigzag = (int) in.readVarLong();
+                    previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                    if (previous < 0 || previous >= vertexCount) {
+                        throw new IllegalArgumentException("Edge to unknown vertex " + previous);
+                    }
+                    targets[edge] = previous;
+                }
+            }
+            double[] weights = new double[edgeCount];
+            for (int edge = 0; edge < edgeCount; edge++) {
+                weights[edge] = wholeWeights ? in.readVarLong() : Double.longBitsToDouble(in.readLong());
+            }
+            return CompactWordGraph.of(words, offsets, targets, weights);
+        } catch (ArrayIndexOutOfBoundsException | StringIndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Truncated graph encoding", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static class Input {
+        private final byte[] bytes;
+        private int position = 0;
+
+        private Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private int readByte() {
+            return bytes[position++] & 0xff;
+        }
+
+        private int readInt() {
+            long value = readVarLong();
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Value out of range " + value);
+            }
+            return (int) value;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Variable length integer too long");
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, int indexed form of a word graph for the graph algorithms. Every word is given a vertex id in the
+ * iteration order of the adjacency list, and the edges are kept in compressed sparse row form: the edges of vertex
+ * {@code v} are the indexes from {@code offsets[v]} to {@code offsets[v + 1]} of the {@code targets} and
+ * {@code weights} arrays, in the order of its edge list.
+ */
+public class CompactWordGraph {
+    private final String[] words;
+    private final Map<String, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    private CompactWordGraph(String[] words, Map<String, Integer> ids, int[] offsets, int[] targets, double[] weights) {
+        this.words = words;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // Time complexity: O(V + E)
+    public static CompactWordGraph of(Map<String, List<Edge>> adjacencyList) {
+        int vertexCount = adjacencyList.size();
+        String[] words = new String[vertexCount];
+        Map<String, Integer> ids = new HashMap<>(vertexCount * 2);
+        int[] offsets = new int[vertexCount + 1];
+        int vertex = 0;
+        for (var entry : adjacencyList.entrySet()) {
+            words[vertex] = entry.getKey();
+            ids.put(entry.getKey(), vertex);
+            offsets[vertex + 1] = offsets[vertex] + entry.getValue().size();
+            vertex++;
+        }
+        int[] targets = new int[offsets[vertexCount]];
+        double[] weights = new double[offsets[vertexCount]];
+        int edge = 0;
+        for (var edges : adjacencyList.values()) {
+            for (Edge e : edges) {
+                Integer target = ids.get(e.to);
+                if (target == null) {
+                    throw new IllegalArgumentException("Edge to unknown word " + e.to);
+                }
+                targets[edge] = target;
+                weights[edge] = e.weight;
+                edge++;
+            }
+        }
+        return new CompactWordGraph(words, ids, offsets, targets, weights);
+    }
+
+    static CompactWordGraph of(String[] words, int[] offsets, int[] targets, double[] weights) {
+        Map<String, Integer> ids = new HashMap<>(words.length * 2);
+        for (int vertex = 0; vertex < words.length; vertex++) {
+            if (ids.put(words[vertex], vertex) != null) {
+                throw new IllegalArgumentException("Duplicate word " + words[vertex]);
+            }
+        }
+        return new CompactWordGraph(words, ids, offsets, targets, weights);
+    }
+
+    /**
+     * @return the adjacency list of the graph, in vertex id order, so that building a compact graph from it gives the
+     * same vertex ids
+     */
+    // Time complexity: O(V + E)
+    public Map<String, List<Edge>> toAdjacencyList() {
+        Map<String, List<Edge>> adjacencyList = new LinkedHashMap<>(words.length * 2);
+        for (int vertex = 0; vertex < words.length; vertex++) {
+            List<Edge> edges = new ArrayList<>(offsets[vertex + 1] - offsets[vertex]);
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                edges.add(new Edge(words[targets[edge]], weights[edge]));
+            }
+            adjacencyList.put(words[vertex], edges);
+        }
+        return adjacencyList;
+    }
+
+    /**
+     * Build the graph with every edge reversed and its weight inversed, i.e. 1/weight.
+     * Isolated words are not vertices of the inverse graph, and the edges of a vertex are ordered by the vertex id
+     * of their target.
+     */
+    // Time complexity: O(V + E)
+    public CompactWordGraph inverse() {
+        int[] inDegrees = new int[words.length];
+        for (int target : targets) {
+            inDegrees[target]++;
+        }
+        int[] inverseIds = new int[words.length];
+        int vertexCount = 0;
+        for (int vertex = 0; vertex < words.length; vertex++) {
+            boolean isolated = inDegrees[vertex] == 0 && offsets[vertex] == offsets[vertex + 1];
+            inverseIds[vertex] = isolated ? -1 : vertexCount++;
+        }
+        String[] inverseWords = new String[vertexCount];
+        Map<String, Integer> inverseWordIds = new HashMap<>(vertexCount * 2);
+        int[] inverseOffsets = new int[vertexCount + 1];
+        for (int vertex = 0; vertex < words.length; vertex++) {
+            if (inverseIds[vertex] != -1) {
+                inverseWords[inverseIds[vertex]] = words[vertex];
+                inverseWordIds.put(words[vertex], inverseIds[vertex]);
+                inverseOffsets[inverseIds[vertex] + 1] = inverseOffsets[inverseIds[vertex]] + inDegrees[vertex];
+            }
+        }
+        int[] inverseTargets = new int[targets.length];
+        double[] inverseWeights = new double[weights.length];
+        int[] next = new int[vertexCount];
+        System.arraycopy(inverseOffsets, 0, next, 0, vertexCount);
+        for (int vertex = 0; vertex < words.length; vertex++) {
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                int slot = next[inverseIds[targets[edge]]]++;
+                inverseTargets[slot] = inverseIds[vertex];
+                inverseWeights[slot] = 1.0 / weights[edge];
+            }
+        }
+        return new CompactWordGraph(inverseWords, inverseWordIds, inverseOffsets, inverseTargets, inverseWeights);
+    }
+
+    public int getVertexCount() {
+        return words.length;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return the vertex id of the word, or -1 if the word is not in the graph
+     */
+    public int getId(String word) {
+        Integer id = ids.get(word);
+        return id == null ? -1 : id;
+    }
+
+    public String getWord(int vertex) {
+        return words[vertex];
+    }
+
+    public int getEdgeStart(int vertex) {
+        return offsets[vertex];
+    }
+
+    public int getEdgeEnd(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    public double getWeight(int edge) {
+        return weights[edge];
+    }
+}
@@ -0,0 +1,62 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.*;
+
+/**
+ * The counts of the top words of a corpus and of the sentences each pair of them appears together in, as read from
+ * where the corpus is stored, from which the graph of the corpus is built.
+ */
+public class CorpusCounts {
+    // Most frequent first, and words with the same count in lexicographic order
+    private final Map<String, Long> topWords;
+    private final Map<String, Long> pairCounts;
+
+    /**
+     * @param topWords   the counts of the top words, in the order of their rank
+     * @param pairCounts the counts of the pairs of top words, keyed by CorpusDelta.getPairKey
+     */
+    public CorpusCounts(Map<String, Long> topWords, Map<String, Long> pairCounts) {
+        this.topWords = topWords;
+        this.pairCounts = pairCounts;
+    }
+
+    /**
+     * Build the graph of the top words of the corpus, where the edges are the number of sentences two words appear
+     * together in, like a graph built from the whole corpus as one text.
+     */
+    // Time complexity: O(V^2)
+    public WordGraphAnalysis snapshot(int maxWords) {
+        int wordsToInclude = WordGraphAnalysis.getWordsToInclude(maxWords);
+        List<String> words = new ArrayList<>(Math.min(wordsToInclude, topWords.size()));
+        Map<String, Integer> wordFrequencies = new HashMap<>();
+        Map<String, List<Edge>> adjacencyList = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> word : topWords.entrySet()) {
+            if (words.size() == wordsToInclude) {
+                break;
+            }
+            words.add(word.getKey());
+            wordFrequencies.put(word.getKey(), (int) Math.min(word.getValue(), Integer.MAX_VALUE));
+            adjacencyList.put(word.getKey(), new ArrayList<>());
+        }
+        int e = 0;
+        for (int i = 0; i < words.size(); i++) {
+            for (int j = i + 1; j < words.size(); j++) {
+                String word1 = words.get(i);
+                String word2 = words.get(j);
+                Long count = pairCounts.get(CorpusDelta.getPairKey(word1, word2));
+                if (count != null) {
+                    adjacencyList.get(word1).add(new Edge(word2, count));
+                    adjacencyList.get(word2).add(new Edge(word1, count));
+                    e += 2;
+                }
+            }
+        }
+        return WordGraphAnalysis.builder()
+                .maxWords(maxWords)
+                .v(words.size())
+                .e(e)
+                .wordFrequencies(wordFrequencies)
+                .adjacencyList(adjacencyList)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package me.shailesh.wordgraph.core;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The counts that a document adds to a corpus: how many times each word appears, and how many sentences each pair of
+ * words appears together in. Counting takes time proportional to the document, and not to the corpus.
+ * Every pair is a write to the stored corpus, so a document with more pairs than a corpus takes at once is refused.
+ */
+@Getter
+public class CorpusDelta {
+    // Separates the two words of a pair, which can not be part of a word
+    public static final String PAIR_SEPARATOR = "|";
+    // The most distinct pairs one document can add to a corpus
+    public static final int MAX_PAIRS = 100_000;
+
+    private final Map<String, Long> wordCounts;
+    // Keyed by the two words in lexicographic order, joined by the pair separator
+    private final Map<String, Long> pairCounts;
+    // The number of words, not counting sentence breaks
+    private final long tokenCount;
+
+    public CorpusDelta(Map<String, Long> wordCounts, Map<String, Long> pairCounts, long tokenCount) {
+        this.wordCounts = wordCounts;
+        this.pairCounts = pairCounts;
+        this.tokenCount = tokenCount;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the document has more than MAX_PAIRS distinct pairs, or a sentence has more
+     * than WordGraphAnalysis.MAX_SENTENCE_WORDS distinct words
+     */
+    // Time complexity: O(N + S * K^2), where K is the number of distinct words in a sentence S
+    public static CorpusDelta of(String document) {
+        return of(document, MAX_PAIRS);
+    }
+
+    static CorpusDelta of(String document, int maxPairs) {
+        try (TokenizedText tokenizedText = TokenizedText.of(document.toLowerCase())) {
+            int distinctWords = tokenizedText.getDistinctWordCount();
+            Map<String, Long> wordCounts = new HashMap<>(distinctWords * 2);
+            long wordCount = 0;
+            for (int id = 0; id < distinctWords; id++) {
+                wordCounts.put(tokenizedText.getWord(id), (long) tokenizedText.getFrequency(id));
+                wordCount += tokenizedText.getFrequency(id);
+            }
+
+            // Pairs of word ids, with the smaller id in the high bits
+            Map<Long, Long> pairIdCounts = new HashMap<>();
+            int[] lastSeenInSentence = new int[distinctWords];
+            Arrays.fill(lastSeenInSentence, -1);
+            int[] wordsInSentence = new int[Math.min(distinctWords, WordGraphAnalysis.MAX_SENTENCE_WORDS)];
+            int wordsInSentenceCount = 0;
+            int sentence = 0;
+            var tokens = tokenizedText.tokens();
+            while (true) {
+                int token = tokens.hasNext() ? tokens.nextInt() : TokenizedText.SENTENCE_BREAK;
+                if (token == TokenizedText.SENTENCE_BREAK) {
+                    for (int a = 0; a < wordsInSentenceCount; a++) {
+                        for (int b = a + 1; b < wordsInSentenceCount; b++) {
+                            long from = Math.min(wordsInSentence[a], wordsInSentence[b]);
+                            long to = Math.max(wordsInSentence[a], wordsInSentence[b]);
+                            if (pairIdCounts.merge(from << 32 | to, 1L, Long::sum) == 1L && pairIdCounts.size() > maxPairs) {
+                                throw new IllegalArgumentException("The document has more than " + maxPairs
+                                        + " pairs of words that appear together in a sentence. Add it in smaller documents");
+                            }
+                        }
+                    }
+                    if (!tokens.hasNext()) {
+                        break;
+                    }
+                    wordsInSentenceCount = 0;
+                    sentence++;
+                    continue;
+                }
+                if (lastSeenInSentence[token] != sentence) {
+                    if (wordsInSentenceCount == WordGraphAnalysis.MAX_SENTENCE_WORDS) {
+                        throw new IllegalArgumentException("A sentence has more than " + WordGraphAnalysis.MAX_SENTENCE_WORDS
+                                + " distinct words. Add documents with sentence delimiters");
+                    }
+                    lastSeenInSentence[token] = sentence;
+                    wordsInSentence[wordsInSentenceCount++] = token;
+                }
+            }
+            Map<String, Long> pairCounts = new HashMap<>(pairIdCounts.size() * 2);
+            pairIdCounts.forEach((pair, count) ->
+                    pairCounts.put(getPairKey(tokenizedText.getWord((int) (pair >>> 32)), tokenizedText.getWord((int) (long) pair)), count));
+            return new CorpusDelta(wordCounts, pairCounts, wordCount);
+        }
+    }
+
+    public static String getPairKey(String word1, String word2) {
+        return word1.compareTo(word2) < 0 ? word1 + PAIR_SEPARATOR + word2 : word2 + PAIR_SEPARATOR + word1;
+    }
+}
@@ -0,0 +1,16 @@
+package me.shailesh.wordgraph.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceMatrix {
+    // distances[i][j] is the distance from vertices[i] to vertices[j], or Double.MAX_VALUE if it is not reachable
+    private List<String> vertices;
+    private double[][] distances;
+}
@@ -0,0 +1,125 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of vertex ids keyed by a double, which tracks the position of every vertex in the heap so that
+ * the key of a vertex already in the heap can be decreased in O(logV) instead of removing and re-adding it.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;
+    // The position of every vertex in the heap, or -1 if it is not in the heap
+    private final int[] positions;
+    private final double[] keys;
+    private int size = 0;
+
+    public IndexedMinHeap(int vertexCount) {
+        heap = new int[vertexCount];
+        positions = new int[vertexCount];
+        keys = new double[vertexCount];
+        Arrays.fill(positions, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int vertex) {
+        return positions[vertex] != -1;
+    }
+
+    public double getKey(int vertex) {
+        return keys[vertex];
+    }
+
+    // Time complexity: O(logV)
+    public void insert(int vertex, double key) {
+        keys[vertex] = key;
+        heap[size] = vertex;
+        positions[vertex] = size;
+        siftUp(size++);
+    }
+
+    // Time complexity: O(logV)
+    public void decreaseKey(int vertex, double key) {
+        keys[vertex] = key;
+        siftUp(positions[vertex]);
+    }
+
+    /**
+     * Insert the vertex, or decrease its key if it is already in the heap.
+     */
+    public void insertOrDecreaseKey(int vertex, double key) {
+        if (contains(vertex)) {
+            decreaseKey(vertex, key);
+        } else {
+            insert(vertex, key);
+        }
+    }
+
+    /**
+     * @return the vertex with the smallest key, which is removed from the heap
+     */
+    // Time complexity: O(logV)
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Remove every vertex, in time proportional to the vertices in the heap rather than to all the vertices.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int vertex = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (keys[heap[parent]] <= keys[vertex]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+
+    private void siftDown(int position) {
+        int vertex = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[heap[child]] >= keys[vertex]) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+}
@@ -0,0 +1,191 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The k shortest loopless paths between two vertices, found with Yen's algorithm. Every spur path is found with a
+ * Dijkstra that stops as soon as the target is settled, and the scratch arrays are shared by all of them and reset by
+ * stamping rather than by clearing, so each search only costs the part of the graph it explores.
+ */
+public class KShortestPaths {
+    private final CompactWordGraph graph;
+    private final int target;
+    private final double[] distances;
+    private final int[] predecessors;
+    // A vertex is reached or settled in the current search when its stamp is the search stamp
+    private final int[] reachedAt;
+    private final int[] settledAt;
+    private int searchStamp = 0;
+    // A vertex or an edge is removed for the current spur when its stamp is the removal stamp, which starts above the
+    // initial stamps so that nothing is removed for the first search
+    private final int[] removedAt;
+    private final int[] removedEdgeAt;
+    private int removalStamp = 1;
+    private final IndexedMinHeap pq;
+
+    /**
+     * A path as its vertices and the distance from the source to each of them.
+     */
+    private record Candidate(int[] vertices, double[] distances) {
+        double weight() {
+            return distances[distances.length - 1];
+        }
+    }
+
+    private static final Comparator<Candidate> BY_WEIGHT = Comparator.comparingDouble(Candidate::weight)
+            .thenComparingInt(candidate -> candidate.vertices().length)
+            .thenComparing(Candidate::vertices, Arrays::compare);
+
+    private KShortestPaths(CompactWordGraph graph, int target) {
+        this.graph = graph;
+        this.target = target;
+        int vertexCount = graph.getVertexCount();
+        distances = new double[vertexCount];
+        predecessors = new int[vertexCount];
+        reachedAt = new int[vertexCount];
+        settledAt = new int[vertexCount];
+        removedAt = new int[vertexCount];
+        removedEdgeAt = new int[graph.getEdgeCount()];
+        pq = new IndexedMinHeap(vertexCount);
+    }
+
+    /**
+     * @return the k shortest loopless paths from the source to the target, shortest first, fewer if there are not k
+     * such paths, or null if either word is not in the graph
+     */
+    // Time complexity: O(k * L * (V + E)logV) in the worst case, where L is the longest of the paths, but each search
+    // stops once the target is settled
+    public static List<Path> yen(CompactWordGraph graph, String source, String target, int k) {
+        int sourceVertex = graph.getId(source);
+        int targetVertex = graph.getId(target);
+        if (sourceVertex == -1 || targetVertex == -1) {
+            return null;
+        }
+        var kShortestPaths = new KShortestPaths(graph, targetVertex);
+        List<Path> paths = new ArrayList<>();
+        for (Candidate candidate : kShortestPaths.yen(sourceVertex, k)) {
+            paths.add(kShortestPaths.toPath(candidate));
+        }
+        return paths;
+    }
+
+    private List<Candidate> yen(int source, int k) {
+        List<Candidate> shortest = new ArrayList<>();
+        Candidate first = k < 1 ? null : search(source, new int[0], new double[0], 0.0);
+        if (first == null) {
+            return shortest;
+        }
+        shortest.add(first);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BY_WEIGHT);
+        Set<List<Integer>> found = new HashSet<>();
+        found.add(toList(first.vertices()));
+        while (shortest.size() < k) {
+            Candidate previous = shortest.getLast();
+            // Deviate from the previous path at every vertex but the target
+            for (int spur = 0; spur < previous.vertices().length - 1; spur++) {
+                removalStamp++;
+                int[] rootVertices = Arrays.copyOf(previous.vertices(), spur);
+                double[] rootDistances = Arrays.copyOf(previous.distances(), spur);
+                // The paths found so far that share the root can not leave the spur vertex the same way again
+                for (Candidate path : shortest) {
+                    if (path.vertices().length > spur + 1 && Arrays.equals(path.vertices(), 0, spur + 1, previous.vertices(), 0, spur + 1)) {
+                        removeEdge(path.vertices()[spur], path.vertices()[spur + 1]);
+                    }
+                }
+                // Paths are loopless, so the spur path can not go back through the root
+                for (int vertex : rootVertices) {
+                    removedAt[vertex] = removalStamp;
+                }
+                Candidate candidate = search(previous.vertices()[spur], rootVertices, rootDistances, previous.distances()[spur]);
+                if (candidate != null && found.add(toList(candidate.vertices()))) {
+                    candidates.add(candidate);
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            shortest.add(candidates.poll());
+        }
+        return shortest;
+    }
+
+    private void removeEdge(int from, int to) {
+        for (int edge = graph.getEdgeStart(from); edge < graph.getEdgeEnd(from); edge++) {
+            if (graph.getTarget(edge) == to) {
+                removedEdgeAt[edge] = removalStamp;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Dijkstra from the start vertex, without the vertices and edges removed for the current spur, which stops once
+     * the target is settled.
+     *
+     * @param rootWeight the distance from the source to the start vertex along the root
+     * @return the root followed by the shortest path from the start to the target, or null if the target is not
+     * reachable
+     */
+    private Candidate search(int start, int[] rootVertices, double[] rootDistances, double rootWeight) {
+        searchStamp++;
+        distances[start] = 0.0;
+        predecessors[start] = -1;
+        reachedAt[start] = searchStamp;
+        pq.insert(start, 0.0);
+        boolean found = false;
+        while (!pq.isEmpty()) {
+            int current = pq.poll();
+            settledAt[current] = searchStamp;
+            if (current == target) {
+                found = true;
+                break;
+            }
+            for (int edge = graph.getEdgeStart(current); edge < graph.getEdgeEnd(current); edge++) {
+                int vertex = graph.getTarget(edge);
+                if (settledAt[vertex] == searchStamp || removedAt[vertex] == removalStamp || removedEdgeAt[edge] == removalStamp) {
+                    continue;
+                }
+                double distance = distances[current] + graph.getWeight(edge);
+                if (reachedAt[vertex] != searchStamp || distance < distances[vertex]) {
+                    reachedAt[vertex] = searchStamp;
+                    distances[vertex] = distance;
+                    predecessors[vertex] = current;
+                    pq.insertOrDecreaseKey(vertex, distance);
+                }
+            }
+        }
+        pq.clear();
+        if (!found) {
+            return null;
+        }
+        int length = 0;
+        for (int vertex = target; vertex != -1; vertex = predecessors[vertex]) {
+            length++;
+        }
+        int[] vertices = Arrays.copyOf(rootVertices, rootVertices.length + length);
+        double[] pathDistances = Arrays.copyOf(rootDistances, rootDistances.length + length);
+        for (int vertex = target, i = vertices.length - 1; vertex != -1; vertex = predecessors[vertex], i--) {
+            vertices[i] = vertex;
+            pathDistances[i] = rootWeight + distances[vertex];
+        }
+        return new Candidate(vertices, pathDistances);
+    }
+
+    private Path toPath(Candidate candidate) {
+        List<String> path = new ArrayList<>(candidate.vertices().length);
+        for (int vertex : candidate.vertices()) {
+            path.add(graph.getWord(vertex));
+        }
+        return new Path(candidate.weight(), path);
+    }
+
+    private static List<Integer> toList(int[] vertices) {
+        return Arrays.stream(vertices).boxed().toList();
+    }
+}
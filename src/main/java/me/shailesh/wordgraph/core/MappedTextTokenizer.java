@@ -0,0 +1,154 @@
+package me.shailesh.wordgraph.core;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Tokenizes a UTF-8 file mapped into memory in segments with FileChannel.map, so that a file of any size is tokenized
+ * without reading it onto the heap. The mapped bytes are taken a chunk at a time, and a chunk of ASCII text is
+ * lowercased and tokenized as bytes, while only a chunk with other characters is decoded into a String.
+ * The text and its digest are the same as for the file read through {@link StreamingTextTokenizer}, and a file with
+ * more than 16 MB without whitespace is refused like it is, since a chunk is only ever cut after whitespace.
+ */
+public class MappedTextTokenizer {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    private static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+    private static final int DEFAULT_MAX_CHUNK_SIZE = 1 << 24;
+
+    private final MessageDigest digest;
+    private final TokenizedText tokenizedText;
+
+    private MappedTextTokenizer(MessageDigest digest, TokenizedText tokenizedText) {
+        this.digest = digest;
+        this.tokenizedText = tokenizedText;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the file has a run of more than 16 MB without whitespace
+     */
+    public static TokenizedText tokenize(Path file, MessageDigest digest) throws IOException {
+        return tokenize(file, digest, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param maxChunkSize the most bytes a chunk grows to when it has no whitespace to be cut after
+     */
+    // Time complexity: O(N)
+    static TokenizedText tokenize(Path file, MessageDigest digest, int chunkSize, int maxChunkSize, long segmentSize) throws IOException {
+        var tokenizer = new MappedTextTokenizer(digest, new TokenizedText());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            tokenizer.read(channel, chunkSize, maxChunkSize, segmentSize);
+        } catch (IOException | RuntimeException e) {
+            tokenizer.tokenizedText.close();
+            throw e;
+        }
+        return tokenizer.tokenizedText;
+    }
+
+    private void read(FileChannel channel, int chunkSize, int maxChunkSize, long segmentSize) throws IOException {
+        // Whitespace is trimmed from both ends before the text is read, so it is never held back
+        long start = findTextStart(channel, segmentSize);
+        long end = findTextEnd(channel, start, segmentSize);
+        byte[] buffer = new byte[chunkSize];
+        int length = 0;
+        for (long position = start; position < end; position += segmentSize) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, end - position));
+            while (segment.hasRemaining()) {
+                int read = Math.min(buffer.length - length, segment.remaining());
+                segment.get(buffer, length, read);
+                length += read;
+                if (length < buffer.length) {
+                    continue;
+                }
+                int cut = findChunkEnd(buffer, length);
+                if (cut == 0) {
+                    if (buffer.length >= maxChunkSize) {
+                        throw new IllegalArgumentException("The text has more than " + maxChunkSize + " bytes without whitespace");
+                    }
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(buffer.length * 2L, maxChunkSize));
+                    continue;
+                }
+                accept(buffer, cut);
+                System.arraycopy(buffer, cut, buffer, 0, length - cut);
+                length -= cut;
+            }
+        }
+        accept(buffer, length);
+    }
+
+    private static long findTextStart(FileChannel channel, long segmentSize) throws IOException {
+        long size = channel.size();
+        for (long position = 0; position < size; position += segmentSize) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position));
+            for (int i = 0; i < segment.limit(); i++) {
+                if (!isWhitespace(segment.get(i))) {
+                    return position + i;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long findTextEnd(FileChannel channel, long start, long segmentSize) throws IOException {
+        for (long end = channel.size(); end > start; end -= segmentSize) {
+            long position = Math.max(start, end - segmentSize);
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+            for (int i = segment.limit() - 1; i >= 0; i--) {
+                if (!isWhitespace(segment.get(i))) {
+                    return position + i + 1;
+                }
+            }
+        }
+        return start;
+    }
+
+    // The characters String.trim removes, which in UTF-8 are all single bytes
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Chunks are cut after whitespace, as in {@link StreamingTextTokenizer}, so that neither a word nor a character
+     * encoded in more than one byte is ever split.
+     */
+    private static int findChunkEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (isWhitespace(buffer[i])) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void accept(byte[] buffer, int length) {
+        if (length == 0) {
+            return;
+        }
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (b < 0) {
+                ascii = false;
+                break;
+            }
+            if (b >= 'A' && b <= 'Z') {
+                buffer[i] = (byte) (b + ('a' - 'A'));
+            }
+        }
+        if (ascii) {
+            digest.update(buffer, 0, length);
+            tokenizedText.accept(new AsciiText(buffer, 0, length));
+            return;
+        }
+        // Other characters may lowercase to more than one character, or even to ASCII, so they are left to toLowerCase
+        String text = new String(buffer, 0, length, StandardCharsets.UTF_8).toLowerCase();
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        tokenizedText.accept(text);
+    }
+}
@@ -0,0 +1,172 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.Arrays;
+
+/**
+ * The weights of the unordered pairs of vertices that appear together. Small graphs keep a dense V^2 array, and large
+ * graphs an open addressing hash table of only the pairs that appear, since most pairs of a large vocabulary never do.
+ * The hash table holds at most a maximum number of pairs, so that a text whose words nearly all appear together can
+ * not grow it without bound.
+ */
+abstract class PairWeights {
+
+    /**
+     * @param maxPairs the most pairs a sparse table holds, which a dense array always can
+     */
+    static PairWeights create(int vertexCount, boolean dense, int maxPairs) {
+        return dense ? new Dense(vertexCount) : new Sparse(maxPairs);
+    }
+
+    /**
+     * Add to the weight of the pair of different vertices, given in any order.
+     *
+     * @throws IllegalArgumentException if the pair is new and there are already as many pairs as can be held
+     */
+    abstract void add(int vertex1, int vertex2, double weight);
+
+    abstract double get(int vertex1, int vertex2);
+
+    /**
+     * @return the pairs that appear, each as the smaller vertex in the high 32 bits and the larger in the low 32 bits,
+     * in ascending order
+     */
+    abstract long[] getPairs();
+
+    /**
+     * Add the weights of the other pairs to these.
+     *
+     * @return these pair weights
+     */
+    PairWeights addAll(PairWeights other) {
+        for (long pair : other.getPairs()) {
+            int vertex1 = (int) (pair >>> 32);
+            int vertex2 = (int) pair;
+            add(vertex1, vertex2, other.get(vertex1, vertex2));
+        }
+        return this;
+    }
+
+    static long toPair(int vertex1, int vertex2) {
+        return (long) Math.min(vertex1, vertex2) << 32 | Math.max(vertex1, vertex2);
+    }
+
+    private static class Dense extends PairWeights {
+        private final int vertexCount;
+        // The weight of the vertices i < j at i * V + j
+        private final double[] weights;
+
+        Dense(int vertexCount) {
+            this.vertexCount = vertexCount;
+            weights = new double[vertexCount * vertexCount];
+        }
+
+        @Override
+        void add(int vertex1, int vertex2, double weight) {
+            weights[Math.min(vertex1, vertex2) * vertexCount + Math.max(vertex1, vertex2)] += weight;
+        }
+
+        @Override
+        double get(int vertex1, int vertex2) {
+            return weights[Math.min(vertex1, vertex2) * vertexCount + Math.max(vertex1, vertex2)];
+        }
+
+        // Time complexity: O(V^2)
+        @Override
+        long[] getPairs() {
+            long[] pairs = new long[16];
+            int size = 0;
+            for (int i = 0; i < vertexCount; i++) {
+                for (int j = i + 1; j < vertexCount; j++) {
+                    if (weights[i * vertexCount + j] > 0) {
+                        if (size == pairs.length) {
+                            pairs = Arrays.copyOf(pairs, size * 2);
+                        }
+                        pairs[size++] = toPair(i, j);
+                    }
+                }
+            }
+            return Arrays.copyOf(pairs, size);
+        }
+    }
+
+    private static class Sparse extends PairWeights {
+        private static final long EMPTY = -1;
+
+        private final int maxPairs;
+        private long[] keys = new long[1024];
+        private double[] values = new double[1024];
+        private int size = 0;
+
+        Sparse(int maxPairs) {
+            this.maxPairs = maxPairs;
+            Arrays.fill(keys, EMPTY);
+        }
+
+        // Time complexity: O(1) amortized
+        @Override
+        void add(int vertex1, int vertex2, double weight) {
+            long pair = toPair(vertex1, vertex2);
+            int slot = find(keys, pair);
+            if (keys[slot] == EMPTY) {
+                if (size == maxPairs) {
+                    throw new IllegalArgumentException("The graph has more than " + maxPairs
+                            + " pairs of words that appear together. Count them in windows, or build a graph of fewer words");
+                }
+                keys[slot] = pair;
+                // Keep the table at most half full, so probe sequences stay short
+                if (++size * 2 > keys.length) {
+                    values[slot] = weight;
+                    grow();
+                    return;
+                }
+            }
+            values[slot] += weight;
+        }
+
+        @Override
+        double get(int vertex1, int vertex2) {
+            int slot = find(keys, toPair(vertex1, vertex2));
+            return keys[slot] == EMPTY ? 0.0 : values[slot];
+        }
+
+        // Time complexity: O(PlogP), where P is the number of pairs that appear
+        @Override
+        long[] getPairs() {
+            long[] pairs = new long[size];
+            int count = 0;
+            for (long key : keys) {
+                if (key != EMPTY) {
+                    pairs[count++] = key;
+                }
+            }
+            Arrays.sort(pairs);
+            return pairs;
+        }
+
+        // Linear probing from the mixed hash of the pair, to the slot of the pair or the empty slot it would go in
+        private static int find(long[] keys, long pair) {
+            int mask = keys.length - 1;
+            long hash = pair * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != pair) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new double[oldValues.length * 2];
+            Arrays.fill(keys, EMPTY);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = find(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * The shortest paths from a single source, kept as the distance to and the predecessor of every vertex.
+ * A path is only built as a list of words when it is requested.
+ */
+public class ShortestPathTree {
+    private final CompactWordGraph graph;
+    private final int source;
+    private final double[] distances;
+    private final int[] predecessors;
+
+    public ShortestPathTree(CompactWordGraph graph, int source, double[] distances, int[] predecessors) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.predecessors = predecessors;
+    }
+
+    /**
+     * @return the distance to the vertex, or Double.MAX_VALUE if it is not reachable from the source
+     */
+    public double getDistance(int vertex) {
+        return distances[vertex];
+    }
+
+    /**
+     * @return the shortest path to the word, or null if the word is not in the graph.
+     * The path to an unreachable word has the maximum weight and contains only the word itself.
+     */
+    public Path getPath(String target) {
+        int vertex = graph.getId(target);
+        if (vertex == -1) {
+            return null;
+        }
+        return getPath(vertex);
+    }
+
+    // Time complexity: O(length of the path)
+    public Path getPath(int vertex) {
+        LinkedList<String> path = new LinkedList<>();
+        for (int current = vertex; current != -1; current = predecessors[current]) {
+            path.addFirst(graph.getWord(current));
+        }
+        return new Path(distances[vertex], path);
+    }
+
+    /**
+     * Build the paths to every vertex other than the source.
+     */
+    public SingleSourceShortestPath toSingleSourceShortestPath(String sourceWord) {
+        Map<String, Path> shortestPaths = new HashMap<>();
+        for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+            if (vertex != source) {
+                shortestPaths.put(graph.getWord(vertex), getPath(vertex));
+            }
+        }
+        return new SingleSourceShortestPath(sourceWord, shortestPaths);
+    }
+}
@@ -0,0 +1,115 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Approximate word counts in fixed memory using the Space-Saving algorithm. At most {@code capacity} words are
+ * monitored in a min-heap keyed by their count. A word that is not monitored replaces the word with the smallest
+ * count and inherits that count, so counts are overestimated by at most N / capacity and every word that occurs
+ * more than N / capacity times is guaranteed to be monitored.
+ */
+public class SpaceSavingCounter {
+    private final int capacity;
+    private final String[] words;
+    private final int[] counts;
+    private final Map<String, Integer> positions;
+    private int size = 0;
+
+    public SpaceSavingCounter(int capacity) {
+        this.capacity = capacity;
+        words = new String[capacity];
+        counts = new int[capacity];
+        positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * @param errorBound  the maximum overestimate of a count, as a fraction of the number of words counted
+     * @param minCapacity the fewest words to monitor, e.g. the number of top words wanted
+     * @return a counter with enough capacity for the error bound, and at least the minimum capacity
+     */
+    public static SpaceSavingCounter withErrorBound(double errorBound, int minCapacity) {
+        return new SpaceSavingCounter(Math.max((int) Math.ceil(1.0 / errorBound), minCapacity));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Time complexity: O(logK)
+    public void add(String word) {
+        Integer position = positions.get(word);
+        if (position != null) {
+            counts[position]++;
+            siftDown(position);
+            return;
+        }
+        if (size < capacity) {
+            words[size] = word;
+            counts[size] = 1;
+            positions.put(word, size);
+            siftUp(size++);
+            return;
+        }
+        // Replace the word with the smallest count, which is always at the root
+        positions.remove(words[0]);
+        words[0] = word;
+        counts[0]++;
+        positions.put(word, 0);
+        siftDown(0);
+    }
+
+    /**
+     * @return the words that are currently monitored
+     */
+    public Set<String> getWords() {
+        return positions.keySet();
+    }
+
+    public int getCount(String word) {
+        Integer position = positions.get(word);
+        return position == null ? 0 : counts[position];
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String word = words[i];
+        words[i] = words[j];
+        words[j] = word;
+        int count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        positions.put(words[i], i);
+        positions.put(words[j], j);
+    }
+}
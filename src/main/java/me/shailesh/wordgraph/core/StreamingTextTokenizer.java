@@ -0,0 +1,158 @@
+package me.shailesh.wordgraph.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Tokenizes a text read from a stream in chunks, without ever holding the whole text in memory.
+ * The text goes through the same trim and lowercase as a text submitted in full, and the digest that is returned is
+ * updated with exactly the bytes of that trimmed, lowercase text.
+ */
+public class StreamingTextTokenizer {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    private static final int DEFAULT_MAX_CHUNK_SIZE = 1 << 24;
+    private static final int DEFAULT_MAX_PENDING_WHITESPACE = 1 << 16;
+
+    private final TokenizedText tokenizedText;
+    private final int maxPendingWhitespace;
+    private MessageDigest digest;
+    // Whitespace is held back until more text follows it, so that trailing whitespace is trimmed
+    private final StringBuilder pendingWhitespace = new StringBuilder();
+    // A copy of the digest that the whitespace held back beyond the maximum is hashed into, which replaces the digest
+    // if more text follows, and is dropped if the text ends
+    private MessageDigest whitespaceDigest;
+    private boolean started = false;
+
+    private StreamingTextTokenizer(MessageDigest digest, TokenizedText tokenizedText, int maxPendingWhitespace) {
+        this.digest = digest;
+        this.tokenizedText = tokenizedText;
+        this.maxPendingWhitespace = maxPendingWhitespace;
+    }
+
+    /**
+     * The tokens of a text, and the digest of the text to go on hashing with, which may be a copy of the given one.
+     */
+    public record Result(TokenizedText tokenizedText, MessageDigest digest) implements AutoCloseable {
+        @Override
+        public void close() {
+            tokenizedText.close();
+        }
+    }
+
+    /**
+     * @param digest a digest that can be cloned
+     * @throws IllegalArgumentException if the text has a run of more than 16M characters without whitespace
+     */
+    public static Result tokenize(Reader reader, MessageDigest digest) throws IOException {
+        return tokenize(reader, digest, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE, DEFAULT_MAX_PENDING_WHITESPACE);
+    }
+
+    /**
+     * @param maxChunkSize         the most characters a chunk grows to when it has no whitespace to be cut after
+     * @param maxPendingWhitespace the most characters of whitespace held back before they are hashed into a copy of
+     *                             the digest
+     */
+    // Time complexity: O(N)
+    static Result tokenize(Reader reader, MessageDigest digest, int chunkSize, int maxChunkSize, int maxPendingWhitespace) throws IOException {
+        var tokenizer = new StreamingTextTokenizer(digest, new TokenizedText(), maxPendingWhitespace);
+        try {
+            tokenizer.read(reader, chunkSize, maxChunkSize);
+        } catch (IOException | RuntimeException e) {
+            tokenizer.tokenizedText.close();
+            throw e;
+        }
+        return new Result(tokenizer.tokenizedText, tokenizer.digest);
+    }
+
+    private void read(Reader reader, int chunkSize, int maxChunkSize) throws IOException {
+        char[] buffer = new char[chunkSize];
+        int length = 0;
+        int read;
+        while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length < buffer.length) {
+                continue;
+            }
+            int cut = findChunkEnd(buffer, length);
+            if (cut == 0) {
+                if (buffer.length >= maxChunkSize) {
+                    throw new IllegalArgumentException("The text has more than " + maxChunkSize + " characters without whitespace");
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(buffer.length * 2L, maxChunkSize));
+                continue;
+            }
+            accept(new String(buffer, 0, cut));
+            System.arraycopy(buffer, cut, buffer, 0, length - cut);
+            length -= cut;
+        }
+        accept(new String(buffer, 0, length));
+    }
+
+    /**
+     * Chunks are cut after whitespace so that words, and the context toLowerCase looks at, are never split.
+     * A chunk without any whitespace is not cut at all, and the buffer grows to hold it instead, up to the maximum
+     * chunk size.
+     */
+    private static int findChunkEnd(char[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] <= ' ') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void accept(String chunk) {
+        int start = 0;
+        if (!started) {
+            while (start < chunk.length() && chunk.charAt(start) <= ' ') {
+                start++;
+            }
+            if (start == chunk.length()) {
+                return;
+            }
+            started = true;
+        }
+        int end = chunk.length();
+        while (end > start && chunk.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end == start) {
+            holdWhitespace(chunk, start);
+            return;
+        }
+        if (whitespaceDigest != null) {
+            digest = whitespaceDigest;
+            whitespaceDigest = null;
+        }
+        digest.update(pendingWhitespace.toString().getBytes(StandardCharsets.UTF_8));
+        pendingWhitespace.setLength(0);
+        String text = chunk.substring(start, end).toLowerCase();
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        tokenizedText.accept(text);
+        holdWhitespace(chunk, end);
+    }
+
+    /**
+     * Hold back the whitespace at the end of a chunk. Beyond the maximum, it is hashed into a copy of the digest
+     * instead, so that the digest of the text without it is kept in case the text ends.
+     */
+    private void holdWhitespace(String chunk, int start) {
+        pendingWhitespace.append(chunk, start, chunk.length());
+        if (pendingWhitespace.length() <= maxPendingWhitespace) {
+            return;
+        }
+        if (whitespaceDigest == null) {
+            try {
+                whitespaceDigest = (MessageDigest) digest.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("The digest can not be cloned", e);
+            }
+        }
+        whitespaceDigest.update(pendingWhitespace.toString().getBytes(StandardCharsets.UTF_8));
+        pendingWhitespace.setLength(0);
+    }
+}
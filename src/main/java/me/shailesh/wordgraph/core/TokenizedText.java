@@ -0,0 +1,311 @@
+package me.shailesh.wordgraph.core;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The result of tokenizing a text exactly once. Every distinct word is given an int id in order of first
+ * occurrence, and the text is kept as a stream of word ids where sentence boundaries ([.!?]) are marked with
+ * {@link #SENTENCE_BREAK}. The text is assumed to be lowercase.
+ * <p>
+ * The text can be fed in chunks through {@link #accept(CharSequence)}, as long as no chunk boundary falls inside a
+ * word. Once the token stream grows beyond the spill threshold it is written to a temporary file, so memory is
+ * bounded by the vocabulary rather than by the length of the text.
+ * <p>
+ * Words are runs of [a-z0-9_-], found by a hand written scanner rather than a regex, and interned in a
+ * {@link WordTable} straight from the text so that a String is only allocated for every distinct word.
+ */
+public class TokenizedText implements Vocabulary, AutoCloseable {
+    public static final int SENTENCE_BREAK = -1;
+    private static final int DEFAULT_SPILL_THRESHOLD = 1 << 20;
+    // The number of recently seen words forEachWord reuses the Strings of
+    private static final int RECENT_WORDS = 1 << 12;
+
+    private final WordTable words = new WordTable();
+    // Built from the word table on first use
+    private Map<String, Integer> ids;
+    private int[] frequencies = new int[64];
+    // Only these words are given ids when set, all other words are skipped
+    private final WordTable vocabulary;
+    private final int spillThreshold;
+    private int[] tokens;
+    private int size = 0;
+    private int lastToken = SENTENCE_BREAK;
+    private long spilledSize = 0;
+    private Path spillFile;
+    private DataOutputStream spillOutput;
+    private boolean sentenceBreakPending = false;
+
+    public TokenizedText() {
+        this(null, DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * @param vocabulary the only words to keep, all other words are left out of the token stream
+     */
+    public TokenizedText(Set<String> vocabulary) {
+        this(vocabulary, DEFAULT_SPILL_THRESHOLD);
+    }
+
+    TokenizedText(int spillThreshold) {
+        this(null, spillThreshold);
+    }
+
+    private TokenizedText(Set<String> vocabulary, int spillThreshold) {
+        this.vocabulary = vocabulary == null ? null : toWordTable(vocabulary);
+        this.spillThreshold = spillThreshold;
+        tokens = new int[Math.min(1024, spillThreshold)];
+    }
+
+    // Time complexity: O(N)
+    public static TokenizedText of(String text) {
+        TokenizedText tokenizedText = new TokenizedText();
+        tokenizedText.accept(text);
+        return tokenizedText;
+    }
+
+    private static WordTable toWordTable(Set<String> words) {
+        WordTable table = new WordTable();
+        for (String word : words) {
+            table.intern(word);
+        }
+        return table;
+    }
+
+    /**
+     * Tokenize the next chunk of the text.
+     *
+     * @param text the next chunk of the text, which must not start or end in the middle of a word
+     */
+    public void accept(CharSequence text) {
+        accept(text, 0, text.length());
+    }
+
+    /**
+     * Tokenize the next chunk of the text, from start (inclusive) to end (exclusive) of the given text.
+     */
+    // Time complexity: O(N)
+    public void accept(CharSequence text, int start, int end) {
+        // A delimiter ends the sentence of the previous word, even when that word was in the previous chunk
+        boolean delimiterSeen = sentenceBreakPending;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (isWordChar(c)) {
+                int wordStart = i;
+                while (++i < end && isWordChar(text.charAt(i))) {
+                }
+                if (delimiterSeen) {
+                    addSentenceBreak();
+                    delimiterSeen = false;
+                }
+                addWord(text, wordStart, i);
+            } else {
+                if (isSentenceDelimiter(c)) {
+                    delimiterSeen = true;
+                }
+                i++;
+            }
+        }
+        sentenceBreakPending = delimiterSeen;
+    }
+
+    /**
+     * Run an action for every word in the text, without keeping any state beyond a fixed size cache of recently seen
+     * words, whose Strings are passed again instead of allocating a new String for every occurrence.
+     */
+    // Time complexity: O(N)
+    public static void forEachWord(CharSequence text, Consumer<String> action) {
+        String[] recentWords = new String[RECENT_WORDS];
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!isWordChar(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (++i < length && isWordChar(text.charAt(i))) {
+            }
+            int slot = WordTable.hash(text, start, i) & (RECENT_WORDS - 1);
+            String word = recentWords[slot];
+            if (word == null || !WordTable.matches(word, text, start, i)) {
+                word = text.subSequence(start, i).toString();
+                recentWords[slot] = word;
+            }
+            action.accept(word);
+        }
+    }
+
+    static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+    }
+
+    static boolean isSentenceDelimiter(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+
+    private void addWord(CharSequence text, int start, int end) {
+        int id = words.getId(text, start, end);
+        if (id == -1) {
+            if (vocabulary != null && vocabulary.getId(text, start, end) == -1) {
+                return;
+            }
+            id = words.intern(text, start, end);
+            ids = null;
+            if (id == frequencies.length) {
+                frequencies = Arrays.copyOf(frequencies, id * 2);
+            }
+        }
+        frequencies[id]++;
+        addToken(id);
+    }
+
+    private void addSentenceBreak() {
+        // Consecutive delimiters only produce empty sentences, which never contribute an edge
+        if (lastToken != SENTENCE_BREAK) {
+            addToken(SENTENCE_BREAK);
+        }
+    }
+
+    private void addToken(int token) {
+        if (size == tokens.length) {
+            if (size >= spillThreshold) {
+                spill();
+            } else {
+                tokens = Arrays.copyOf(tokens, Math.min(size * 2, spillThreshold));
+            }
+        }
+        tokens[size++] = token;
+        lastToken = token;
+    }
+
+    private void spill() {
+        try {
+            if (spillOutput == null) {
+                spillFile = Files.createTempFile("wordgraph-tokens", ".bin");
+                spillOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+            }
+            for (int i = 0; i < size; i++) {
+                spillOutput.writeInt(tokens[i]);
+            }
+            spilledSize += size;
+            size = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error spilling tokens", e);
+        }
+    }
+
+    /**
+     * @return the id of every distinct word, keyed by the word
+     */
+    @Override
+    public Map<String, Integer> getIds() {
+        if (ids == null) {
+            // Words are put in order of id, so the map iterates in the same order as one filled while tokenizing
+            ids = new HashMap<>();
+            for (int id = 0; id < words.size(); id++) {
+                ids.put(words.getWord(id), id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return the id of the word, or -1 if it is not in the text
+     */
+    @Override
+    public int getId(String word) {
+        return words.getId(word);
+    }
+
+    @Override
+    public String getWord(int id) {
+        return words.getWord(id);
+    }
+
+    @Override
+    public int getFrequency(int id) {
+        return frequencies[id];
+    }
+
+    @Override
+    public int getDistinctWordCount() {
+        return words.size();
+    }
+
+    public long getTokenCount() {
+        return spilledSize + size;
+    }
+
+    /**
+     * @return the ids of the words in the order they appear in the text, with sentence breaks
+     */
+    public PrimitiveIterator.OfInt tokens() {
+        DataInputStream spillInput = null;
+        try {
+            if (spillOutput != null) {
+                spillOutput.flush();
+                spillInput = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading spilled tokens", e);
+        }
+        return new TokenIterator(spillInput);
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (spillOutput != null) {
+                spillOutput.close();
+                Files.deleteIfExists(spillFile);
+                spillOutput = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error deleting spilled tokens", e);
+        }
+    }
+
+    private class TokenIterator implements PrimitiveIterator.OfInt {
+        private final DataInputStream spillInput;
+        private long spilledRead = 0;
+        private int index = 0;
+
+        TokenIterator(DataInputStream spillInput) {
+            this.spillInput = spillInput;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return spilledRead < spilledSize || index < size;
+        }
+
+        @Override
+        public int nextInt() {
+            if (spilledRead < spilledSize) {
+                try {
+                    int token = spillInput.readInt();
+                    if (++spilledRead == spilledSize) {
+                        spillInput.close();
+                    }
+                    return token;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error reading spilled tokens", e);
+                }
+            }
+            if (index < size) {
+                return tokens[index++];
+            }
+            throw new NoSuchElementException();
+        }
+    }
+}
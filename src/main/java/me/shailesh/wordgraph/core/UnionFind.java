@@ -0,0 +1,47 @@
+package me.shailesh.wordgraph.core;
+
+/**
+ * Disjoint sets of vertex ids, with union by rank and path halving so that both operations take nearly constant
+ * amortized time. Finding a root is iterative, so long chains can not overflow the stack.
+ */
+public class UnionFind {
+    private final int[] parents;
+    private final byte[] ranks;
+
+    public UnionFind(int vertexCount) {
+        parents = new int[vertexCount];
+        ranks = new byte[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            parents[vertex] = vertex;
+        }
+    }
+
+    public int find(int vertex) {
+        while (parents[vertex] != vertex) {
+            // Point every other vertex on the way to its grandparent
+            parents[vertex] = parents[parents[vertex]];
+            vertex = parents[vertex];
+        }
+        return vertex;
+    }
+
+    /**
+     * @return true if the vertices were in different sets, which are now merged
+     */
+    public boolean union(int vertex1, int vertex2) {
+        int root1 = find(vertex1);
+        int root2 = find(vertex2);
+        if (root1 == root2) {
+            return false;
+        }
+        if (ranks[root1] < ranks[root2]) {
+            parents[root1] = root2;
+        } else if (ranks[root1] > ranks[root2]) {
+            parents[root2] = root1;
+        } else {
+            parents[root2] = root1;
+            ranks[root1]++;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,25 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.Map;
+
+/**
+ * The distinct words of a tokenized text, with ids given in order of first occurrence, and their frequencies.
+ */
+interface Vocabulary {
+
+    int getDistinctWordCount();
+
+    String getWord(int id);
+
+    /**
+     * @return the id of the word, or -1 if it is not in the text
+     */
+    int getId(String word);
+
+    int getFrequency(int id);
+
+    /**
+     * @return the id of every distinct word, keyed by the word, in a map filled in order of id
+     */
+    Map<String, Integer> getIds();
+}
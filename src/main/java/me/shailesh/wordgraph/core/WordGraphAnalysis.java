@@ -2,508 +2,704 @@ package me.shailesh.wordgraph.core;
 
 
 
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Slf4j
 public class WordGraphAnalysis {
     // In this graph, the vertices are the words
     // and the edges are the number of times the words appear together in the text.
     // The graph is represented as an adjacency list.
 
     private static final int MAX_N = 100;
-    private static final String WORD_REGEX = "[a-z0-9_-]+";
+    // The most words a large graph can have, whose edges are counted without a V^2 matrix
+    public static final int MAX_LARGE_N = 50_000;
+    // The most pairs of words a large graph counts, about 130 MB of pair weights, beyond which it is refused
+    public static final int MAX_LARGE_PAIRS = 1 << 22;
+    // The most distinct top words a sentence can have, whose pairs take K^2 time to count, beyond which the graph is
+    // refused. Long runs of text without a sentence delimiter are counted in windows instead
+    public static final int MAX_SENTENCE_WORDS = 1_000;
     private int maxWords;
     private int v;
     private int e;
     private Map<String, Integer> wordFrequencies;
     private Map<String, List<Edge>> adjacencyList;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CompactWordGraph compactGraph;
 
-    // O(NlogN + V^2) time complexity
+    // O(N + DlogV + V^2) time complexity, where D is the number of distinct words
     public WordGraphAnalysis(String text, int maxWords) {
+        this(text, maxWords, AnalysisOptions.defaults());
+    }
+
+    public WordGraphAnalysis(String text, int maxWords, AnalysisOptions options) {
+        this(maxWords);
+        if (options.isApproximate()) {
+            analyzeApproximately(text, options);
+            return;
+        }
+        long start = System.nanoTime();
+        if (options.getParallelism() > 1) {
+            try (ChunkedText chunkedText = ChunkedText.of(text, options.getParallelism())) {
+                options.getPhaseListener().onPhase(BuildPhase.TOKENIZE, System.nanoTime() - start);
+                analyze(chunkedText, (vertexOf, pairWeights) -> countPairs(chunkedText, vertexOf, options, pairWeights), options);
+            }
+            return;
+        }
+        try (TokenizedText tokenizedText = TokenizedText.of(text)) {
+            options.getPhaseListener().onPhase(BuildPhase.TOKENIZE, System.nanoTime() - start);
+            analyze(tokenizedText, options);
+        }
+    }
+
+    public WordGraphAnalysis(TokenizedText tokenizedText, int maxWords) {
+        this(tokenizedText, maxWords, AnalysisOptions.defaults());
+    }
+
+    public WordGraphAnalysis(TokenizedText tokenizedText, int maxWords, AnalysisOptions options) {
+        this(maxWords);
+        analyze(tokenizedText, options);
+    }
+
+    private WordGraphAnalysis(int maxWords) {
         e = 0;
         this.maxWords = maxWords;
-        analyzeFrequencies(text);
+    }
+
+    /**
+     * Find candidate top words in a first pass with a fixed size Space-Saving counter, then tokenize the text again
+     * keeping only the candidates, so their frequencies and edges are exact.
+     * Memory is bounded by the error bound instead of by the number of distinct words.
+     */
+    // Time complexity: O(NlogK), where K = max(1 / errorBound, V)
+    private void analyzeApproximately(String text, AnalysisOptions options) {
+        long start = System.nanoTime();
+        var counter = SpaceSavingCounter.withErrorBound(options.getErrorBound(), getWordsToInclude(options));
+        TokenizedText.forEachWord(text, counter::add);
+        try (TokenizedText tokenizedText = new TokenizedText(counter.getWords())) {
+            tokenizedText.accept(text);
+            options.getPhaseListener().onPhase(BuildPhase.TOKENIZE, System.nanoTime() - start);
+            analyze(tokenizedText, options);
+        }
+    }
+
+    private void analyze(TokenizedText tokenizedText, AnalysisOptions options) {
+        analyze(tokenizedText, (vertexOf, pairWeights) -> countPairs(tokenizedText.tokens(), vertexOf, options, pairWeights), options);
+    }
+
+    private void analyze(Vocabulary vocabulary, PairCounter pairCounter, AnalysisOptions options) {
+        long start = System.nanoTime();
+        String[] topWords = analyzeFrequencies(vocabulary, getWordsToInclude(options));
         v = adjacencyList.size();
-        buildAdjacencyList(text);
-        System.out.println("v = " + v + ", e = " + e);
-        System.out.println("wordFrequencies = " + wordFrequencies);
-        System.out.println("adjacencyList = " + adjacencyList);
+        long topWordsSelected = System.nanoTime();
+        options.getPhaseListener().onPhase(BuildPhase.SELECT_TOP_WORDS, topWordsSelected - start);
+        buildAdjacencyList(topWords, pairCounter);
+        options.getPhaseListener().onPhase(BuildPhase.BUILD_EDGES, System.nanoTime() - topWordsSelected);
+        log.debug("v = {}, e = {}", v, e);
+        // The whole graph is only turned into a string when it is logged
+        log.debug("wordFrequencies = {}", wordFrequencies);
+        log.debug("adjacencyList = {}", adjacencyList);
     }
 
     /**
-     * Analyze the text and find the frequencies of each word. The text is assumed to be lowercase.
+     * Analyze the tokenized text and find the frequencies of the top words.
      *
-     * @param text the text to create the graph from
+     * @param vocabulary the words of the text to create the graph from
+     * @return the top words, indexed by their word id in the text
+     */
+
+    // Time complexity: O(DlogV), where D is the number of distinct words
+    private String[] analyzeFrequencies(Vocabulary vocabulary, int wordsToInclude) {
+        adjacencyList = new HashMap<>();
+        wordFrequencies = new HashMap<>();
+        String[] topWords = new String[vocabulary.getDistinctWordCount()];
+        // Filter out words that are not in the top words
+        List<String> words = selectTopWords(vocabulary, wordsToInclude);
+        for (String word : words) {
+            int id = vocabulary.getId(word);
+            topWords[id] = word;
+            wordFrequencies.put(word, vocabulary.getFrequency(id));
+            adjacencyList.put(word, new ArrayList<>());
+        }
+        return topWords;
+    }
+
+    private int getWordsToInclude(AnalysisOptions options) {
+        return getWordsToInclude(maxWords, options.isLargeGraph());
+    }
+
+    /**
+     * @return the number of top words that are vertices of a graph built with the given maximum number of words
      */
+    public static int getWordsToInclude(int maxWords) {
+        return getWordsToInclude(maxWords, false);
+    }
 
-    // Time complexity: O(NlogN)
-    private void analyzeFrequencies(String text) {
+    /**
+     * @param largeGraph allow up to MAX_LARGE_N words instead of MAX_N
+     */
+    public static int getWordsToInclude(int maxWords, boolean largeGraph) {
+        int limit = largeGraph ? MAX_LARGE_N : MAX_N;
         int wordsToInclude = maxWords;
         if(wordsToInclude == 0) {
             wordsToInclude = MAX_N;
         }
-        if(wordsToInclude > MAX_N) {
-            wordsToInclude = MAX_N;
+        if(wordsToInclude > limit) {
+            wordsToInclude = limit;
         }
-        adjacencyList = new HashMap<>();
-        var allWordFrequencies = new HashMap<String, Integer>();
-        wordFrequencies = new HashMap<>();
-        Matcher matcher = Pattern.compile(WORD_REGEX).matcher(text);
-        while (matcher.find()) {
-            String word = matcher.group();
-            allWordFrequencies.put(word, allWordFrequencies.getOrDefault(word, 0) + 1);
+        return wordsToInclude;
+    }
+
+    /**
+     * Select the most frequent words with a min-heap bounded to the number of words to include.
+     * Words with the same frequency are ordered as they are in the word id map, like a stable sort of its keys.
+     *
+     * @return the top words, most frequent first
+     */
+    private List<String> selectTopWords(Vocabulary vocabulary, int wordsToInclude) {
+        // Each entry is {word id, position in the word id map}, with the least frequent, last positioned word on top
+        PriorityQueue<int[]> topIds = new PriorityQueue<>((a, b) -> {
+            int byFrequency = Integer.compare(vocabulary.getFrequency(a[0]), vocabulary.getFrequency(b[0]));
+            return byFrequency != 0 ? byFrequency : Integer.compare(b[1], a[1]);
+        });
+        int position = 0;
+        for (int id : vocabulary.getIds().values()) {
+            if (topIds.size() < wordsToInclude) {
+                topIds.add(new int[]{id, position});
+            } else if (wordsToInclude > 0 && vocabulary.getFrequency(id) > vocabulary.getFrequency(topIds.peek()[0])) {
+                topIds.poll();
+                topIds.add(new int[]{id, position});
+            }
+            position++;
         }
-        // Filter out words that are not in the top MAX_N words
-        List<String> words = new ArrayList<>(allWordFrequencies.keySet());
-        words.sort((a, b) -> allWordFrequencies.get(b) - allWordFrequencies.get(a));
-        for (int i = 0; i < Math.min(wordsToInclude, words.size()); i++) {
-            wordFrequencies.put(words.get(i), allWordFrequencies.get(words.get(i)));
-            adjacencyList.put(words.get(i), new ArrayList<>());
+        List<String> words = new ArrayList<>(topIds.size());
+        while (!topIds.isEmpty()) {
+            words.add(vocabulary.getWord(topIds.poll()[0]));
         }
+        Collections.reverse(words);
+        return words;
     }
 
     // Time complexity: O(V + E)
     public Path bfs(String start) {
-        if(!adjacencyList.containsKey(start)) {
+        var graph = getCompactGraph();
+        int source = graph.getId(start);
+        if(source == -1) {
             return null;
         }
-        Set<String> visited = new HashSet<>();
-        Queue<String> queue = new LinkedList<>();
+        boolean[] visited = new boolean[graph.getVertexCount()];
+        // The queue never holds a vertex twice, so the visited vertices in queue order are the BFS order
+        int[] queue = new int[graph.getVertexCount()];
+        int head = 0;
+        int tail = 0;
         double pathWeight = 0.0;
-        List<String> bfsOrder = new LinkedList<>();
-
-        visited.add(start);
-        queue.add(start);
-        while(!queue.isEmpty()) {
-            var current = queue.poll();
-            bfsOrder.add(current);
-            for(Edge e : adjacencyList.get(current)) {
-                if(!visited.contains(e.to)) {
-                    visited.add(e.to);
-                    queue.add(e.to);
-                    pathWeight+= e.weight;
+
+        visited[source] = true;
+        queue[tail++] = source;
+        while(head < tail) {
+            int current = queue[head++];
+            for(int edge = graph.getEdgeStart(current); edge < graph.getEdgeEnd(current); edge++) {
+                int to = graph.getTarget(edge);
+                if(!visited[to]) {
+                    visited[to] = true;
+                    queue[tail++] = to;
+                    pathWeight += graph.getWeight(edge);
                 }
             }
         }
-        return Path.builder().weight(pathWeight).path(bfsOrder).build();
+        return Path.builder().weight(pathWeight).path(toWords(graph, queue, tail)).build();
     }
 
-    // Time complexity: O(V + E)
+    // Time complexity: O(V * E) in the worst case, since a vertex is expanded every time it is popped, which keeps the
+    // established visiting order
     public Path dfs(String start) {
-        if(!adjacencyList.containsKey(start)) {
+        var graph = getCompactGraph();
+        int source = graph.getId(start);
+        if(source == -1) {
             return null;
         }
-        Stack<Edge> stack = new Stack<>();
-        Set<String> visited = new HashSet<>();
+        // The stack holds edge indexes, where -1 is the edge to the start vertex
+        int[] stack = new int[graph.getEdgeCount() + 1];
+        int size = 0;
+        boolean[] visited = new boolean[graph.getVertexCount()];
         double pathWeight = 0.0;
-        List<String> dfsOrder = new LinkedList<>();
-
-        stack.push(new Edge(start, 0.0));
-        while(!stack.isEmpty()) {
-            var current = stack.pop();
-            if(!visited.contains(current.to)) {
-                visited.add(current.to);
-                dfsOrder.add(current.to);
-                pathWeight += current.weight;
+        int[] dfsOrder = new int[graph.getVertexCount()];
+        int visitedCount = 0;
+
+        stack[size++] = -1;
+        while(size > 0) {
+            int edge = stack[--size];
+            int current = edge == -1 ? source : graph.getTarget(edge);
+            if(!visited[current]) {
+                visited[current] = true;
+                dfsOrder[visitedCount++] = current;
+                pathWeight += edge == -1 ? 0.0 : graph.getWeight(edge);
             }
-            for(var e : adjacencyList.get(current.to)) {
-                if(!visited.contains(e.to)) {
-                    stack.push(e);
+            for(int next = graph.getEdgeStart(current); next < graph.getEdgeEnd(current); next++) {
+                if(!visited[graph.getTarget(next)]) {
+                    if(size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    stack[size++] = next;
                 }
             }
         }
-        return Path.builder().weight(pathWeight).path(dfsOrder).build();
-    }
-
-    // Time Complexity: O(V^2)
-    private void buildAdjacencyList(String text) {
-        int count = 0;
-        // Split the text into sentences
-        String[] sentences = text.split("[.!?]");
-        Pattern wordPattern = Pattern.compile(WORD_REGEX);
-        Matcher matcher;
-        // Store pairs of words in the graph in a set
-        Set<Set<String>> wordPairs = getWordPairs();
-        System.out.println("wordPairs = " + wordPairs);
-        // For each pair of words, check if they appear in the same sentence
-        // If they do, increment the edge weight
-        for (Set<String> wordPair : wordPairs) {
-            for (String sentence : sentences) {
-                matcher = wordPattern.matcher(sentence);
-                // Create a set of words in the sentence
-                Set<String> wordsInSentence = new HashSet<>();
-                while (matcher.find()) {
-                    wordsInSentence.add(matcher.group());
-                }
-                String[] wordsInPair = wordPair.toArray(new String[0]);
-                String word1 = wordsInPair[0];
-                String word2 = wordsInPair[1];
-                if (wordsInSentence.contains(word1) && wordsInSentence.contains(word2)) {
-                    // Add or update edges between the two words
-                    updateEdge(word1, word2);
-                    updateEdge(word2, word1);
-                }
-            }
+        return Path.builder().weight(pathWeight).path(toWords(graph, dfsOrder, visitedCount)).build();
+    }
+
+    private List<String> toWords(CompactWordGraph graph, int[] vertices, int count) {
+        List<String> words = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            words.add(graph.getWord(vertices[i]));
         }
+        return words;
     }
 
     /**
-     * Update the edge in the adjacency list from word1 to word2.
-     * If the edge does not exist, create it.
-     * If the edge exists, increment the weight.
-     * @param word1 the first word
-     * @param word2 the second word
+     * @return the int indexed form of the adjacency list, which is built once and shared by all the algorithms
      */
-    private void updateEdge(String word1, String word2) {
-        List<Edge> edges = adjacencyList.get(word1);
-        if(edges == null) {
-            edges = new ArrayList<>();
-        }
-        boolean found = false;
-        for(Edge edge : edges) {
-            if(edge.to.equals(word2)) {
-                edge.weight++;
-                found = true;
-                break;
-            }
-        }
-        if(!found) {
-            edges.add(new Edge(word2, 1));
-            e++;
+    public CompactWordGraph getCompactGraph() {
+        if(compactGraph == null) {
+            compactGraph = CompactWordGraph.of(adjacencyList);
         }
+        return compactGraph;
     }
 
-    // O(N^2) time complexity
-    private Set<Set<String>> getWordPairs() {
-        Set<Set<String>> wordPairs = new HashSet<>();
-        for(String word : adjacencyList.keySet()) {
-            for(String otherWord : adjacencyList.keySet()) {
-                if(word.equals(otherWord)) {
-                    continue;
-                }
-                var wordPair = new HashSet<String>();
-                wordPair.add(word);
-                wordPair.add(otherWord);
-                wordPairs.add(wordPair);
-            }
-        }
-        return wordPairs;
+    public void setAdjacencyList(Map<String, List<Edge>> adjacencyList) {
+        this.adjacencyList = adjacencyList;
+        compactGraph = null;
     }
 
-    // Time complexity: O(V^2)
-    // Can be optimized to O(VlogV + E) using a priority queue
-    public SpanningTree primsMst() {
-        SpanningTree mst = new SpanningTree();
-        Set<String> visited = new HashSet<>();
-
-        String start = "";
-        for(var vertex : adjacencyList.keySet()) {
-            mst.addVertex(vertex);
-            if(start.isEmpty()) {
-                start = vertex;
-                mst.addEdge(start, "", 0.0);
-                continue;
+    // Time Complexity: O(N + S * K^2 + V^2) for sentences, where K is the number of distinct top words in a sentence S,
+    // and O(N * W + V^2) for windows of W words. Graphs of more than MAX_N words take O(PlogP) instead of O(V^2),
+    // where P is the number of pairs that appear together
+    private void buildAdjacencyList(String[] topWords, PairCounter pairCounter) {
+        // Give each top word a dense vertex id
+        int[] vertexOf = new int[topWords.length];
+        int vertices = 0;
+        for (int id = 0; id < topWords.length; id++) {
+            vertexOf[id] = topWords[id] != null ? vertices++ : -1;
+        }
+        PairWeights pairWeights = createPairWeights();
+        pairCounter.count(vertexOf, pairWeights);
+        if (v > MAX_N) {
+            addEdges(topWords, vertexOf, pairWeights);
+            return;
+        }
+        // Add the edges in the order of the word pairs, so the edge lists keep their established order
+        Map<String, Integer> vertexIds = new HashMap<>();
+        for (int id = 0; id < topWords.length; id++) {
+            if (vertexOf[id] != -1) {
+                vertexIds.put(topWords[id], vertexOf[id]);
             }
-            mst.addEdge(vertex, "", Double.MAX_VALUE);
         }
-
-        for(int i = 0; i < v - 1; i++) {
-            String minVertex = getMinVertex(visited, mst);
-            visited.add(minVertex);
-            for(var edge : adjacencyList.get(minVertex)) {
-                var vertex = edge.to;
-                var weight = edge.weight;
-                if(visited.contains(vertex)) {
-                    continue;
-                }
-                double weightInMst = mst.getVertexWeight(vertex);
-                if(weight >= weightInMst) {
-                    continue;
-                }
-                mst.updateEdge(vertex, minVertex, weight);
+        String[] words = adjacencyList.keySet().toArray(new String[0]);
+        for (WordPair wordPair : getWordPairs(words)) {
+            String word1 = words[wordPair.index1()];
+            String word2 = words[wordPair.index2()];
+            double weight = pairWeights.get(vertexIds.get(word1), vertexIds.get(word2));
+            if (weight > 0) {
+                addEdge(word1, word2, weight);
+                addEdge(word2, word1, weight);
             }
         }
-        mst.computeWeight();
-        return mst;
     }
 
-    private String getMinVertex(Set<String> visited, SpanningTree mst) {
-        double minWeight = Double.MAX_VALUE;
-        String minVertex = "";
-        for(var entry : mst.getAdjacencyList().entrySet()) {
-            var vertex = entry.getKey();
-            if(visited.contains(vertex))
-                continue;
-            var weight = entry.getValue().getFirst().weight;
-            if(weight < minWeight) {
-                minWeight = weight;
-                minVertex = vertex;
+    /**
+     * Every pair of the words, in the order small graphs have always added their edges in: that of a set of the pairs,
+     * each a set of its two words. A pair here is only the indexes of its words and the hash code that set would have,
+     * the sum of the hash codes of the words, so the pairs iterate in the same order without a set for every pair.
+     */
+    // O(V^2) time complexity
+    private static Set<WordPair> getWordPairs(String[] words) {
+        Set<WordPair> wordPairs = new HashSet<>();
+        for (int i = 0; i < words.length; i++) {
+            for (int j = i + 1; j < words.length; j++) {
+                wordPairs.add(new WordPair(i, j, words[i].hashCode() + words[j].hashCode()));
             }
         }
-        return minVertex;
+        return wordPairs;
     }
 
-    // Time complexity: O(ElogE)
-    public SpanningTree kruskalsMst() {
-        SpanningTree mst = new SpanningTree();
-        Map<String, String> parent = new HashMap<>();
-        PriorityQueue<DirectedEdge> pq = new PriorityQueue<>(Comparator.comparingDouble(e -> e.weight));
-        for (var vertex : adjacencyList.keySet()) {
-            mst.addVertex(vertex);
-            parent.put(vertex, vertex);
-            for (var edge : adjacencyList.get(vertex)) {
-                pq.add(new DirectedEdge(vertex, edge.to, edge.weight));
-            }
-        }
-        while (!pq.isEmpty()) {
-            var edge = pq.poll();
-            String root1 = find(edge.from, parent);
-            String root2 = find(edge.to, parent);
-            if (!root1.equals(root2)) {
-                union(root1, root2, parent);
-                mst.addEdge(edge.from, edge.to, edge.weight);
-            }
+    private record WordPair(int index1, int index2, int hash) {
+        @Override
+        public int hashCode() {
+            return hash;
         }
-        mst.computeWeight();
-        return mst;
     }
 
-    private String find(String vertex, Map<String, String> parent) {
-        if (!vertex.equals(parent.get(vertex))) {
-            parent.put(vertex, find(parent.get(vertex), parent));
+    private PairWeights createPairWeights() {
+        // Only small graphs can afford a V^2 matrix of the pairs
+        return PairWeights.create(v, v <= MAX_N, MAX_LARGE_PAIRS);
+    }
+
+    /**
+     * Counts the pairs of top words that appear together into the pair weights, given the vertex of every word id.
+     */
+    private interface PairCounter {
+        void count(int[] vertexOf, PairWeights pairWeights);
+    }
+
+    private void countPairs(PrimitiveIterator.OfInt tokens, int[] vertexOf, AnalysisOptions options, PairWeights pairWeights) {
+        switch (options.getCoOccurrence()) {
+            case SENTENCE -> countSentencePairs(tokens, vertexOf, pairWeights);
+            case WINDOW -> countWindowPairs(tokens, vertexOf, options.getWindowSize(), false, pairWeights);
+            case DISTANCE_WEIGHTED -> countWindowPairs(tokens, vertexOf, options.getWindowSize(), true, pairWeights);
         }
-        return parent.get(vertex);
     }
 
-    private void union(String root1, String root2, Map<String, String> parent) {
-        parent.put(root1, root2);
+    /**
+     * Count the pairs of every chunk into a table of its own on the common ForkJoinPool, and merge the tables.
+     * Sentences and windows never cross chunks, so the counts are the same as those of the whole text.
+     */
+    // Time complexity: O(N / P) for P threads, besides merging the tables
+    private void countPairs(ChunkedText chunkedText, int[] vertexOf, AnalysisOptions options, PairWeights pairWeights) {
+        if (options.getCoOccurrence() == CoOccurrenceMode.DISTANCE_WEIGHTED) {
+            // Sums of fractions depend on the order they are added in, so the chunks are counted in order
+            for (int chunk = 0; chunk < chunkedText.getChunkCount(); chunk++) {
+                countPairs(chunkedText.getChunk(chunk).tokens(), chunkedText.getChunkVertices(chunk, vertexOf), options, pairWeights);
+            }
+            return;
+        }
+        // Whole numbers of co-occurrences add up to the same weights in any order
+        IntStream.range(0, chunkedText.getChunkCount()).parallel()
+                .mapToObj(chunk -> {
+                    PairWeights chunkWeights = createPairWeights();
+                    countPairs(chunkedText.getChunk(chunk).tokens(), chunkedText.getChunkVertices(chunk, vertexOf), options, chunkWeights);
+                    return chunkWeights;
+                })
+                .reduce(PairWeights::addAll)
+                .ifPresent(pairWeights::addAll);
     }
 
-    // Time complexity: O((V + E)logV)
-    public SingleSourceShortestPath dijkstraShortestPath(String source, boolean inverse) {
-        Map<String, List<Edge>> adjList;
-        if(inverse) {
-            adjList = getInverseAdjacencyList();
-        } else {
-            adjList = adjacencyList;
-        }
-        Set<String> visited = new HashSet<>();
-        PriorityQueue<Vertex> pq = new PriorityQueue<>();
-        for(String vertex : adjList.keySet()) {
-            if(vertex.equals(source)) {
-                pq.add(new Vertex(vertex, 0.0, null));
-            } else {
-                pq.add(new Vertex(vertex, Double.MAX_VALUE, null));
+    /**
+     * Add the edges of the pairs that appear together, in the order of their vertices, without going through the
+     * pairs that never do.
+     */
+    private void addEdges(String[] topWords, int[] vertexOf, PairWeights pairWeights) {
+        String[] words = new String[v];
+        for (int id = 0; id < topWords.length; id++) {
+            if (vertexOf[id] != -1) {
+                words[vertexOf[id]] = topWords[id];
             }
         }
-        Map<String, Path> shortestPaths = new HashMap<>();
-        while(!pq.isEmpty()) {
-            var current = pq.poll();
-            if(visited.contains(current.name)) {
-                continue;
-            }
-            visited.add(current.name);
-            for(var edge : adjList.get(current.name)) {
-                var vertex = edge.to;
-                if(visited.contains(vertex)) {
-                    continue;
+        for (long pair : pairWeights.getPairs()) {
+            int vertex1 = (int) (pair >>> 32);
+            int vertex2 = (int) pair;
+            double weight = pairWeights.get(vertex1, vertex2);
+            addEdge(words[vertex1], words[vertex2], weight);
+            addEdge(words[vertex2], words[vertex1], weight);
+        }
+    }
+
+    /**
+     * Count the number of sentences each pair of top words appears in, from the distinct top words of each sentence.
+     *
+     * @throws IllegalArgumentException if a sentence has more than MAX_SENTENCE_WORDS distinct top words
+     */
+    private void countSentencePairs(PrimitiveIterator.OfInt tokens, int[] vertexOf, PairWeights pairCounts) {
+        int[] lastSeenInSentence = new int[v];
+        Arrays.fill(lastSeenInSentence, -1);
+        int[] wordsInSentence = new int[Math.min(v, MAX_SENTENCE_WORDS)];
+        int wordsInSentenceCount = 0;
+        int sentence = 0;
+        while (true) {
+            int token = tokens.hasNext() ? tokens.nextInt() : TokenizedText.SENTENCE_BREAK;
+            if (token == TokenizedText.SENTENCE_BREAK) {
+                for (int a = 0; a < wordsInSentenceCount; a++) {
+                    for (int b = a + 1; b < wordsInSentenceCount; b++) {
+                        pairCounts.add(wordsInSentence[a], wordsInSentence[b], 1.0);
+                    }
                 }
-                double distance = current.distance + edge.weight;
-                if(distance < pq.stream().filter(v -> v.name.equals(vertex)).findFirst().get().distance) {
-                    pq.removeIf(v -> v.name.equals(vertex));
-                    pq.add(new Vertex(vertex, distance, current));
+                if (!tokens.hasNext()) {
+                    break;
                 }
+                wordsInSentenceCount = 0;
+                sentence++;
+                continue;
             }
-            if(!current.name.equals(source)) {
-                List<String> path = new LinkedList<>();
-                Vertex currentVertex = current;
-                while(currentVertex != null) {
-                    path.addFirst(currentVertex.name);
-                    currentVertex = currentVertex.predecessor;
+            int vertex = vertexOf[token];
+            if (vertex != -1 && lastSeenInSentence[vertex] != sentence) {
+                if (wordsInSentenceCount == MAX_SENTENCE_WORDS) {
+                    throw new IllegalArgumentException("A sentence has more than " + MAX_SENTENCE_WORDS
+                            + " distinct words of the graph. Count pairs in windows for text without sentence delimiters");
                 }
-                shortestPaths.put(current.name, new Path(current.distance, path));
+                lastSeenInSentence[vertex] = sentence;
+                wordsInSentence[wordsInSentenceCount++] = vertex;
             }
         }
-        return new SingleSourceShortestPath(source, shortestPaths);
     }
 
-    private Map<String, List<Edge>> getInverseAdjacencyList() {
-        Map<String, List<Edge>> inverseAdjacencyList = new HashMap<>();
-        // Return an adjacency list with the the edge weights inversed, i.e. 1/weight
-        for (var entry : adjacencyList.entrySet()) {
-            String vertex = entry.getKey();
-            List<Edge> edges = entry.getValue();
-            for (Edge edge : edges) {
-                if (!inverseAdjacencyList.containsKey(edge.to)) {
-                    inverseAdjacencyList.put(edge.to, new ArrayList<>());
+    /**
+     * Count every two occurrences of different top words at most the window size apart in the same sentence, in one
+     * pass with a ring buffer of the top words in the last window. Distances are counted in words of the text,
+     * including the words that are not top words.
+     *
+     * @param distanceWeighted add 1 / distance for every two occurrences instead of 1
+     */
+    // Time complexity: O(N * W), with memory for the window besides the pair weights
+    private void countWindowPairs(PrimitiveIterator.OfInt tokens, int[] vertexOf, int windowSize, boolean distanceWeighted, PairWeights pairWeights) {
+        int[] windowVertices = new int[windowSize];
+        long[] windowPositions = new long[windowSize];
+        // The window holds the last windowCount top words, ending just before next
+        int next = 0;
+        int windowCount = 0;
+        long position = 0;
+        while (tokens.hasNext()) {
+            int token = tokens.nextInt();
+            if (token == TokenizedText.SENTENCE_BREAK) {
+                windowCount = 0;
+                continue;
+            }
+            position++;
+            int vertex = vertexOf[token];
+            if (vertex == -1) {
+                continue;
+            }
+            // Walk back from the most recent top word until one is further away than the window
+            for (int i = 1; i <= windowCount; i++) {
+                int slot = (next - i + windowSize) % windowSize;
+                long distance = position - windowPositions[slot];
+                if (distance > windowSize) {
+                    break;
+                }
+                int other = windowVertices[slot];
+                if (other != vertex) {
+                    pairWeights.add(vertex, other, distanceWeighted ? 1.0 / distance : 1.0);
                 }
-                inverseAdjacencyList.get(edge.to).add(new Edge(vertex, 1.0 / edge.weight));
             }
+            windowVertices[next] = vertex;
+            windowPositions[next] = position;
+            next = (next + 1) % windowSize;
+            windowCount = Math.min(windowCount + 1, windowSize);
         }
-        return inverseAdjacencyList;
     }
 
-    // Time complexity: O(V^3)
-    public List<SingleSourceShortestPath> floydWarshallShortestPaths(boolean inverse) {
-        Map<String, List<Edge>> adjList;
-        if(inverse) {
-            adjList = getInverseAdjacencyList();
-        } else {
-            adjList = adjacencyList;
-        }
-        int V = adjList.size();
-        double[][] dist = new double[V][V];
-        int[][] next = new int[V][V];
-        String[] vertices = adjList.keySet().toArray(new String[0]);
-
-        // Step 1: Initialize the solution matrix same as input graph matrix
-        for (int i = 0; i < V; i++) {
-            for (int j = 0; j < V; j++) {
-                if (i == j) {
-                    dist[i][j] = 0;
-                    next[i][j] = i;
-                } else {
-                    dist[i][j] = Double.MAX_VALUE;
-                    next[i][j] = -1;
-                }
-            }
-        }
+    /**
+     * Add an edge in the adjacency list from word1 to word2.
+     * @param word1 the first word
+     * @param word2 the second word
+     * @param weight how often the words appear together, e.g. the number of sentences they appear together in
+     */
+    private void addEdge(String word1, String word2, double weight) {
+        adjacencyList.get(word1).add(new Edge(word2, weight));
+        e++;
+    }
 
-        // Step 2: Update dist value for every edge
-        for (int i = 0; i < V; i++) {
-            for (Edge edge : adjList.get(vertices[i])) {
-                int j = Arrays.asList(vertices).indexOf(edge.to);
-                dist[i][j] = edge.weight;
-                next[i][j] = j;
-            }
-        }
+    // Time complexity: O(ElogV)
+    public SpanningTree primsMst() {
+        return primsMst(false);
+    }
+
+    // Time complexity: O(ElogV)
+    public SpanningTree primsMstMax() {
+        return primsMst(true);
+    }
 
-        // Step 3: Update dist[i][j] = min(dist[i][j], dist[i][k] + dist[k][j])
-        for (int k = 0; k < V; k++) {
-            for (int i = 0; i < V; i++) {
-                for (int j = 0; j < V; j++) {
-                    if (dist[i][k] != Double.MAX_VALUE && dist[k][j] != Double.MAX_VALUE && dist[i][k] + dist[k][j] < dist[i][j]) {
-                        dist[i][j] = dist[i][k] + dist[k][j];
-                        next[i][j] = next[i][k];
+    /**
+     * Grow a spanning tree from the first vertex, and a new tree from every vertex it does not reach, so that a
+     * disconnected graph gets a spanning forest. The root of every tree has an edge to "" with weight 0.
+     */
+    private SpanningTree primsMst(boolean maximum) {
+        var graph = getCompactGraph();
+        int vertexCount = graph.getVertexCount();
+        // Keys are negated for a maximum spanning tree, so the best edge is always on top of the min-heap
+        double sign = maximum ? -1.0 : 1.0;
+        boolean[] visited = new boolean[vertexCount];
+        // The weight of the best edge connecting each vertex to the tree so far, and the vertex at its other end
+        double[] keys = new double[vertexCount];
+        int[] parents = new int[vertexCount];
+        Arrays.fill(keys, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+        IndexedMinHeap pq = new IndexedMinHeap(vertexCount);
+
+        for(int root = 0; root < vertexCount; root++) {
+            if(visited[root]) {
+                continue;
+            }
+            keys[root] = 0.0;
+            pq.insert(root, 0.0);
+            while(!pq.isEmpty()) {
+                int current = pq.poll();
+                visited[current] = true;
+                for(int edge = graph.getEdgeStart(current); edge < graph.getEdgeEnd(current); edge++) {
+                    int vertex = graph.getTarget(edge);
+                    double key = sign * graph.getWeight(edge);
+                    if(visited[vertex] || key >= keys[vertex]) {
+                        continue;
                     }
+                    keys[vertex] = key;
+                    parents[vertex] = current;
+                    pq.insertOrDecreaseKey(vertex, key);
                 }
             }
         }
 
-        // Step 4: Build the result
-        List<SingleSourceShortestPath> allShortestPaths = new ArrayList<>();
-        for (int i = 0; i < V; i++) {
-            Map<String, Path> shortestPaths = new HashMap<>();
-            for (int j = 0; j < V; j++) {
-                if (i != j) {
-                    List<String> path = constructPath(i, j, next, vertices);
-                    shortestPaths.put(vertices[j], new Path(dist[i][j], path));
-                }
+        SpanningTree mst = new SpanningTree();
+        for(int vertex = 0; vertex < vertexCount; vertex++) {
+            String word = graph.getWord(vertex);
+            mst.addVertex(word);
+            if(parents[vertex] == -1) {
+                mst.addEdge(word, "", 0.0);
+            } else {
+                mst.addEdge(word, graph.getWord(parents[vertex]), sign * keys[vertex]);
             }
-            allShortestPaths.add(new SingleSourceShortestPath(vertices[i], shortestPaths));
         }
+        mst.computeWeight();
+        return mst;
+    }
 
-        return allShortestPaths;
+    // Time complexity: O(ElogE)
+    public SpanningTree kruskalsMst() {
+        return kruskalsMst(false);
     }
 
-    private List<String> constructPath(int i, int j, int[][] next, String[] vertices) {
-        if (next[i][j] == -1) {
-            return null;
+    // Time complexity: O(ElogE)
+    public SpanningTree kruskalsMstMax() {
+        return kruskalsMst(true);
+    }
+
+    private SpanningTree kruskalsMst(boolean maximum) {
+        var graph = getCompactGraph();
+        int vertexCount = graph.getVertexCount();
+        // Keep every undirected edge once, from its smaller to its larger vertex id
+        int[] sources = new int[graph.getEdgeCount()];
+        int[] edges = new int[graph.getEdgeCount()];
+        int edgeCount = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (int edge = graph.getEdgeStart(vertex); edge < graph.getEdgeEnd(vertex); edge++) {
+                sources[edge] = vertex;
+                if (vertex < graph.getTarget(edge)) {
+                    edges[edgeCount++] = edge;
+                }
+            }
         }
-        List<String> path = new ArrayList<>();
-        while (i != j) {
-            path.add(vertices[i]);
-            i = next[i][j];
+        // Keys are negated for a maximum spanning tree, so the edges are always taken in ascending key order
+        double sign = maximum ? -1.0 : 1.0;
+        double[] keys = new double[graph.getEdgeCount()];
+        for (int i = 0; i < edgeCount; i++) {
+            keys[edges[i]] = sign * graph.getWeight(edges[i]);
         }
-        path.add(vertices[j]);
-        return path;
-    }
+        sortByKey(edges, edgeCount, keys);
 
-    // Time complexity: O(V^2)
-    // Can be optimized to O(VlogV + E) using a priority queue
-    public SpanningTree primsMstMax() {
         SpanningTree mst = new SpanningTree();
-        Set<String> visited = new HashSet<>();
-
-        String start = "";
-        for(var vertex : adjacencyList.keySet()) {
-            mst.addVertex(vertex);
-            if(start.isEmpty()) {
-                start = vertex;
-                mst.addEdge(start, "", 0.0);
-                continue;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            mst.addVertex(graph.getWord(vertex));
+        }
+        UnionFind components = new UnionFind(vertexCount);
+        int accepted = 0;
+        for (int i = 0; i < edgeCount && accepted < vertexCount - 1; i++) {
+            int edge = edges[i];
+            if (components.union(sources[edge], graph.getTarget(edge))) {
+                mst.addEdge(graph.getWord(sources[edge]), graph.getWord(graph.getTarget(edge)), graph.getWeight(edge));
+                accepted++;
             }
-            mst.addEdge(vertex, "", Double.NEGATIVE_INFINITY);
         }
+        mst.computeWeight();
+        return mst;
+    }
 
-        for(int i = 0; i < v - 1; i++) {
-            String maxVertex = getMaxVertex(visited, mst);
-            visited.add(maxVertex);
-            for(var edge : adjacencyList.get(maxVertex)) {
-                var vertex = edge.to;
-                var weight = edge.weight;
-                if(visited.contains(vertex)) {
+    /**
+     * Sort the first count values by their key with a merge sort on primitive arrays, so no value is boxed.
+     */
+    private static void sortByKey(int[] values, int count, double[] keys) {
+        int[] buffer = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int start = 0; start < count - width; start += 2 * width) {
+                int middle = start + width;
+                int end = Math.min(start + 2 * width, count);
+                if (keys[values[middle - 1]] <= keys[values[middle]]) {
                     continue;
                 }
-                double weightInMst = mst.getVertexWeight(vertex);
-                if(weight <= weightInMst) {
-                    continue;
+                int left = start;
+                int right = middle;
+                for (int i = start; i < end; i++) {
+                    if (right >= end || (left < middle && keys[values[left]] <= keys[values[right]])) {
+                        buffer[i] = values[left++];
+                    } else {
+                        buffer[i] = values[right++];
+                    }
                 }
-                mst.updateEdge(vertex, maxVertex, weight);
+                System.arraycopy(buffer, start, values, start, end - start);
             }
         }
-        mst.computeWeight();
-        return mst;
     }
 
-    private String getMaxVertex(Set<String> visited, SpanningTree mst) {
-        double maxWeight = Double.NEGATIVE_INFINITY;
-        String maxVertex = "";
-        for(var entry : mst.getAdjacencyList().entrySet()) {
-            var vertex = entry.getKey();
-            if(visited.contains(vertex))
-                continue;
-            var weight = entry.getValue().getFirst().weight;
-            if(weight > maxWeight) {
-                maxWeight = weight;
-                maxVertex = vertex;
-            }
-        }
-        return maxVertex;
+    // Time complexity: O((V + E)logV) to find the paths, and O(V * L) to build them, where L is the longest path
+    public SingleSourceShortestPath dijkstraShortestPath(String source, boolean inverse) {
+        return dijkstraShortestPathTree(source, inverse).toSingleSourceShortestPath(source);
     }
 
-    // Time complexity: O(ElogE)
-    public SpanningTree kruskalsMstMax() {
-        SpanningTree mst = new SpanningTree();
-        Map<String, String> parent = new HashMap<>();
-        PriorityQueue<DirectedEdge> pq = new PriorityQueue<>(Comparator.comparingDouble(e -> -e.weight));
-        for (var vertex : adjacencyList.keySet()) {
-            mst.addVertex(vertex);
-            parent.put(vertex, vertex);
-            for (var edge : adjacencyList.get(vertex)) {
-                pq.add(new DirectedEdge(vertex, edge.to, edge.weight));
-            }
+    /**
+     * Find the shortest paths from the source without building them, so that only the paths that are needed are
+     * built with {@link ShortestPathTree#getPath(String)}.
+     */
+    // Time complexity: O((V + E)logV)
+    public ShortestPathTree dijkstraShortestPathTree(String source, boolean inverse) {
+        var graph = inverse ? getCompactGraph().inverse() : getCompactGraph();
+        int vertexCount = graph.getVertexCount();
+        int sourceVertex = graph.getId(source);
+        boolean[] visited = new boolean[vertexCount];
+        double[] distances = new double[vertexCount];
+        int[] predecessors = new int[vertexCount];
+        Arrays.fill(distances, Double.MAX_VALUE);
+        Arrays.fill(predecessors, -1);
+        // Only vertices that have been reached are in the heap, and each is in it at most once
+        IndexedMinHeap pq = new IndexedMinHeap(vertexCount);
+        if(sourceVertex != -1) {
+            distances[sourceVertex] = 0.0;
+            pq.insert(sourceVertex, 0.0);
         }
-        while (!pq.isEmpty()) {
-            var edge = pq.poll();
-            String root1 = find(edge.from, parent);
-            String root2 = find(edge.to, parent);
-            if (!root1.equals(root2)) {
-                union(root1, root2, parent);
-                mst.addEdge(edge.from, edge.to, edge.weight);
+        while(!pq.isEmpty()) {
+            int current = pq.poll();
+            visited[current] = true;
+            for(int edge = graph.getEdgeStart(current); edge < graph.getEdgeEnd(current); edge++) {
+                int vertex = graph.getTarget(edge);
+                if(visited[vertex]) {
+                    continue;
+                }
+                double distance = distances[current] + graph.getWeight(edge);
+                if(distance < distances[vertex]) {
+                    distances[vertex] = distance;
+                    predecessors[vertex] = current;
+                    pq.insertOrDecreaseKey(vertex, distance);
+                }
             }
         }
-        mst.computeWeight();
-        return mst;
+        // Unreachable vertices keep the maximum distance and no predecessor
+        return new ShortestPathTree(graph, sourceVertex, distances, predecessors);
+    }
+
+    /**
+     * @return the k shortest loopless paths between the words, shortest first, or null if either word is not in the
+     * graph
+     */
+    public List<Path> yenShortestPaths(String source, String target, int k, boolean inverse) {
+        return KShortestPaths.yen(inverse ? getCompactGraph().inverse() : getCompactGraph(), source, target, k);
+    }
+
+    // Time complexity: O(V^3) to find the paths, and O(V^2 * L) to build them, where L is the longest path
+    public List<SingleSourceShortestPath> floydWarshallShortestPaths(boolean inverse) {
+        return floydWarshall(inverse).getSingleSourceShortestPaths();
+    }
+
+    /**
+     * Find the shortest paths between all pairs of vertices without building them, so that only the distances or the
+     * paths from the sources that are needed are built.
+     */
+    // Time complexity: O(V^3)
+    public AllPairsShortestPaths floydWarshall(boolean inverse) {
+        var graph = inverse ? getCompactGraph().inverse() : getCompactGraph();
+        return AllPairsShortestPaths.floydWarshall(graph);
     }
 }
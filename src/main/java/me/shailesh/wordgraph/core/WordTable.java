@@ -0,0 +1,123 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.Arrays;
+
+/**
+ * Interns words given as a range of characters, so that a String is only allocated the first time a word is seen.
+ * Every distinct word is given an int id in order of first occurrence. The table uses open addressing with linear
+ * probing over a power of two number of slots, which is kept at most half full.
+ */
+public class WordTable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // The id + 1 of the word in every slot, or 0 for an empty slot
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private String[] words = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * @return the id of the word, which is added to the table if it is not already in it
+     */
+    public int intern(String word) {
+        return intern(word, 0, word.length());
+    }
+
+    /**
+     * @return the id of the characters from start (inclusive) to end (exclusive) as a word, which is added to the
+     * table if it is not already in it
+     */
+    // Time complexity: O(L) amortized, where L is the length of the word
+    public int intern(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int slot = findSlot(hash, text, start, end);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        int id = size++;
+        if (id == words.length) {
+            words = Arrays.copyOf(words, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        words[id] = text.subSequence(start, end).toString();
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * @return the id of the word, or -1 if it is not in the table
+     */
+    public int getId(String word) {
+        return getId(word, 0, word.length());
+    }
+
+    /**
+     * @return the id of the characters from start (inclusive) to end (exclusive) as a word, or -1 if it is not in the
+     * table
+     */
+    public int getId(CharSequence text, int start, int end) {
+        return slots[findSlot(hash(text, start, end), text, start, end)] - 1;
+    }
+
+    public String getWord(int id) {
+        return words[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The same hash as String.hashCode, with the bits spread so that the low bits used for the slot depend on the
+     * whole word.
+     */
+    static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    // The slot holding the word, or the empty slot where it belongs
+    private int findSlot(int hash, CharSequence text, int start, int end) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int id;
+        while ((id = slots[slot] - 1) != -1) {
+            if (hashes[id] == hash && matches(words[id], text, start, end)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    static boolean matches(String word, CharSequence text, int start, int end) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+}
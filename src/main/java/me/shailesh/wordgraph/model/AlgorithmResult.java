@@ -0,0 +1,33 @@
+package me.shailesh.wordgraph.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import me.shailesh.wordgraph.core.SpanningTree;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored result of an expensive algorithm on a word graph, keyed by the hash of the word graph, the algorithm and
+ * its parameters. Only one of the results is set, depending on the algorithm.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "algorithmresults")
+public class AlgorithmResult {
+    @Id
+    private String id;
+    @Indexed
+    private String hash;
+    private String algorithm;
+    private SpanningTree spanningTree;
+    // The distance and next hop matrices of all pairs shortest paths
+    private byte[] allPairsShortestPaths;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package me.shailesh.wordgraph.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A growing collection of documents, stored as the running counts of its words and of the sentences each pair of words
+ * appears together in rather than as its text. The counts are stored as {@link CorpusWord}s and {@link CorpusPair}s,
+ * and every added document increments them and the version of the corpus in one transaction.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "corpora")
+public class Corpus {
+    @Id
+    private String id;
+    private String name;
+    private int maxWords;
+    private long version;
+    private long documentCount;
+    private long tokenCount;
+    private long distinctWordCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
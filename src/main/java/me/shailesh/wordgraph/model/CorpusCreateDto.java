@@ -0,0 +1,15 @@
+package me.shailesh.wordgraph.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CorpusCreateDto {
+    private String name;
+    private int maxWords;
+}
@@ -0,0 +1,38 @@
+package me.shailesh.wordgraph.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import me.shailesh.wordgraph.core.Edge;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of a corpus, with the graph of its top words as of the given version.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CorpusDto {
+
+    private String id;
+    private String name;
+    private int maxWords;
+    private long version;
+    private long documentCount;
+    private long tokenCount;
+    private int distinctWordCount;
+    private Map<String, List<Edge>> adjacencyList;
+    private Map<String, Integer> wordFrequencies;
+    private int wordCount;
+    private int edgeCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private String errorMessage;
+}
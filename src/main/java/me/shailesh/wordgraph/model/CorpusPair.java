@@ -0,0 +1,29 @@
+package me.shailesh.wordgraph.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The number of sentences of a corpus that a pair of words appears together in. Pairs are stored apart from their
+ * corpus, one document each, so that a corpus is not limited by the size of a single document however many pairs it
+ * has, and adding a document increments only its own pairs.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "corpuspairs")
+@CompoundIndex(name = "corpus_pair", def = "{'corpusId': 1, 'pair': 1}", unique = true)
+public class CorpusPair {
+    @Id
+    private String id;
+    private String corpusId;
+    // The two words in lexicographic order, joined by CorpusDelta.PAIR_SEPARATOR
+    private String pair;
+    private long count;
+}
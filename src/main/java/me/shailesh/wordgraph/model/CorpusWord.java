@@ -0,0 +1,33 @@
+package me.shailesh.wordgraph.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The number of times a word appears in a corpus. Words are stored apart from their corpus, one document each, like
+ * {@link CorpusPair}s, so that the vocabulary of a corpus is not limited by the size of a single document, and the top
+ * words of a corpus are read from the index without reading the whole vocabulary.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "corpuswords")
+@CompoundIndexes({
+        @CompoundIndex(name = "corpus_word", def = "{'corpusId': 1, 'word': 1}", unique = true),
+        // Most frequent first, and words with the same count in lexicographic order, as the top words are ranked
+        @CompoundIndex(name = "corpus_count", def = "{'corpusId': 1, 'count': -1, 'word': 1}")
+})
+public class CorpusWord {
+    @Id
+    private String id;
+    private String corpusId;
+    private String word;
+    private long count;
+}
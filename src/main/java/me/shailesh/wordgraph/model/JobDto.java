@@ -0,0 +1,28 @@
+package me.shailesh.wordgraph.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobDto {
+    private String id;
+    private JobOperation operation;
+    private JobStatus status;
+    // What the job is doing, and the fraction of the job that is done
+    private String stage;
+    private double progress;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private WordGraphDetailDto result;
+    private String errorMessage;
+}
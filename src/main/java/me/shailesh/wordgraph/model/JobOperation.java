@@ -0,0 +1,8 @@
+package me.shailesh.wordgraph.model;
+
+public enum JobOperation {
+    CREATE,
+    TRAVERSAL,
+    MST,
+    SHORTEST_PATH
+}
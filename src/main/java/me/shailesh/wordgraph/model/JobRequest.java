@@ -0,0 +1,28 @@
+package me.shailesh.wordgraph.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A word graph to create, or an algorithm to run on a stored word graph, with the same parameters as the matching
+ * word graph endpoint.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobRequest {
+    private JobOperation operation;
+    // The word graph to create
+    private WordGraphCreateDto wordGraph;
+    // The word graph to run the algorithm on
+    private String wordGraphId;
+    private String start;
+    private String type;
+    private boolean inverse;
+    private boolean maximum;
+    private boolean matrix;
+    private boolean resultOnly;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import me.shailesh.wordgraph.core.CompactWordGraph;
 import me.shailesh.wordgraph.core.Edge;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -25,7 +26,10 @@ public class WordGraph {
     private String hash;
     private String text;
     private int maxWords;
+    // Only set on word graphs stored before the compact graph, see WordGraphStorageMigration
     private Map<String, List<Edge>> adjacencyList;
+    // The graph, stored as compact binary
+    private CompactWordGraph compactGraph;
     private Map<String, Integer> wordFrequencies;
     private int wordCount;
     private int edgeCount;
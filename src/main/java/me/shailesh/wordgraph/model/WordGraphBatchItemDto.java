@@ -0,0 +1,30 @@
+package me.shailesh.wordgraph.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of one word graph of a batch, in the order of the batch.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WordGraphBatchItemDto {
+    public enum Status {
+        CREATED,
+        // The word graph was already stored, or is created by an earlier item of the batch
+        EXISTING,
+        FAILED
+    }
+
+    private int index;
+    private String id;
+    private String hash;
+    private Status status;
+    private String errorMessage;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import me.shailesh.wordgraph.core.CoOccurrenceMode;
 
 @Data
 @Builder
@@ -13,4 +14,15 @@ import lombok.NoArgsConstructor;
 public class WordGraphCreateDto {
     private String text;
     private int maxWords;
+    // Find the top words approximately, in memory bounded by the error bound
+    private boolean approximate;
+    private double errorBound;
+    // How words are found to appear together, in sentences by default
+    private CoOccurrenceMode coOccurrence;
+    // The largest distance between words that appear together, for the window modes
+    private int windowSize;
+    // Allow more than 100 words, up to 50,000
+    private boolean largeGraph;
+    // Chunks to build the graph in parallel, 0 for one per core or 1 for none, and the configured default when unset
+    private Integer parallelism;
 }
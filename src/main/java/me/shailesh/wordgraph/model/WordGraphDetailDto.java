@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import me.shailesh.wordgraph.core.DistanceMatrix;
 import me.shailesh.wordgraph.core.SingleSourceShortestPath;
 import me.shailesh.wordgraph.core.Edge;
 import me.shailesh.wordgraph.core.Path;
@@ -36,5 +37,7 @@ public class WordGraphDetailDto {
     private SpanningTree kruskalsMst;
     private SingleSourceShortestPath dijkstraShortestPath;
     private List<SingleSourceShortestPath> floydWarshallShortestPaths;
+    private DistanceMatrix floydWarshallDistances;
+    private List<Path> yenShortestPaths;
     private String errorMessage;
 }
@@ -0,0 +1,14 @@
+package me.shailesh.wordgraph.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class WordGraphPage {
+    private List<WordGraphDto> wordGraphs;
+    // The id of the last word graph of the page to get the next page from, or null if this is the last page
+    private String nextCursor;
+}
@@ -0,0 +1,205 @@
+package me.shailesh.wordgraph.service;
+
+import lombok.extern.slf4j.Slf4j;
+import me.shailesh.wordgraph.cache.CacheStats;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.core.AllPairsShortestPaths;
+import me.shailesh.wordgraph.core.CompactWordGraph;
+import me.shailesh.wordgraph.core.Path;
+import me.shailesh.wordgraph.core.SingleSourceShortestPath;
+import me.shailesh.wordgraph.core.SpanningTree;
+import me.shailesh.wordgraph.model.AlgorithmResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Results of the graph algorithms, keyed by the hash of the word graph, the algorithm and its parameters. Word graphs
+ * never change once created, so a result is valid for as long as it is kept.
+ * All results are kept in a bounded in-process cache. Spanning trees and all pairs shortest paths, which are the most
+ * expensive to compute, can also be stored in the database so that they survive restarts and are shared by replicas.
+ * Results too large for a document are only cached in process.
+ */
+@Slf4j
+@Service
+public class AlgorithmResultCache {
+    // Leave room in the 16MB document limit for the other fields
+    private static final long MAX_STORED_BYTES = 15 * 1024 * 1024;
+    private static final long OBJECT_BYTES = 16;
+    private static final long MAP_ENTRY_BYTES = 48;
+    private static final long REFERENCE_BYTES = 8;
+
+    private final MongoTemplate mongoTemplate;
+    private final ExpiringLruCache<String, Object> results;
+    private final boolean persistent;
+    private final long maxStoredBytes;
+    private final WordGraphMetrics metrics;
+    private final AtomicLong storedHits = new AtomicLong();
+    private final AtomicLong storedMisses = new AtomicLong();
+
+    @Autowired
+    public AlgorithmResultCache(MongoTemplate mongoTemplate,
+                                @Value("${wordgraph.cache.results.max-size:128MB}") DataSize maxSize,
+                                @Value("${wordgraph.cache.results.ttl:1h}") Duration ttl,
+                                @Value("${wordgraph.cache.results.persistent:false}") boolean persistent,
+                                WordGraphMetrics metrics) {
+        this(mongoTemplate, maxSize, ttl, persistent, MAX_STORED_BYTES, metrics);
+    }
+
+    /**
+     * @param maxStoredBytes the largest estimated size of a result that is stored in the database
+     */
+    AlgorithmResultCache(MongoTemplate mongoTemplate, DataSize maxSize, Duration ttl, boolean persistent, long maxStoredBytes, WordGraphMetrics metrics) {
+        this.mongoTemplate = mongoTemplate;
+        this.metrics = metrics;
+        this.results = new ExpiringLruCache<>(maxSize.toBytes(), ttl, AlgorithmResultCache::estimateBytes);
+        this.persistent = persistent;
+        this.maxStoredBytes = maxStoredBytes;
+    }
+
+    /**
+     * Get a result from the in-process cache, or compute and cache it.
+     * Results of a word graph without a hash are not cached.
+     */
+    public <T> T get(String hash, String algorithm, Supplier<T> compute) {
+        return getCached(hash, algorithm, () -> time(algorithm, compute));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getCached(String hash, String algorithm, Supplier<T> compute) {
+        if (hash == null) {
+            return compute.get();
+        }
+        return (T) results.get(getKey(hash, algorithm), key -> compute.get());
+    }
+
+    /**
+     * Get a spanning tree from the in-process cache, then from the database, or compute and store it.
+     */
+    public SpanningTree getSpanningTree(String hash, String algorithm, Supplier<SpanningTree> compute) {
+        return getCached(hash, algorithm, () -> {
+            String key = getKey(hash, algorithm);
+            AlgorithmResult stored = findStoredResult(key);
+            if (stored != null && stored.getSpanningTree() != null) {
+                return stored.getSpanningTree();
+            }
+            SpanningTree spanningTree = time(algorithm, compute);
+            store(spanningTree, () -> AlgorithmResult.builder().id(key).hash(hash).algorithm(algorithm).spanningTree(spanningTree));
+            return spanningTree;
+        });
+    }
+
+    /**
+     * Get all pairs shortest paths from the in-process cache, then from the database, or compute and store them.
+     * Stored shortest paths are restored on the given graph, which must be the graph they were computed on.
+     */
+    public AllPairsShortestPaths getAllPairsShortestPaths(String hash, String algorithm, Supplier<CompactWordGraph> graph, Supplier<AllPairsShortestPaths> compute) {
+        return getCached(hash, algorithm, () -> {
+            String key = getKey(hash, algorithm);
+            AlgorithmResult stored = findStoredResult(key);
+            if (stored != null && stored.getAllPairsShortestPaths() != null) {
+                return AllPairsShortestPaths.fromBytes(graph.get(), stored.getAllPairsShortestPaths());
+            }
+            AllPairsShortestPaths allPairs = time(algorithm, compute);
+            store(allPairs, () -> AlgorithmResult.builder().id(key).hash(hash).algorithm(algorithm).allPairsShortestPaths(allPairs.toBytes()));
+            return allPairs;
+        });
+    }
+
+    public CacheStats getStats() {
+        return results.getStats();
+    }
+
+    public CacheStats getStoredStats() {
+        return new CacheStats(storedHits.get(), storedMisses.get(), 0, 0, 0);
+    }
+
+    // Time the algorithm by its name without the parameters, e.g. dijkstra for dijkstra/true/word
+    private <T> T time(String algorithm, Supplier<T> compute) {
+        int end = algorithm.indexOf('/');
+        return metrics.timeAlgorithm(end == -1 ? algorithm : algorithm.substring(0, end), compute);
+    }
+
+    private String getKey(String hash, String algorithm) {
+        return hash + "/" + algorithm;
+    }
+
+    private AlgorithmResult findStoredResult(String key) {
+        if (!persistent) {
+            return null;
+        }
+        AlgorithmResult stored = mongoTemplate.findById(key, AlgorithmResult.class);
+        (stored == null ? storedMisses : storedHits).incrementAndGet();
+        return stored;
+    }
+
+    /**
+     * Store a result, unless it is too large for a document. A result that is not stored is still cached in process,
+     * and is computed again by the next process that needs it.
+     *
+     * @param result the stored form of the result, which is only built if it is stored
+     */
+    private void store(Object value, Supplier<AlgorithmResult.AlgorithmResultBuilder> result) {
+        if (!persistent) {
+            return;
+        }
+        if (estimateBytes(value) > maxStoredBytes) {
+            metrics.recordStoredResult(WordGraphMetrics.StoreOutcome.TOO_LARGE);
+            return;
+        }
+        AlgorithmResult algorithmResult = result.get().createdAt(LocalDateTime.now()).build();
+        try {
+            mongoTemplate.save(algorithmResult);
+            metrics.recordStoredResult(WordGraphMetrics.StoreOutcome.STORED);
+        } catch (DataAccessException e) {
+            log.warn("Could not store the result {}", algorithmResult.getId(), e);
+            metrics.recordStoredResult(WordGraphMetrics.StoreOutcome.FAILED);
+        }
+    }
+
+    private static long estimateBytes(Object result) {
+        return switch (result) {
+            case AllPairsShortestPaths allPairs -> OBJECT_BYTES + allPairs.getEstimatedBytes();
+            case Path path -> estimatePathBytes(path);
+            case SpanningTree spanningTree -> {
+                long bytes = OBJECT_BYTES * 2;
+                for (var edges : spanningTree.getAdjacencyList().values()) {
+                    bytes += MAP_ENTRY_BYTES + OBJECT_BYTES + edges.size() * (OBJECT_BYTES + REFERENCE_BYTES * 2);
+                }
+                yield bytes;
+            }
+            case SingleSourceShortestPath shortestPaths -> {
+                long bytes = OBJECT_BYTES * 2;
+                for (var path : shortestPaths.getShortestPaths().values()) {
+                    bytes += MAP_ENTRY_BYTES + estimatePathBytes(path);
+                }
+                yield bytes;
+            }
+            case List<?> paths -> {
+                long bytes = OBJECT_BYTES * 2;
+                for (var path : paths) {
+                    bytes += REFERENCE_BYTES + (path instanceof Path p ? estimatePathBytes(p) : OBJECT_BYTES);
+                }
+                yield bytes;
+            }
+            default -> OBJECT_BYTES;
+        };
+    }
+
+    // The words are shared with the graph, so only the references to them are counted
+    private static long estimatePathBytes(Path path) {
+        if (path == null || path.getPath() == null) {
+            return OBJECT_BYTES;
+        }
+        return OBJECT_BYTES * 2 + path.getPath().size() * REFERENCE_BYTES;
+    }
+}
@@ -0,0 +1,102 @@
+package me.shailesh.wordgraph.service;
+
+import lombok.Getter;
+import me.shailesh.wordgraph.core.CompactWordGraph;
+import me.shailesh.wordgraph.core.Edge;
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.WordGraph;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A stored word graph together with its analysis graph, ready to be queried. Word graphs never change once created,
+ * so a cached analysis graph is valid for as long as it is kept. The original text is not needed by any algorithm, so
+ * it is never kept, and neither is the adjacency list, which is only built from the compact graph for a response that
+ * includes it.
+ */
+@Getter
+public class AnalysisGraph {
+    // Rough sizes on a 64-bit JVM with compressed references
+    private static final long OBJECT_BYTES = 16;
+    private static final long MAP_ENTRY_BYTES = 48;
+    // CSR target and weight of every edge
+    private static final long COMPACT_EDGE_BYTES = 4 + 8;
+    // CSR offset, id map entry and word of every vertex
+    private static final long COMPACT_VERTEX_BYTES = 4 + MAP_ENTRY_BYTES + 4;
+
+    private final WordGraph wordGraph;
+    private final WordGraphAnalysis analysis;
+    private final long estimatedBytes;
+
+    public AnalysisGraph(WordGraph wordGraph, WordGraphAnalysis analysis) {
+        // Build the compact graph before the analysis graph is shared between requests
+        CompactWordGraph compactGraph = analysis.getCompactGraph();
+        this.wordGraph = toCachedWordGraph(wordGraph, compactGraph);
+        // An analysis built from a text still holds the adjacency list it was built with
+        this.analysis = WordGraphAnalysis.builder()
+                .maxWords(analysis.getMaxWords())
+                .v(analysis.getV())
+                .e(analysis.getE())
+                .wordFrequencies(analysis.getWordFrequencies())
+                .compactGraph(compactGraph)
+                .build();
+        estimatedBytes = estimateBytes(this.wordGraph);
+    }
+
+    public static AnalysisGraph of(WordGraph wordGraph) {
+        var analysis = WordGraphAnalysis.builder()
+                .maxWords(wordGraph.getMaxWords())
+                .v(wordGraph.getWordCount())
+                .e(wordGraph.getEdgeCount())
+                .wordFrequencies(wordGraph.getWordFrequencies())
+                .adjacencyList(wordGraph.getAdjacencyList())
+                .compactGraph(wordGraph.getCompactGraph())
+                .build();
+        return new AnalysisGraph(wordGraph, analysis);
+    }
+
+    /**
+     * @return the adjacency list of a word graph stored in either form, which is built anew from the compact graph
+     * on every call
+     */
+    // Time complexity: O(V + E)
+    public static Map<String, List<Edge>> getAdjacencyList(WordGraph wordGraph) {
+        if (wordGraph.getAdjacencyList() == null && wordGraph.getCompactGraph() != null) {
+            return wordGraph.getCompactGraph().toAdjacencyList();
+        }
+        return wordGraph.getAdjacencyList();
+    }
+
+    // Keep the compact graph of the analysis graph, and neither the text nor a second copy of the graph
+    private static WordGraph toCachedWordGraph(WordGraph wordGraph, CompactWordGraph compactGraph) {
+        return WordGraph.builder()
+                .id(wordGraph.getId())
+                .hash(wordGraph.getHash())
+                .maxWords(wordGraph.getMaxWords())
+                .compactGraph(compactGraph)
+                .wordFrequencies(wordGraph.getWordFrequencies())
+                .wordCount(wordGraph.getWordCount())
+                .edgeCount(wordGraph.getEdgeCount())
+                .createdAt(wordGraph.getCreatedAt())
+                .build();
+    }
+
+    // Time complexity: O(V)
+    private static long estimateBytes(WordGraph wordGraph) {
+        long bytes = OBJECT_BYTES * 4 + getStringBytes(wordGraph.getHash());
+        CompactWordGraph compactGraph = wordGraph.getCompactGraph();
+        for (int vertex = 0; vertex < compactGraph.getVertexCount(); vertex++) {
+            bytes += COMPACT_VERTEX_BYTES + getStringBytes(compactGraph.getWord(vertex));
+        }
+        bytes += (long) compactGraph.getEdgeCount() * COMPACT_EDGE_BYTES;
+        if (wordGraph.getWordFrequencies() != null) {
+            bytes += (long) wordGraph.getWordFrequencies().size() * (MAP_ENTRY_BYTES + OBJECT_BYTES);
+        }
+        return bytes;
+    }
+
+    private static long getStringBytes(String string) {
+        return string == null ? 0 : OBJECT_BYTES * 2 + string.length();
+    }
+}
@@ -0,0 +1,13 @@
+package me.shailesh.wordgraph.service;
+
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs the CPU bound analysis of a text, and waits for its result.
+ */
+@FunctionalInterface
+public interface AnalysisRunner {
+    WordGraphAnalysis run(Supplier<WordGraphAnalysis> analysis);
+}
@@ -0,0 +1,228 @@
+package me.shailesh.wordgraph.service;
+
+import com.mongodb.MongoException;
+import me.shailesh.wordgraph.cache.CacheStats;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.core.CorpusDelta;
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.Corpus;
+import me.shailesh.wordgraph.model.CorpusCreateDto;
+import me.shailesh.wordgraph.model.CorpusDto;
+import me.shailesh.wordgraph.model.CorpusPair;
+import me.shailesh.wordgraph.model.CorpusWord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Corpora that grow one document at a time. Adding a document counts only that document, and increments the stored
+ * word and pair counts and the version of the corpus in one transaction, so a document is either counted whole or not
+ * at all. The snapshot is then read in the same transaction from the top words of the corpus and the pairs among them,
+ * so neither the cost of adding a document nor the memory held for a corpus depends on the size of its vocabulary.
+ */
+@Service
+public class CorpusService {
+    // Attempts of a transaction that conflicts with one adding a document to the same corpus at the same time
+    private static final int MAX_TRANSACTION_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionOperations transactions;
+    private final ExpiringLruCache<String, CorpusState> corpora;
+
+    public CorpusService(MongoTemplate mongoTemplate,
+                         TransactionOperations transactions,
+                         @Value("${wordgraph.cache.corpora.max-size:256MB}") DataSize maxSize,
+                         @Value("${wordgraph.cache.corpora.ttl:30m}") Duration ttl) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactions = transactions;
+        this.corpora = new ExpiringLruCache<>(maxSize.toBytes(), ttl, CorpusState::getEstimatedBytes);
+    }
+
+    public CorpusDto createCorpus(CorpusCreateDto corpusCreate) {
+        if (corpusCreate.getMaxWords() < 0) {
+            throw new IllegalArgumentException("maxWords must not be negative");
+        }
+        var now = LocalDateTime.now();
+        Corpus corpus = mongoTemplate.insert(Corpus.builder()
+                .name(corpusCreate.getName())
+                .maxWords(corpusCreate.getMaxWords())
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        var state = new CorpusState(CorpusState.toSnapshot(corpus, Map.of(), Map.of()));
+        corpora.put(corpus.getId(), state);
+        return state.getSnapshot();
+    }
+
+    /**
+     * @return the latest snapshot of the corpus, or null if there is no corpus with the id
+     */
+    public CorpusDto getCorpus(String id) {
+        var state = getState(id);
+        return state == null ? null : state.getSnapshot();
+    }
+
+    /**
+     * Add a document to the corpus. Documents added to the same corpus by this instance are added one at a time, while
+     * snapshots of the corpus can still be read.
+     *
+     * @return the snapshot of the corpus with the document, or null if there is no corpus with the id
+     * @throws IllegalArgumentException if the document is empty, or has more pairs than CorpusDelta allows
+     */
+    // Time complexity: O(N + S * K^2 + V^2), see CorpusDelta and CorpusCounts
+    public CorpusDto addDocument(String id, String document) {
+        if (document == null || document.isBlank()) {
+            throw new IllegalArgumentException("The document must not be empty");
+        }
+        var state = getState(id);
+        if (state == null) {
+            return null;
+        }
+        // Count the document before taking the lock, so only the update of the counts is serialized
+        CorpusDelta delta = CorpusDelta.of(document);
+        synchronized (state) {
+            CorpusDto snapshot = inTransaction(() -> {
+                Corpus updated = incrementCounts(id, delta, LocalDateTime.now());
+                return updated == null ? null : readSnapshot(updated);
+            });
+            if (snapshot == null) {
+                corpora.invalidate(id);
+                return null;
+            }
+            state.publish(snapshot);
+        }
+        // Put the state again so the cache weighs it with the new snapshot
+        corpora.put(id, state);
+        return state.getSnapshot();
+    }
+
+    public CacheStats getCacheStats() {
+        return corpora.getStats();
+    }
+
+    /**
+     * Increment the version and totals of the stored corpus, and then its word and pair counts by those of a document
+     * with a bulk write each. The corpus is updated first, so a corpus that does not exist has nothing written for it,
+     * and a transaction adding another document to it at the same time conflicts instead of interleaving.
+     *
+     * @return the corpus with its new version and totals, or null if there is no corpus with the id
+     */
+    private Corpus incrementCounts(String id, CorpusDelta delta, LocalDateTime now) {
+        Query query = new Query(Criteria.where("id").is(id));
+        Update update = new Update()
+                .inc("version", 1)
+                .inc("documentCount", 1)
+                .inc("tokenCount", delta.getTokenCount())
+                .set("updatedAt", now);
+        Corpus updated = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Corpus.class);
+        if (updated == null) {
+            return null;
+        }
+        int newWords = incrementCounts(CorpusWord.class, "word", id, delta.getWordCounts());
+        incrementCounts(CorpusPair.class, "pair", id, delta.getPairCounts());
+        if (newWords > 0) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(id)), new Update().inc("distinctWordCount", newWords), Corpus.class);
+            updated.setDistinctWordCount(updated.getDistinctWordCount() + newWords);
+        }
+        return updated;
+    }
+
+    /**
+     * Upsert the counts of a corpus with a single bulk write.
+     *
+     * @param key the field that the counts are keyed by
+     * @return the number of counts that were not stored before
+     */
+    private int incrementCounts(Class<?> type, String key, String corpusId, Map<String, Long> counts) {
+        if (counts.isEmpty()) {
+            return 0;
+        }
+        BulkOperations upserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        counts.forEach((value, count) -> upserts.upsert(
+                new Query(Criteria.where("corpusId").is(corpusId).and(key).is(value)),
+                new Update().inc("count", count)));
+        return upserts.execute().getUpserts().size();
+    }
+
+    private CorpusState getState(String id) {
+        return corpora.get(id, key -> {
+            CorpusDto snapshot = inTransaction(() -> {
+                Corpus corpus = mongoTemplate.findById(key, Corpus.class);
+                return corpus == null ? null : readSnapshot(corpus);
+            });
+            return snapshot == null ? null : new CorpusState(snapshot);
+        });
+    }
+
+    /**
+     * Read the snapshot of a corpus from its top words and the pairs among them, which are at most V^2 / 2 however
+     * large the corpus is.
+     */
+    // Time complexity: O(V^2)
+    private CorpusDto readSnapshot(Corpus corpus) {
+        Query topWordsQuery = new Query(Criteria.where("corpusId").is(corpus.getId()))
+                .with(Sort.by(Sort.Order.desc("count"), Sort.Order.asc("word")))
+                .limit(WordGraphAnalysis.getWordsToInclude(corpus.getMaxWords()));
+        topWordsQuery.fields().include("word").include("count");
+        Map<String, Long> topWords = new LinkedHashMap<>();
+        mongoTemplate.find(topWordsQuery, CorpusWord.class).forEach(word -> topWords.put(word.getWord(), word.getCount()));
+
+        Map<String, Long> pairs = new HashMap<>();
+        if (topWords.size() > 1) {
+            List<String> words = new ArrayList<>(topWords.keySet());
+            List<String> pairKeys = new ArrayList<>(words.size() * (words.size() - 1) / 2);
+            for (int i = 0; i < words.size(); i++) {
+                for (int j = i + 1; j < words.size(); j++) {
+                    pairKeys.add(CorpusDelta.getPairKey(words.get(i), words.get(j)));
+                }
+            }
+            Query pairsQuery = new Query(Criteria.where("corpusId").is(corpus.getId()).and("pair").in(pairKeys));
+            pairsQuery.fields().include("pair").include("count");
+            mongoTemplate.find(pairsQuery, CorpusPair.class).forEach(pair -> pairs.put(pair.getPair(), pair.getCount()));
+        }
+        return CorpusState.toSnapshot(corpus, topWords, pairs);
+    }
+
+    /**
+     * Run the work in a transaction, and run it again when the transaction failed only because it conflicted with
+     * another, in which case nothing was written.
+     */
+    private <T> T inTransaction(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactions.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                if (attempt == MAX_TRANSACTION_ATTEMPTS || !isTransientTransactionError(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean isTransientTransactionError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package me.shailesh.wordgraph.service;
+
+import me.shailesh.wordgraph.core.CorpusCounts;
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.Corpus;
+import me.shailesh.wordgraph.model.CorpusDto;
+
+import java.util.Map;
+
+/**
+ * The latest snapshot of a corpus that this instance has read. Documents are added by one thread at a time, holding
+ * the lock of the state, and every change publishes a new snapshot, so reading a snapshot never waits for a document
+ * being added.
+ */
+class CorpusState {
+    private volatile CorpusDto snapshot;
+
+    CorpusState(CorpusDto snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Build the snapshot of a corpus as of its version.
+     *
+     * @param topWords the counts of the top words of the corpus
+     * @param pairs    the counts of the pairs of top words that appear together in a sentence
+     */
+    // Time complexity: O(V^2)
+    static CorpusDto toSnapshot(Corpus corpus, Map<String, Long> topWords, Map<String, Long> pairs) {
+        WordGraphAnalysis graph = new CorpusCounts(topWords, pairs).snapshot(corpus.getMaxWords());
+        return CorpusDto.builder()
+                .id(corpus.getId())
+                .name(corpus.getName())
+                .maxWords(corpus.getMaxWords())
+                .version(corpus.getVersion())
+                .documentCount(corpus.getDocumentCount())
+                .tokenCount(corpus.getTokenCount())
+                .distinctWordCount((int) Math.min(corpus.getDistinctWordCount(), Integer.MAX_VALUE))
+                .adjacencyList(graph.getAdjacencyList())
+                .wordFrequencies(graph.getWordFrequencies())
+                .wordCount(graph.getV())
+                .edgeCount(graph.getE())
+                .createdAt(corpus.getCreatedAt())
+                .updatedAt(corpus.getUpdatedAt())
+                .build();
+    }
+
+    CorpusDto getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Replace the snapshot, unless it is older than the one already published.
+     */
+    synchronized void publish(CorpusDto snapshot) {
+        if (snapshot.getVersion() >= this.snapshot.getVersion()) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    /**
+     * @return a rough estimate of the memory held by the snapshot, to weigh it in a cache
+     */
+    long getEstimatedBytes() {
+        CorpusDto current = snapshot;
+        return 512L + 96L * current.getWordCount() + 48L * current.getEdgeCount();
+    }
+}
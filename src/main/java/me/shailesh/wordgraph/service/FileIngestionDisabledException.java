@@ -0,0 +1,12 @@
+package me.shailesh.wordgraph.service;
+
+/**
+ * Thrown when a word graph is created from a file on the server while no allowed root of file ingestion is configured.
+ */
+public class FileIngestionDisabledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public FileIngestionDisabledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,146 @@
+package me.shailesh.wordgraph.service;
+
+import me.shailesh.wordgraph.model.JobDto;
+import me.shailesh.wordgraph.model.JobOperation;
+import me.shailesh.wordgraph.model.JobStatus;
+import me.shailesh.wordgraph.model.WordGraphDetailDto;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * The state of a job, updated by the thread that runs it and read by the threads that poll it. A job can finish, e.g.
+ * when it is cancelled, while tasks it started are still running, so it is released only once it has finished and
+ * none of its tasks are running.
+ */
+class Job {
+    private final String id;
+    private final JobOperation operation;
+    // Called once, when the job finishes for any reason
+    private final Consumer<Job> onFinish;
+    // Called once, when the job has finished and none of its tasks are running
+    private final Runnable onRelease;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private JobStatus status = JobStatus.QUEUED;
+    private String stage = "queued";
+    private double progress = 0.0;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private WordGraphDetailDto result;
+    private String errorMessage;
+    private Future<?> future;
+    private int runningTasks = 0;
+    private boolean released = false;
+
+    Job(String id, JobOperation operation, Consumer<Job> onFinish, Runnable onRelease) {
+        this.id = id;
+        this.operation = operation;
+        this.onFinish = onFinish;
+        this.onRelease = onRelease;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    synchronized boolean isFinished() {
+        return status.isFinished();
+    }
+
+    synchronized LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return false if the job was cancelled before it started
+     */
+    synchronized boolean start() {
+        if (status != JobStatus.QUEUED) {
+            return false;
+        }
+        status = JobStatus.RUNNING;
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * Count a task of the job that keeps running when the job is cancelled, until endTask is called for it.
+     */
+    synchronized void beginTask() {
+        runningTasks++;
+    }
+
+    synchronized void endTask() {
+        runningTasks--;
+        releaseIfIdle();
+    }
+
+    synchronized void progress(String stage, double progress) {
+        if (status == JobStatus.RUNNING) {
+            this.stage = stage;
+            this.progress = progress;
+        }
+    }
+
+    synchronized void succeed(WordGraphDetailDto result) {
+        if (finish(JobStatus.SUCCEEDED)) {
+            this.result = result;
+            progress = 1.0;
+        }
+    }
+
+    synchronized void fail(String errorMessage) {
+        if (finish(JobStatus.FAILED)) {
+            this.errorMessage = errorMessage;
+        }
+    }
+
+    /**
+     * Cancel the job, interrupting it if it is running. Its tasks that can not be interrupted keep running, and the
+     * job is released when they end.
+     */
+    synchronized void cancel() {
+        if (finish(JobStatus.CANCELLED) && future != null) {
+            future.cancel(true);
+        }
+    }
+
+    private boolean finish(JobStatus finalStatus) {
+        if (status.isFinished()) {
+            return false;
+        }
+        status = finalStatus;
+        stage = finalStatus.name().toLowerCase();
+        finishedAt = LocalDateTime.now();
+        onFinish.accept(this);
+        releaseIfIdle();
+        return true;
+    }
+
+    private void releaseIfIdle() {
+        if (status.isFinished() && runningTasks == 0 && !released) {
+            released = true;
+            onRelease.run();
+        }
+    }
+
+    synchronized JobDto toJobDto() {
+        return JobDto.builder()
+                .id(id)
+                .operation(operation)
+                .status(status)
+                .stage(stage)
+                .progress(progress)
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .result(result)
+                .errorMessage(errorMessage)
+                .build();
+    }
+}
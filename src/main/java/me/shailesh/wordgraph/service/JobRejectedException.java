@@ -0,0 +1,12 @@
+package me.shailesh.wordgraph.service;
+
+/**
+ * Thrown when a job is submitted while the maximum number of jobs are already queued or running.
+ */
+public class JobRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public JobRejectedException(String message) {
+        super(message);
+    }
+}
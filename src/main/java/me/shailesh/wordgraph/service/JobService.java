@@ -0,0 +1,281 @@
+package me.shailesh.wordgraph.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import me.shailesh.wordgraph.config.JobProperties;
+import me.shailesh.wordgraph.model.JobDto;
+import me.shailesh.wordgraph.model.JobRequest;
+import me.shailesh.wordgraph.model.WordGraphDetailDto;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs word graph creation and graph algorithms as jobs off the request threads. Every job runs on its own virtual
+ * thread, which does the database access, and hands its CPU bound part to a pool sized to the cores, so heavy jobs
+ * queue for the cores instead of starving the request threads. A bounded number of jobs can be pending at once, and
+ * jobs beyond that are rejected. Finished jobs are kept for the retention, and at most a bounded number of them.
+ */
+@Slf4j
+@Service
+public class JobService {
+    private final WordGraphService wordGraphService;
+    private final JobProperties jobProperties;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // In the order they finished, so the oldest are removed first
+    private final Queue<Job> finishedJobs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedJobCount = new AtomicInteger();
+    private final Semaphore pendingJobs;
+    private final ExecutorService jobExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService cpuExecutor;
+
+    public JobService(WordGraphService wordGraphService, JobProperties jobProperties) {
+        this.wordGraphService = wordGraphService;
+        this.jobProperties = jobProperties;
+        int cpuThreads = jobProperties.getCpuThreads() > 0 ? jobProperties.getCpuThreads() : Runtime.getRuntime().availableProcessors();
+        pendingJobs = new Semaphore(jobProperties.getMaxPendingJobs());
+        cpuExecutor = Executors.newFixedThreadPool(cpuThreads, new CpuThreadFactory());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request is missing what its operation needs
+     * @throws JobRejectedException     if the maximum number of jobs are already pending
+     */
+    public JobDto submit(JobRequest request) {
+        validate(request);
+        removeFinishedJobs();
+        if (!pendingJobs.tryAcquire()) {
+            throw new JobRejectedException("Too many pending jobs, try again later");
+        }
+        Job job = new Job(UUID.randomUUID().toString(), request.getOperation(), this::onFinish, pendingJobs::release);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(jobExecutor.submit(() -> run(job, request)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            job.cancel();
+            throw new JobRejectedException("Jobs are not accepted while shutting down");
+        }
+        return job.toJobDto();
+    }
+
+    /**
+     * @return the job, or null if there is no such job, it finished longer than the retention ago, or it was removed
+     * to keep the maximum number of finished jobs
+     */
+    public JobDto getJob(String id) {
+        removeFinishedJobs();
+        Job job = jobs.get(id);
+        return job == null ? null : job.toJobDto();
+    }
+
+    /**
+     * Cancel the job if it has not finished. A running algorithm can not be stopped midway, so its result is discarded
+     * and the job is reported as cancelled at once, but it counts as pending until the algorithm ends.
+     *
+     * @return the job, or null if there is no such job
+     */
+    public JobDto cancel(String id) {
+        removeFinishedJobs();
+        Job job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        job.cancel();
+        return job.toJobDto();
+    }
+
+    private void validate(JobRequest request) {
+        if (request.getOperation() == null) {
+            throw new IllegalArgumentException("Operation is required");
+        }
+        switch (request.getOperation()) {
+            case CREATE -> {
+                if (request.getWordGraph() == null || request.getWordGraph().getText() == null) {
+                    throw new IllegalArgumentException("Word graph text is required to create a word graph");
+                }
+            }
+            case TRAVERSAL, MST, SHORTEST_PATH -> {
+                if (request.getWordGraphId() == null || request.getWordGraphId().isBlank()) {
+                    throw new IllegalArgumentException("Word graph id is required to run an algorithm");
+                }
+            }
+        }
+    }
+
+    private void run(Job job, JobRequest request) {
+        try {
+            if (!job.start()) {
+                return;
+            }
+            job.succeed(switch (request.getOperation()) {
+                case CREATE -> {
+                    job.progress("analyzing", 0.1);
+                    yield create(job, request);
+                }
+                case TRAVERSAL, MST, SHORTEST_PATH -> runAlgorithm(job, request);
+            });
+        } catch (CancellationException | InterruptedException e) {
+            job.cancel();
+        } catch (Exception e) {
+            if (e.getCause() instanceof InterruptedException) {
+                job.cancel();
+            } else {
+                log.debug("Job {} failed", job.getId(), e);
+                job.fail(e.getMessage());
+            }
+        } finally {
+            if (!job.isFinished()) {
+                job.fail("Job stopped unexpectedly");
+            }
+        }
+    }
+
+    private WordGraphDetailDto runAlgorithm(Job job, JobRequest request) throws Exception {
+        job.progress("loading", 0.1);
+        var wordGraphDetail = wordGraphService.getWordGraphForAnalysis(request.getWordGraphId(), request.isResultOnly());
+        if (wordGraphDetail == null) {
+            throw new NoSuchElementException("Word graph " + request.getWordGraphId() + " not found");
+        }
+        job.progress("computing", 0.3);
+        WordGraphDetailDto result = compute(job, () -> switch (request.getOperation()) {
+            case TRAVERSAL -> wordGraphService.traversal(wordGraphDetail, request.getStart(), request.getType());
+            case MST -> wordGraphService.mst(wordGraphDetail, request.getType(), request.isMaximum());
+            default -> wordGraphService.shortestPath(wordGraphDetail, request.getStart(), request.getType(), request.isInverse(), request.isMatrix());
+        });
+        if (result.getErrorMessage() != null) {
+            throw new IllegalArgumentException(result.getErrorMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Create the word graph on a thread of its own and wait for it. Requests to create the same word graph at the same
+     * time share one creation, so cancelling the job stops only its wait, and the creation goes on for the others.
+     */
+    private WordGraphDetailDto create(Job job, JobRequest request) {
+        job.beginTask();
+        Future<WordGraphDetailDto> creation;
+        try {
+            creation = jobExecutor.submit(() -> {
+                try {
+                    return wordGraphService.createWordGraph(request.getWordGraph(), analysis -> compute(job, analysis::get));
+                } finally {
+                    job.endTask();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            job.endTask();
+            throw e;
+        }
+        return await(creation);
+    }
+
+    /**
+     * Run the task on the CPU pool and wait for it. If the job is cancelled while waiting, the task is cancelled too,
+     * and the job is released once the task is no longer running.
+     */
+    private <T> T compute(Job job, Callable<T> task) {
+        // Set by whichever of the task and the cancellation comes first, which then ends the task of the job
+        var claimed = new AtomicBoolean();
+        job.beginTask();
+        Future<T> future;
+        try {
+            future = cpuExecutor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    throw new CancellationException("Job cancelled");
+                }
+                try {
+                    return task.call();
+                } finally {
+                    job.endTask();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            job.endTask();
+            throw e;
+        }
+        try {
+            return await(future);
+        } catch (CancellationException e) {
+            future.cancel(true);
+            if (claimed.compareAndSet(false, true)) {
+                job.endTask();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for the future. If the waiting thread is interrupted, it stops waiting, but the future is not cancelled.
+     *
+     * @throws CancellationException if the waiting thread is interrupted
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Job cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void onFinish(Job job) {
+        finishedJobs.add(job);
+        finishedJobCount.incrementAndGet();
+    }
+
+    /**
+     * Remove the finished jobs whose retention has ended, and the oldest ones beyond the maximum that are kept.
+     */
+    // Time complexity: O(R), where R is the number of jobs removed
+    private synchronized void removeFinishedJobs() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(jobProperties.getRetention());
+        Job oldest;
+        while ((oldest = finishedJobs.peek()) != null
+                && (finishedJobCount.get() > jobProperties.getMaxFinishedJobs() || oldest.getFinishedAt().isBefore(expiredBefore))) {
+            finishedJobs.poll();
+            finishedJobCount.decrementAndGet();
+            jobs.remove(oldest.getId(), oldest);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        cpuExecutor.shutdownNow();
+    }
+
+    private static class CpuThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "wordgraph-cpu-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
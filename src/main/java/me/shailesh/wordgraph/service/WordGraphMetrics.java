@@ -0,0 +1,116 @@
+package me.shailesh.wordgraph.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import me.shailesh.wordgraph.core.BuildPhase;
+import me.shailesh.wordgraph.core.BuildPhaseListener;
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of building and analyzing word graphs: how long each build phase and algorithm takes, how large the built
+ * texts and graphs are, how often a create request is served by a word graph that already exists, and whether the
+ * algorithm results to be stored in the database are stored.
+ * Timers and summaries publish percentile histograms, so percentiles can be aggregated across instances.
+ * The time spent in the database is recorded by the MongoDB command metrics of Spring Boot.
+ */
+@Component
+public class WordGraphMetrics {
+    private final MeterRegistry registry;
+    private final Map<BuildPhase, Timer> buildTimers = new EnumMap<>(BuildPhase.class);
+    // Registered the first time each algorithm runs, so running it again does not look the timer up in the registry
+    private final Map<String, Timer> algorithmTimers = new ConcurrentHashMap<>();
+    private final DistributionSummary textLengths;
+    private final DistributionSummary vertexCounts;
+    private final DistributionSummary edgeCounts;
+    private final Counter dedupHits;
+    private final Map<StoreOutcome, Counter> storedResults = new EnumMap<>(StoreOutcome.class);
+
+    /**
+     * What became of an algorithm result that was to be stored in the database.
+     */
+    public enum StoreOutcome {
+        STORED,
+        // Larger than a document can hold, so only cached in process
+        TOO_LARGE,
+        FAILED
+    }
+
+    public WordGraphMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (BuildPhase phase : BuildPhase.values()) {
+            buildTimers.put(phase, Timer.builder("wordgraph.build")
+                    .description("Time to build a word graph, by phase")
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        textLengths = DistributionSummary.builder("wordgraph.text.length")
+                .description("Length of the texts word graphs are built from")
+                .baseUnit("characters")
+                .publishPercentileHistogram()
+                .register(registry);
+        vertexCounts = DistributionSummary.builder("wordgraph.graph.vertices")
+                .description("Words of the built word graphs")
+                .publishPercentileHistogram()
+                .register(registry);
+        edgeCounts = DistributionSummary.builder("wordgraph.graph.edges")
+                .description("Edges of the built word graphs, counted in both directions")
+                .publishPercentileHistogram()
+                .register(registry);
+        dedupHits = Counter.builder("wordgraph.dedup.hits")
+                .description("Create requests served by a word graph with the same hash")
+                .register(registry);
+        for (StoreOutcome outcome : StoreOutcome.values()) {
+            storedResults.put(outcome, Counter.builder("wordgraph.results.stored")
+                    .description("Algorithm results to be stored in the database, by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    public BuildPhaseListener getPhaseListener() {
+        return (phase, nanos) -> recordPhase(phase, nanos);
+    }
+
+    public void recordPhase(BuildPhase phase, long nanos) {
+        buildTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Run an algorithm, timed with the name of the algorithm as a tag.
+     */
+    public <T> T timeAlgorithm(String algorithm, Supplier<T> compute) {
+        return algorithmTimers.computeIfAbsent(algorithm, name -> Timer.builder("wordgraph.algorithm")
+                        .description("Time to run a graph algorithm that was not cached")
+                        .tag("algorithm", name)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(compute);
+    }
+
+    public void recordTextLength(long length) {
+        textLengths.record(length);
+    }
+
+    public void recordGraph(WordGraphAnalysis wga) {
+        vertexCounts.record(wga.getV());
+        edgeCounts.record(wga.getE());
+    }
+
+    public void recordDedupHit() {
+        dedupHits.increment();
+    }
+
+    public void recordStoredResult(StoreOutcome outcome) {
+        storedResults.get(outcome).increment();
+    }
+}
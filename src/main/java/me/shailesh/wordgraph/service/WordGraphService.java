@@ -1,85 +1,467 @@
 package me.shailesh.wordgraph.service;
 
 import lombok.AllArgsConstructor;
+import me.shailesh.wordgraph.cache.CacheStats;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.cache.SingleFlight;
+import me.shailesh.wordgraph.config.AnalysisProperties;
+import me.shailesh.wordgraph.config.BatchProperties;
+import me.shailesh.wordgraph.config.IngestProperties;
+import me.shailesh.wordgraph.config.ListingProperties;
+import me.shailesh.wordgraph.core.AllPairsShortestPaths;
+import me.shailesh.wordgraph.core.AnalysisOptions;
+import me.shailesh.wordgraph.core.BuildPhase;
+import me.shailesh.wordgraph.core.CoOccurrenceMode;
+import me.shailesh.wordgraph.core.MappedTextTokenizer;
+import me.shailesh.wordgraph.core.SingleSourceShortestPath;
+import me.shailesh.wordgraph.core.StreamingTextTokenizer;
+import me.shailesh.wordgraph.core.TokenizedText;
 import me.shailesh.wordgraph.core.WordGraphAnalysis;
 import me.shailesh.wordgraph.model.WordGraph;
+import me.shailesh.wordgraph.model.WordGraphBatchItemDto;
 import me.shailesh.wordgraph.model.WordGraphCreateDto;
 import me.shailesh.wordgraph.model.WordGraphDetailDto;
 import me.shailesh.wordgraph.model.WordGraphDto;
+import me.shailesh.wordgraph.model.WordGraphPage;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Service
 public class WordGraphService {
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
     private final MongoTemplate mongoTemplate;
-    public List<WordGraphDto> getAllWordGraphs() {
-        // Query only the required fields
+    private final ExpiringLruCache<String, AnalysisGraph> analysisGraphCache;
+    private final AlgorithmResultCache algorithmResultCache;
+    private final ListingProperties listingProperties;
+    private final BatchProperties batchProperties;
+    private final AnalysisProperties analysisProperties;
+    private final IngestProperties ingestProperties;
+    private final WordGraphMetrics metrics;
+    // Concurrent requests to create the same word graph share one analysis and one insert
+    private final SingleFlight<String, WordGraphDetailDto> createdWordGraphs = new SingleFlight<>();
+
+    /**
+     * Get a page of word graphs in id order, starting after the given id. Pages are found with the index on the id
+     * instead of skipping documents, so every page is as fast as the first, and only a preview of each text is loaded.
+     *
+     * @param after the id of the last word graph of the previous page, or null for the first page
+     * @param limit the page size, which is capped at the maximum page size
+     * @throws IllegalArgumentException if after is not a valid id
+     */
+    public WordGraphPage getWordGraphs(String after, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? listingProperties.getDefaultPageSize() : Math.min(limit, listingProperties.getMaxPageSize());
+        Query query = getListingQuery(after).limit(pageSize);
+        List<WordGraphDto> wordGraphs = mongoTemplate.find(query, WordGraph.class).stream()
+                .map(this::toWordGraphDto)
+                .toList();
+        String nextCursor = wordGraphs.size() == pageSize ? wordGraphs.getLast().getId() : null;
+        return new WordGraphPage(wordGraphs, nextCursor);
+    }
+
+    /**
+     * Stream all the word graphs after the given id from a database cursor, so that they are never all held in memory.
+     * The stream must be closed to close the cursor.
+     *
+     * @throws IllegalArgumentException if after is not a valid id
+     */
+    public Stream<WordGraphDto> streamWordGraphs(String after) {
+        return mongoTemplate.stream(getListingQuery(after), WordGraph.class).map(this::toWordGraphDto);
+    }
+
+    private Query getListingQuery(String after) {
         Query query = new Query();
-        query.fields().include("id").include("hash").include("text").include("createdAt").include("maxWords").include("wordCount").include("edgeCount");
-        return mongoTemplate.find(query, WordGraph.class).stream()
-                .map(wordGraph -> WordGraphDto.builder()
-                        .id(wordGraph.getId())
-                        .hash(wordGraph.getHash())
-                        .text(wordGraph.getText())
-                        .maxWords(wordGraph.getMaxWords())
-                        .wordCount(wordGraph.getWordCount())
-                        .edgeCount(wordGraph.getEdgeCount())
-                        .createdAt(wordGraph.getCreatedAt())
-                        .build()
-                ).toList();
+        if (after != null && !after.isBlank()) {
+            if (!ObjectId.isValid(after)) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+            query.addCriteria(Criteria.where("id").gt(new ObjectId(after)));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "id"));
+        // Query only the required fields, with the first characters of the text instead of the whole text
+        query.fields().include("id").include("hash").include("createdAt").include("maxWords").include("wordCount").include("edgeCount");
+        query.fields().project(MongoExpression.create("{ $cond: [{ $eq: [{ $type: '$text' }, 'string'] }, { $substrCP: ['$text', 0, "
+                + listingProperties.getTextPreviewLength() + "] }, null] }")).as("text");
+        return query;
+    }
+
+    private WordGraphDto toWordGraphDto(WordGraph wordGraph) {
+        return WordGraphDto.builder()
+                .id(wordGraph.getId())
+                .hash(wordGraph.getHash())
+                .text(wordGraph.getText())
+                .maxWords(wordGraph.getMaxWords())
+                .wordCount(wordGraph.getWordCount())
+                .edgeCount(wordGraph.getEdgeCount())
+                .createdAt(wordGraph.getCreatedAt())
+                .build();
     }
 
     public WordGraphDetailDto createWordGraph(WordGraphCreateDto wordGraphCreate) {
+        return createWordGraph(wordGraphCreate, Supplier::get);
+    }
 
+    /**
+     * Create a word graph, with the analysis of the text run by the given runner, e.g. on a pool sized to the cores,
+     * while the database is accessed from the calling thread.
+     */
+    public WordGraphDetailDto createWordGraph(WordGraphCreateDto wordGraphCreate, AnalysisRunner analysisRunner) {
+        if (wordGraphCreate.getText() == null) {
+            throw new IllegalArgumentException("Text is required");
+        }
         String trimmedText = wordGraphCreate.getText().trim().toLowerCase();
-        // Get hash of the text
-        String hash = getSHA256Hash(trimmedText  + wordGraphCreate.getMaxWords());
+        AnalysisOptions options = getAnalysisOptions(wordGraphCreate);
+        String hash = getHash(trimmedText, wordGraphCreate.getMaxWords(), options);
         // Check if the word graph already exists
-        Query query = new Query();
-        query.addCriteria(Criteria.where("hash").is(hash));
+        return createdWordGraphs.execute(hash, () -> {
+            WordGraph wordGraph = findWordGraphByHash(hash);
+            if (wordGraph != null) {
+                metrics.recordDedupHit();
+                return toWordGraphDetailDto(wordGraph);
+            }
+            WordGraphAnalysis wga = analysisRunner.run(() -> new WordGraphAnalysis(trimmedText, wordGraphCreate.getMaxWords(), options));
+            metrics.recordTextLength(trimmedText.length());
+            metrics.recordGraph(wga);
+            return saveWordGraph(hash, trimmedText, wga);
+        });
+    }
+
+    private String getHash(String trimmedText, int maxWords, AnalysisOptions options) {
+        return getSHA256Hash(trimmedText + maxWords + getHashSuffix(maxWords, options));
+    }
+
+    /**
+     * Create many word graphs at once. The stored word graphs are found with a single query, the missing ones are
+     * analyzed in parallel, and they are inserted with a single bulk write. Texts that appear more than once in the
+     * batch are analyzed once.
+     *
+     * @return the outcome of every word graph, in the order of the batch
+     * @throws IllegalArgumentException if the batch has more word graphs or more text than a batch can have
+     */
+    public List<WordGraphBatchItemDto> createWordGraphs(List<WordGraphCreateDto> wordGraphCreates) {
+        if (wordGraphCreates.size() > batchProperties.getMaxSize()) {
+            throw new IllegalArgumentException("A batch can have at most " + batchProperties.getMaxSize() + " word graphs");
+        }
+        long textLength = 0;
+        for (WordGraphCreateDto wordGraphCreate : wordGraphCreates) {
+            if (wordGraphCreate != null && wordGraphCreate.getText() != null) {
+                textLength += wordGraphCreate.getText().length();
+            }
+        }
+        if (textLength > batchProperties.getMaxTextLength()) {
+            throw new IllegalArgumentException("A batch can have at most " + batchProperties.getMaxTextLength() + " characters of text");
+        }
+        int count = wordGraphCreates.size();
+        WordGraphBatchItemDto[] items = new WordGraphBatchItemDto[count];
+        String[] texts = new String[count];
+        AnalysisOptions[] options = new AnalysisOptions[count];
+        // The first item of every distinct hash, in batch order
+        Map<String, Integer> firstItems = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            WordGraphCreateDto wordGraphCreate = wordGraphCreates.get(i);
+            items[i] = WordGraphBatchItemDto.builder().index(i).build();
+            if (wordGraphCreate == null || wordGraphCreate.getText() == null) {
+                items[i].setStatus(WordGraphBatchItemDto.Status.FAILED);
+                items[i].setErrorMessage("Text is required");
+                continue;
+            }
+            texts[i] = wordGraphCreate.getText().trim().toLowerCase();
+            options[i] = getAnalysisOptions(wordGraphCreate);
+            items[i].setHash(getHash(texts[i], wordGraphCreate.getMaxWords(), options[i]));
+            firstItems.putIfAbsent(items[i].getHash(), i);
+        }
 
-        WordGraph wordGraph = mongoTemplate.findOne(query, WordGraph.class);
-        if (wordGraph != null) {
-            return WordGraphDetailDto.builder()
-                    .id(wordGraph.getId())
-                    .hash(wordGraph.getHash())
-                    .text(wordGraph.getText())
-                    .maxWords(wordGraph.getMaxWords())
-                    .adjacencyList(wordGraph.getAdjacencyList())
-                    .wordFrequencies(wordGraph.getWordFrequencies())
-                    .wordCount(wordGraph.getWordCount())
-                    .edgeCount(wordGraph.getEdgeCount())
-                    .createdAt(wordGraph.getCreatedAt())
+        Map<String, String> ids = findIdsByHash(firstItems.keySet());
+        List<Integer> missing = firstItems.values().stream().filter(i -> !ids.containsKey(items[i].getHash())).toList();
+        // Analyze on the common pool, with ids given up front so they are known without reading the bulk write back
+        List<WordGraph> wordGraphs = missing.parallelStream().map(i -> {
+            WordGraphAnalysis wga;
+            try {
+                wga = new WordGraphAnalysis(texts[i], wordGraphCreates.get(i).getMaxWords(), options[i]);
+            } catch (RuntimeException e) {
+                items[i].setStatus(WordGraphBatchItemDto.Status.FAILED);
+                items[i].setErrorMessage(e.getMessage());
+                return null;
+            }
+            metrics.recordTextLength(texts[i].length());
+            metrics.recordGraph(wga);
+            return WordGraph.builder()
+                    .id(new ObjectId().toHexString())
+                    .hash(items[i].getHash())
+                    .text(texts[i])
+                    .maxWords(wga.getMaxWords())
+                    .compactGraph(wga.getCompactGraph())
+                    .wordFrequencies(wga.getWordFrequencies())
+                    .wordCount(wga.getV())
+                    .edgeCount(wga.getE())
+                    .createdAt(LocalDateTime.now())
                     .build();
+        }).filter(Objects::nonNull).toList();
+
+        Map<String, String> errors = insertWordGraphs(wordGraphs);
+        Set<String> created = new HashSet<>();
+        Set<String> lostRaces = new HashSet<>();
+        for (WordGraph wordGraph : wordGraphs) {
+            String error = errors.get(wordGraph.getHash());
+            if (error == null) {
+                ids.put(wordGraph.getHash(), wordGraph.getId());
+                created.add(wordGraph.getHash());
+            } else if (error.isEmpty()) {
+                lostRaces.add(wordGraph.getHash());
+            }
         }
-        WordGraphAnalysis wga = new WordGraphAnalysis(trimmedText, wordGraphCreate.getMaxWords());
-        wordGraph = WordGraph.builder()
+        // Another request stored some of the word graphs first, so use those
+        ids.putAll(findIdsByHash(lostRaces));
+
+        for (WordGraphBatchItemDto item : items) {
+            if (item.getStatus() != null) {
+                continue;
+            }
+            WordGraphBatchItemDto firstItem = items[firstItems.get(item.getHash())];
+            if (firstItem.getStatus() == WordGraphBatchItemDto.Status.FAILED) {
+                item.setStatus(WordGraphBatchItemDto.Status.FAILED);
+                item.setErrorMessage(firstItem.getErrorMessage());
+                continue;
+            }
+            String error = errors.get(item.getHash());
+            item.setId(ids.get(item.getHash()));
+            if (error != null && !error.isEmpty() || item.getId() == null) {
+                item.setStatus(WordGraphBatchItemDto.Status.FAILED);
+                item.setErrorMessage(error == null || error.isEmpty() ? "Word graph was not stored" : error);
+            } else if (created.contains(item.getHash()) && firstItems.get(item.getHash()) == item.getIndex()) {
+                item.setStatus(WordGraphBatchItemDto.Status.CREATED);
+            } else {
+                item.setStatus(WordGraphBatchItemDto.Status.EXISTING);
+                metrics.recordDedupHit();
+            }
+        }
+        return List.of(items);
+    }
+
+    private Map<String, String> findIdsByHash(Collection<String> hashes) {
+        Map<String, String> ids = new HashMap<>();
+        if (hashes.isEmpty()) {
+            return ids;
+        }
+        Query query = new Query(Criteria.where("hash").in(hashes));
+        query.fields().include("id").include("hash");
+        for (WordGraph wordGraph : mongoTemplate.find(query, WordGraph.class)) {
+            ids.put(wordGraph.getHash(), wordGraph.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * @return the error of every word graph that could not be inserted by hash, which is empty if a word graph with
+     * the same hash was already stored
+     */
+    private Map<String, String> insertWordGraphs(List<WordGraph> wordGraphs) {
+        Map<String, String> errors = new HashMap<>();
+        if (wordGraphs.isEmpty()) {
+            return errors;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WordGraph.class).insert(wordGraphs).execute();
+        } catch (BulkOperationException e) {
+            for (var error : e.getErrors()) {
+                String hash = wordGraphs.get(error.getIndex()).getHash();
+                errors.put(hash, error.getCode() == DUPLICATE_KEY_ERROR ? "" : error.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    private AnalysisOptions getAnalysisOptions(WordGraphCreateDto wordGraphCreate) {
+        var options = AnalysisOptions.builder()
+                .approximate(wordGraphCreate.isApproximate())
+                .phaseListener(metrics.getPhaseListener());
+        if (wordGraphCreate.getErrorBound() > 0 && wordGraphCreate.getErrorBound() < 1) {
+            options.errorBound(wordGraphCreate.getErrorBound());
+        }
+        if (wordGraphCreate.getCoOccurrence() != null) {
+            options.coOccurrence(wordGraphCreate.getCoOccurrence());
+        }
+        options.largeGraph(wordGraphCreate.isLargeGraph());
+        if (wordGraphCreate.getWindowSize() > 0) {
+            options.windowSize(Math.min(wordGraphCreate.getWindowSize(), AnalysisOptions.MAX_WINDOW_SIZE));
+        }
+        // Parallelism never changes the graph, so it is not part of the hash
+        int parallelism = Objects.requireNonNullElse(wordGraphCreate.getParallelism(), analysisProperties.getParallelism());
+        options.parallelism(parallelism > 0 ? parallelism : ForkJoinPool.getCommonPoolParallelism());
+        return options.build();
+    }
+
+    /**
+     * Options that can change the graph are part of the hash, so that graphs built with different options are not
+     * deduplicated against each other. The default options add nothing, which keeps existing hashes valid.
+     */
+    private String getHashSuffix(int maxWords, AnalysisOptions options) {
+        String suffix = "";
+        // A large graph only differs from the default when it has more words than the default allows
+        if (options.isLargeGraph() && WordGraphAnalysis.getWordsToInclude(maxWords, true) > WordGraphAnalysis.getWordsToInclude(maxWords)) {
+            suffix += ":large";
+        }
+        if (options.isApproximate()) {
+            suffix += ":approximate:" + options.getErrorBound();
+        }
+        if (options.getCoOccurrence() != CoOccurrenceMode.SENTENCE) {
+            suffix += ":" + options.getCoOccurrence().name().toLowerCase() + ":" + options.getWindowSize();
+        }
+        return suffix;
+    }
+
+    /**
+     * Create a word graph from a text read as a stream. The text is tokenized and hashed in a single pass over the
+     * stream, so it is never held in memory as a whole, and it is not stored with the word graph.
+     * The hash is the same as for the same text submitted through {@link #createWordGraph(WordGraphCreateDto)}.
+     *
+     * @throws IllegalArgumentException if the text has a run of more than 16M characters without whitespace
+     */
+    public WordGraphDetailDto createWordGraph(InputStream text, int maxWords) throws IOException {
+        var reader = new InputStreamReader(text, StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        try (var tokenized = StreamingTextTokenizer.tokenize(reader, getSHA256Digest())) {
+            metrics.recordPhase(BuildPhase.TOKENIZE, System.nanoTime() - start);
+            return createWordGraph(tokenized.tokenizedText(), tokenized.digest(), maxWords);
+        }
+    }
+
+    /**
+     * Create a word graph from a UTF-8 file on the server, under the allowed root of file ingestion. The file is
+     * mapped into memory instead of being read onto the heap, and its text is not stored with the word graph.
+     * The hash is the same as for the same text submitted through {@link #createWordGraph(WordGraphCreateDto)}.
+     *
+     * @param path the path of the file, relative to the allowed root
+     * @throws FileIngestionDisabledException if no allowed root is configured
+     * @throws IllegalArgumentException if the path is not a file under the allowed root, or the file has a run of more
+     * than 16 MB without whitespace
+     */
+    public WordGraphDetailDto createWordGraphFromFile(String path, int maxWords) throws IOException {
+        Path file = resolveIngestPath(path);
+        MessageDigest digest = getSHA256Digest();
+        long start = System.nanoTime();
+        try (TokenizedText tokenizedText = MappedTextTokenizer.tokenize(file, digest)) {
+            metrics.recordPhase(BuildPhase.TOKENIZE, System.nanoTime() - start);
+            return createWordGraph(tokenizedText, digest, maxWords);
+        }
+    }
+
+    private Path resolveIngestPath(String path) throws IOException {
+        String allowedRoot = ingestProperties.getAllowedRoot();
+        if (allowedRoot == null || allowedRoot.isBlank()) {
+            throw new FileIngestionDisabledException("File ingestion is not enabled");
+        }
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("Path is required");
+        }
+        Path root = Path.of(allowedRoot).toRealPath();
+        // Links and .. are resolved before the check, so neither can lead out of the root
+        Path file = root.resolve(path).toRealPath();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Path is not a file under the allowed root");
+        }
+        return file;
+    }
+
+    /**
+     * @param digest the digest of the trimmed, lowercase text, which the maximum number of words is added to
+     */
+    private WordGraphDetailDto createWordGraph(TokenizedText tokenizedText, MessageDigest digest, int maxWords) {
+        digest.update(String.valueOf(maxWords).getBytes(StandardCharsets.UTF_8));
+        String hash = toHex(digest.digest());
+        return createdWordGraphs.execute(hash, () -> {
+            WordGraph wordGraph = findWordGraphByHash(hash);
+            if (wordGraph != null) {
+                metrics.recordDedupHit();
+                return toWordGraphDetailDto(wordGraph);
+            }
+            var options = AnalysisOptions.builder().phaseListener(metrics.getPhaseListener()).build();
+            WordGraphAnalysis wga = new WordGraphAnalysis(tokenizedText, maxWords, options);
+            metrics.recordGraph(wga);
+            return saveWordGraph(hash, null, wga);
+        });
+    }
+
+    private WordGraph findWordGraphByHash(String hash) {
+        Query query = new Query();
+        query.addCriteria(Criteria.where("hash").is(hash));
+        return mongoTemplate.findOne(query, WordGraph.class);
+    }
+
+    private WordGraphDetailDto saveWordGraph(String hash, String text, WordGraphAnalysis wga) {
+        WordGraph wordGraph = WordGraph.builder()
                 .hash(hash)
-                .text(trimmedText)
+                .text(text)
                 .maxWords(wga.getMaxWords())
-                .adjacencyList(wga.getAdjacencyList())
+                .compactGraph(wga.getCompactGraph())
                 .wordFrequencies(wga.getWordFrequencies())
                 .wordCount(wga.getV())
                 .edgeCount(wga.getE())
                 .createdAt(LocalDateTime.now())
                 .build();
-        wordGraph = mongoTemplate.save(wordGraph);
+        try {
+            wordGraph = mongoTemplate.save(wordGraph);
+        } catch (DuplicateKeyException e) {
+            // Another process saved the same word graph first, so return that one
+            WordGraph winner = findWordGraphByHash(hash);
+            if (winner == null) {
+                throw e;
+            }
+            return toWordGraphDetailDto(winner);
+        }
+        var analysisGraph = new AnalysisGraph(wordGraph, wga);
+        analysisGraphCache.put(wordGraph.getId(), analysisGraph);
+        var wordGraphDetail = toWordGraphDetailDto(analysisGraph.getWordGraph());
+        wordGraphDetail.setText(text);
+        return wordGraphDetail;
+    }
+
+    private WordGraphDetailDto toWordGraphDetailDto(WordGraph wordGraph) {
+        return toWordGraphDetailDto(wordGraph, true);
+    }
+
+    /**
+     * @param withGraph include the adjacency list and word frequencies, where the adjacency list is built from the
+     *                  compact graph
+     */
+    private WordGraphDetailDto toWordGraphDetailDto(WordGraph wordGraph, boolean withGraph) {
         return WordGraphDetailDto.builder()
                 .id(wordGraph.getId())
                 .hash(wordGraph.getHash())
                 .text(wordGraph.getText())
                 .maxWords(wordGraph.getMaxWords())
-                .adjacencyList(wordGraph.getAdjacencyList())
-                .wordFrequencies(wordGraph.getWordFrequencies())
+                .adjacencyList(withGraph ? AnalysisGraph.getAdjacencyList(wordGraph) : null)
+                .wordFrequencies(withGraph ? wordGraph.getWordFrequencies() : null)
                 .wordCount(wordGraph.getWordCount())
                 .edgeCount(wordGraph.getEdgeCount())
                 .createdAt(wordGraph.getCreatedAt())
@@ -87,133 +469,253 @@ public class WordGraphService {
     }
 
     public String getSHA256Hash(String text) {
+        return toHex(getSHA256Digest().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private MessageDigest getSHA256Digest() {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Error computing hash", e);
         }
     }
 
+    private String toHex(byte[] hash) {
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) hexString.append('0');
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    /**
+     * Word graphs never change once created, so their graphs are served from the in-process cache of analysis graphs,
+     * and only the original text is loaded from the database.
+     */
     public WordGraphDetailDto getWordGraphById(String id) {
-        WordGraph wordGraph = mongoTemplate.findById(id, WordGraph.class);
-        if (wordGraph == null) {
+        AnalysisGraph analysisGraph = getAnalysisGraph(id);
+        if (analysisGraph == null) {
             return null;
         }
-        return WordGraphDetailDto.builder()
-                .id(wordGraph.getId())
-                .hash(wordGraph.getHash())
-                .text(wordGraph.getText())
-                .maxWords(wordGraph.getMaxWords())
-                .adjacencyList(wordGraph.getAdjacencyList())
-                .wordFrequencies(wordGraph.getWordFrequencies())
-                .wordCount(wordGraph.getWordCount())
-                .edgeCount(wordGraph.getEdgeCount())
-                .createdAt(wordGraph.getCreatedAt())
-                .build();
+        var wordGraphDetail = toWordGraphDetailDto(analysisGraph.getWordGraph());
+        Query query = new Query(Criteria.where("id").is(id));
+        query.fields().include("text");
+        WordGraph text = mongoTemplate.findOne(query, WordGraph.class);
+        wordGraphDetail.setText(text == null ? null : text.getText());
+        return wordGraphDetail;
     }
 
-    public WordGraphDetailDto traversal(WordGraphDetailDto wordGraphDetail, String start, String type) {
-        var wga = WordGraphAnalysis.builder()
+    /**
+     * Get a word graph to run an algorithm on, without its text.
+     *
+     * @param resultOnly leave out the adjacency list and word frequencies as well, so that only the result of the
+     *                   algorithm and the counts are returned
+     */
+    public WordGraphDetailDto getWordGraphForAnalysis(String id, boolean resultOnly) {
+        AnalysisGraph analysisGraph = getAnalysisGraph(id);
+        if (analysisGraph == null) {
+            return null;
+        }
+        return toWordGraphDetailDto(analysisGraph.getWordGraph(), !resultOnly);
+    }
+
+    private AnalysisGraph getAnalysisGraph(String id) {
+        return analysisGraphCache.get(id, key -> {
+            // The text can be far larger than the graph, and no algorithm needs it
+            Query query = new Query(Criteria.where("id").is(key));
+            query.fields().exclude("text");
+            WordGraph wordGraph = mongoTemplate.findOne(query, WordGraph.class);
+            return wordGraph == null ? null : AnalysisGraph.of(wordGraph);
+        });
+    }
+
+    public Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("graphs", analysisGraphCache.getStats());
+        stats.put("results", algorithmResultCache.getStats());
+        stats.put("storedResults", algorithmResultCache.getStoredStats());
+        return stats;
+    }
+
+    /**
+     * Use the analysis graph of the stored word graph, or build one from the details if it is not stored.
+     */
+    private WordGraphAnalysis getAnalysis(WordGraphDetailDto wordGraphDetail) {
+        AnalysisGraph analysisGraph = wordGraphDetail.getId() == null ? null : getAnalysisGraph(wordGraphDetail.getId());
+        if (analysisGraph != null) {
+            return analysisGraph.getAnalysis();
+        }
+        return WordGraphAnalysis.builder()
                 .v(wordGraphDetail.getWordCount())
                 .e(wordGraphDetail.getEdgeCount())
                 .wordFrequencies(wordGraphDetail.getWordFrequencies())
                 .adjacencyList(wordGraphDetail.getAdjacencyList())
                 .build();
+    }
+
+    public WordGraphDetailDto traversal(WordGraphDetailDto wordGraphDetail, String start, String type) {
+        var wga = getAnalysis(wordGraphDetail);
+        String hash = wordGraphDetail.getHash();
         if(type == null) {
             type = "";
         }
+
+        // A depth first search takes V * E time in the worst case, so large graphs only get the breadth first search
+        boolean dfsAllowed = wga.getV() <= analysisProperties.getMaxDfsVertices();
         switch(type.toLowerCase()) {
             case "bfs":
-                wordGraphDetail.setBfs(wga.bfs(start));
+                wordGraphDetail.setBfs(algorithmResultCache.get(hash, "bfs/" + start, () -> wga.bfs(start)));
                 break;
             case "dfs":
-                wordGraphDetail.setDfs(wga.dfs(start));
+                if(!dfsAllowed) {
+                    wordGraphDetail.setErrorMessage(getDfsRefusal(wga));
+                    break;
+                }
+                wordGraphDetail.setDfs(algorithmResultCache.get(hash, "dfs/" + start, () -> wga.dfs(start)));
                 break;
             default:
-                wordGraphDetail.setBfs(wga.bfs(start));
-                wordGraphDetail.setDfs(wga.dfs(start));
+                wordGraphDetail.setBfs(algorithmResultCache.get(hash, "bfs/" + start, () -> wga.bfs(start)));
+                if(dfsAllowed) {
+                    wordGraphDetail.setDfs(algorithmResultCache.get(hash, "dfs/" + start, () -> wga.dfs(start)));
+                }
                 break;
         }
         return wordGraphDetail;
     }
 
+    private String getDfsRefusal(WordGraphAnalysis wga) {
+        return "Depth first search is limited to graphs of at most " + analysisProperties.getMaxDfsVertices()
+                + " words, and this graph has " + wga.getV() + ". Use type=bfs instead";
+    }
+
     public WordGraphDetailDto mst(WordGraphDetailDto wordGraphDetail, String type, boolean maximum) {
-        var wga = WordGraphAnalysis.builder()
-                .v(wordGraphDetail.getWordCount())
-                .e(wordGraphDetail.getEdgeCount())
-                .wordFrequencies(wordGraphDetail.getWordFrequencies())
-                .adjacencyList(wordGraphDetail.getAdjacencyList())
-                .build();
+        var wga = getAnalysis(wordGraphDetail);
+        String hash = wordGraphDetail.getHash();
         if(type == null) {
             type = "";
         }
         switch(type.toLowerCase()) {
             case "prims":
                 if(maximum) {
-                    wordGraphDetail.setPrimsMst(wga.primsMstMax());
+                    wordGraphDetail.setPrimsMst(algorithmResultCache.getSpanningTree(hash, "prims/maximum", wga::primsMstMax));
                     break;
                 }
-                wordGraphDetail.setPrimsMst(wga.primsMst());
+                wordGraphDetail.setPrimsMst(algorithmResultCache.getSpanningTree(hash, "prims/minimum", wga::primsMst));
                 break;
             case "kruskals":
                 if(maximum) {
-                    wordGraphDetail.setKruskalsMst(wga.kruskalsMstMax());
+                    wordGraphDetail.setKruskalsMst(algorithmResultCache.getSpanningTree(hash, "kruskals/maximum", wga::kruskalsMstMax));
                     break;
                 }
-                wordGraphDetail.setKruskalsMst(wga.kruskalsMst());
+                wordGraphDetail.setKruskalsMst(algorithmResultCache.getSpanningTree(hash, "kruskals/minimum", wga::kruskalsMst));
                 break;
             default:
                 if(maximum) {
-                    wordGraphDetail.setPrimsMst(wga.primsMstMax());
-                    wordGraphDetail.setKruskalsMst(wga.kruskalsMstMax());
+                    wordGraphDetail.setPrimsMst(algorithmResultCache.getSpanningTree(hash, "prims/maximum", wga::primsMstMax));
+                    wordGraphDetail.setKruskalsMst(algorithmResultCache.getSpanningTree(hash, "kruskals/maximum", wga::kruskalsMstMax));
                     break;
                 }
-                wordGraphDetail.setPrimsMst(wga.primsMst());
-                wordGraphDetail.setKruskalsMst(wga.kruskalsMst());
+                wordGraphDetail.setPrimsMst(algorithmResultCache.getSpanningTree(hash, "prims/minimum", wga::primsMst));
+                wordGraphDetail.setKruskalsMst(algorithmResultCache.getSpanningTree(hash, "kruskals/minimum", wga::kruskalsMst));
                 break;
         }
         return wordGraphDetail;
     }
 
-    public WordGraphDetailDto shortestPath(WordGraphDetailDto wordGraphDetail, String start, String type, boolean inverse) {
-        var wga = WordGraphAnalysis.builder()
-                .v(wordGraphDetail.getWordCount())
-                .e(wordGraphDetail.getEdgeCount())
-                .wordFrequencies(wordGraphDetail.getWordFrequencies())
-                .adjacencyList(wordGraphDetail.getAdjacencyList())
-                .build();
+    public WordGraphDetailDto shortestPath(WordGraphDetailDto wordGraphDetail, String start, String type, boolean inverse, boolean matrix) {
+        var wga = getAnalysis(wordGraphDetail);
+        String hash = wordGraphDetail.getHash();
         if(type == null) {
             type = "";
         }
 
+        // All pairs shortest paths take V^2 memory, so large graphs only get the paths from a single source
+        boolean allPairsAllowed = wga.getV() <= getMaxAllPairsVertices();
         switch(type.toLowerCase()) {
             case "floyd-warshall":
-                wordGraphDetail.setFloydWarshallShortestPaths(wga.floydWarshallShortestPaths(inverse));
+                if(!allPairsAllowed) {
+                    wordGraphDetail.setErrorMessage(getAllPairsRefusal(wga));
+                    break;
+                }
+                var allPairs = getAllPairsShortestPaths(hash, wga, inverse);
+                if(matrix) {
+                    wordGraphDetail.setFloydWarshallDistances(allPairs.getDistanceMatrix());
+                    break;
+                }
+                if(start != null && !start.isBlank()) {
+                    // Only build the paths from the requested source
+                    var shortestPaths = allPairs.getSingleSourceShortestPath(start);
+                    wordGraphDetail.setFloydWarshallShortestPaths(shortestPaths == null ? List.of() : List.of(shortestPaths));
+                    break;
+                }
+                wordGraphDetail.setFloydWarshallShortestPaths(allPairs.getSingleSourceShortestPaths());
                 break;
             case "dijkstra":
                 if(start == null || start.isBlank()) {
                     wordGraphDetail.setErrorMessage("Start vertex is required for Dijkstra's algorithm");
                     break;
                 }
-                wordGraphDetail.setDijkstraShortestPath(wga.dijkstraShortestPath(start, inverse));
+                wordGraphDetail.setDijkstraShortestPath(getDijkstraShortestPath(hash, wga, start, inverse));
                 break;
             default:
                 if(start == null || start.isBlank()) {
                     wordGraphDetail.setErrorMessage("Start vertex is required for Dijkstra's algorithm");
                     break;
                 }
-                wordGraphDetail.setDijkstraShortestPath(wga.dijkstraShortestPath(start, inverse));
-                wordGraphDetail.setFloydWarshallShortestPaths(wga.floydWarshallShortestPaths(inverse));
+                wordGraphDetail.setDijkstraShortestPath(getDijkstraShortestPath(hash, wga, start, inverse));
+                if(!allPairsAllowed) {
+                    // The paths from the start word are still returned, with the reason the others are not
+                    wordGraphDetail.setErrorMessage(getAllPairsRefusal(wga));
+                    break;
+                }
+                if(matrix) {
+                    wordGraphDetail.setFloydWarshallDistances(getAllPairsShortestPaths(hash, wga, inverse).getDistanceMatrix());
+                    break;
+                }
+                wordGraphDetail.setFloydWarshallShortestPaths(getAllPairsShortestPaths(hash, wga, inverse).getSingleSourceShortestPaths());
                 break;
         }
         return wordGraphDetail;
     }
+
+    /**
+     * Find the k shortest loopless paths from the start word to the end word, without finding the paths to any other
+     * word.
+     */
+    public WordGraphDetailDto kShortestPaths(WordGraphDetailDto wordGraphDetail, String start, String end, int k, boolean inverse) {
+        if(start == null || start.isBlank() || end == null || end.isBlank()) {
+            wordGraphDetail.setErrorMessage("Start and end words are required for the k shortest paths");
+            return wordGraphDetail;
+        }
+        if(k < 1 || k > analysisProperties.getMaxShortestPaths()) {
+            wordGraphDetail.setErrorMessage("k must be between 1 and " + analysisProperties.getMaxShortestPaths());
+            return wordGraphDetail;
+        }
+        var wga = getAnalysis(wordGraphDetail);
+        wordGraphDetail.setYenShortestPaths(algorithmResultCache.get(wordGraphDetail.getHash(), "yen/" + inverse + "/" + k + "/" + start + "/" + end,
+                () -> wga.yenShortestPaths(start, end, k, inverse)));
+        return wordGraphDetail;
+    }
+
+    private String getAllPairsRefusal(WordGraphAnalysis wga) {
+        return "All pairs shortest paths are limited to graphs of at most " + getMaxAllPairsVertices()
+                + " words, and this graph has " + wga.getV() + ". Use type=dijkstra with a start word instead";
+    }
+
+    // The configured maximum can not go beyond the most vertices whose matrices fit in an array
+    private int getMaxAllPairsVertices() {
+        return Math.min(analysisProperties.getMaxAllPairsVertices(), AllPairsShortestPaths.MAX_VERTICES);
+    }
+
+    private SingleSourceShortestPath getDijkstraShortestPath(String hash, WordGraphAnalysis wga, String start, boolean inverse) {
+        return algorithmResultCache.get(hash, "dijkstra/" + inverse + "/" + start, () -> wga.dijkstraShortestPath(start, inverse));
+    }
+
+    private AllPairsShortestPaths getAllPairsShortestPaths(String hash, WordGraphAnalysis wga, boolean inverse) {
+        return algorithmResultCache.getAllPairsShortestPaths(hash, "floyd-warshall/" + inverse,
+                () -> inverse ? wga.getCompactGraph().inverse() : wga.getCompactGraph(),
+                () -> wga.floydWarshall(inverse));
+    }
 }
@@ -0,0 +1,74 @@
+package me.shailesh.wordgraph.service;
+
+import lombok.extern.slf4j.Slf4j;
+import me.shailesh.wordgraph.core.CompactWordGraph;
+import me.shailesh.wordgraph.model.WordGraph;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rewrite word graphs stored with an adjacency list to store the compact graph instead. Word graphs in either form
+ * can be read, so the migration can run at any time, and can be stopped and run again.
+ */
+@Slf4j
+@Component
+public class WordGraphStorageMigration implements ApplicationRunner {
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean migrateOnStartup;
+
+    public WordGraphStorageMigration(MongoTemplate mongoTemplate,
+                                     @Value("${wordgraph.storage.migrate-on-startup:false}") boolean migrateOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (migrateOnStartup) {
+            migrate();
+        }
+    }
+
+    /**
+     * @return the number of word graphs migrated
+     */
+    public long migrate() {
+        Query query = new Query(Criteria.where("adjacencyList").exists(true).and("compactGraph").exists(false));
+        query.fields().include("id").include("adjacencyList");
+        long migrated = 0;
+        BulkOperations updates = null;
+        int batched = 0;
+        try (var wordGraphs = mongoTemplate.stream(query, WordGraph.class)) {
+            var iterator = wordGraphs.iterator();
+            while (iterator.hasNext()) {
+                WordGraph wordGraph = iterator.next();
+                if (updates == null) {
+                    updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WordGraph.class);
+                }
+                Update update = new Update()
+                        .set("compactGraph", CompactWordGraph.of(wordGraph.getAdjacencyList()))
+                        .unset("adjacencyList");
+                updates.updateOne(new Query(Criteria.where("id").is(wordGraph.getId())), update);
+                if (++batched == BATCH_SIZE) {
+                    migrated += updates.execute().getModifiedCount();
+                    updates = null;
+                    batched = 0;
+                }
+            }
+        }
+        if (updates != null) {
+            migrated += updates.execute().getModifiedCount();
+        }
+        log.info("Migrated {} word graphs to the compact graph", migrated);
+        return migrated;
+    }
+}
@@ -0,0 +1,79 @@
+package me.shailesh.wordgraph.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringLruCacheTests {
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntriesToFitTheSizeBound() {
+		var cache = new ExpiringLruCache<String, String>(10, Duration.ofHours(1), value -> value.length());
+		cache.put("a", "aaaa");
+		cache.put("b", "bbbb");
+		assertEquals("aaaa", cache.get("a"));
+		cache.put("c", "cccc");
+		assertEquals("aaaa", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("cccc", cache.get("c"));
+
+		var stats = cache.getStats();
+		assertEquals(3, stats.getHits());
+		assertEquals(1, stats.getMisses());
+		assertEquals(1, stats.getEvictions());
+		assertEquals(2, stats.getSize());
+		assertEquals(8, stats.getEstimatedBytes());
+		assertEquals(0.75, stats.getHitRate());
+	}
+
+	@Test
+	void doesNotAddValuesLargerThanTheCache() {
+		var cache = new ExpiringLruCache<String, String>(3, Duration.ofHours(1), value -> value.length());
+		cache.put("a", "aa");
+		cache.put("b", "bbbb");
+		assertEquals("aa", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals(2, cache.getStats().getEstimatedBytes());
+	}
+
+	@Test
+	void expiresEntriesAfterTheTtl() {
+		var now = new AtomicLong();
+		var cache = new ExpiringLruCache<String, String>(100, Duration.ofNanos(10), value -> value.length(), now::get);
+		cache.put("a", "aa");
+		now.set(9);
+		assertEquals("aa", cache.get("a"));
+		now.set(10);
+		assertNull(cache.get("a"));
+		var stats = cache.getStats();
+		assertEquals(1, stats.getEvictions());
+		assertEquals(0, stats.getSize());
+		assertEquals(0, stats.getEstimatedBytes());
+	}
+
+	@Test
+	void loadsOnlyOnAMissAndDoesNotCacheNull() {
+		var cache = new ExpiringLruCache<String, String>(100, Duration.ofHours(1), value -> value.length());
+		var loads = new AtomicInteger();
+		assertEquals("a!", cache.get("a", key -> key + "!".repeat(loads.incrementAndGet())));
+		assertEquals("a!", cache.get("a", key -> key + "!".repeat(loads.incrementAndGet())));
+		assertEquals(1, loads.get());
+		assertNull(cache.get("missing", key -> null));
+		assertEquals(1, cache.getStats().getSize());
+	}
+
+	@Test
+	void replacingAnEntryUpdatesItsSize() {
+		var cache = new ExpiringLruCache<String, String>(100, Duration.ofHours(1), value -> value.length());
+		cache.put("a", "aaaa");
+		cache.put("a", "aa");
+		assertEquals(2, cache.getStats().getEstimatedBytes());
+		cache.invalidate("a");
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.getStats().getEstimatedBytes());
+	}
+}
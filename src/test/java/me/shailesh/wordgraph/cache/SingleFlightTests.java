@@ -0,0 +1,96 @@
+package me.shailesh.wordgraph.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+
+	@Test
+	void concurrentCallersOfTheSameKeyShareOneCall() throws Exception {
+		var singleFlight = new SingleFlight<String, Object>();
+		var calls = new AtomicInteger();
+		var release = new CountDownLatch(1);
+		Supplier<Object> call = () -> {
+			calls.incrementAndGet();
+			await(release);
+			return new Object();
+		};
+		int callers = 8;
+		var results = new AtomicReferenceArray<Object>(callers);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			int caller = i;
+			threads.add(Thread.ofPlatform().start(() -> results.set(caller, singleFlight.execute("hash", call))));
+		}
+		// Every caller is parked, either in the call or waiting for it
+		awaitParked(threads);
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join(10_000);
+		}
+		assertEquals(1, calls.get());
+		for (int i = 0; i < callers; i++) {
+			assertNotNull(results.get(i));
+			assertSame(results.get(0), results.get(i));
+		}
+		assertEquals(0, singleFlight.getRunningCount());
+	}
+
+	@Test
+	void waitingCallersGetTheExceptionOfTheCall() throws Exception {
+		var singleFlight = new SingleFlight<String, String>();
+		var release = new CountDownLatch(1);
+		Supplier<String> call = () -> {
+			await(release);
+			throw new IllegalStateException("failed");
+		};
+		var exceptions = new AtomicReferenceArray<RuntimeException>(2);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			int caller = i;
+			threads.add(Thread.ofPlatform().start(() -> {
+				try {
+					singleFlight.execute("hash", call);
+				} catch (RuntimeException e) {
+					exceptions.set(caller, e);
+				}
+			}));
+		}
+		awaitParked(threads);
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join(10_000);
+		}
+		assertInstanceOf(IllegalStateException.class, exceptions.get(0));
+		assertSame(exceptions.get(0), exceptions.get(1));
+		// A failed call is not remembered
+		assertEquals("again", singleFlight.execute("hash", () -> "again"));
+	}
+
+	private static void awaitParked(List<Thread> threads) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		for (Thread thread : threads) {
+			while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+				assertTrue(System.nanoTime() < deadline, "caller never waited");
+				Thread.sleep(1);
+			}
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(10, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
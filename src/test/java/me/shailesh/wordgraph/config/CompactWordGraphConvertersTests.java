@@ -0,0 +1,75 @@
+package me.shailesh.wordgraph.config;
+
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.WordGraph;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactWordGraphConvertersTests {
+
+	static MappingMongoConverter createConverter() {
+		var conversions = new MongoConfig().mongoCustomConversions();
+		var mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		mappingContext.setInitialEntitySet(Set.of(WordGraph.class));
+		mappingContext.afterPropertiesSet();
+		var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		return converter;
+	}
+
+	// Write the word graph as the driver would send it, and read it back as the driver would return it
+	static RawBsonDocument write(MappingMongoConverter converter, WordGraph wordGraph) {
+		var document = new Document();
+		converter.write(wordGraph, document);
+		return new RawBsonDocument(document, new DocumentCodec());
+	}
+
+	static WordGraph read(MappingMongoConverter converter, RawBsonDocument bson) {
+		return converter.read(WordGraph.class, bson.decode(new DocumentCodec()));
+	}
+
+	@Test
+	void storesTheGraphAsBinaryAndReadsItBack() {
+		var converter = createConverter();
+		var wga = new WordGraphAnalysis(generateText(new Random(51), 20_000, 1_000), 100);
+		var wordGraph = WordGraph.builder().hash("hash").compactGraph(wga.getCompactGraph()).wordCount(wga.getV()).build();
+		var bson = write(converter, wordGraph);
+		assertEquals(BsonType.BINARY, bson.get("compactGraph").getBsonType());
+
+		var read = read(converter, bson);
+		assertEquals(wga.getAdjacencyList(), read.getCompactGraph().toAdjacencyList());
+		assertNull(read.getAdjacencyList());
+	}
+
+	@Test
+	void storesTheCompactGraphInFewerBytes() {
+		var converter = createConverter();
+		var wga = new WordGraphAnalysis(generateText(new Random(52), 50_000, 2_000), 100);
+		var legacy = write(converter, WordGraph.builder().adjacencyList(wga.getAdjacencyList()).build());
+		var compact = write(converter, WordGraph.builder().compactGraph(wga.getCompactGraph()).build());
+		assertTrue(compact.getByteBuffer().remaining() < legacy.getByteBuffer().remaining());
+	}
+
+	static String generateText(Random random, int wordCount, int vocabularySize) {
+		var text = new StringBuilder();
+		for (int i = 0; i < wordCount; i++) {
+			text.append('w').append((int) Math.pow(vocabularySize, random.nextDouble()));
+			text.append(random.nextInt(12) == 0 ? ". " : " ");
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,149 @@
+package me.shailesh.wordgraph.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.shailesh.wordgraph.config.BatchProperties;
+import me.shailesh.wordgraph.model.WordGraphCreateDto;
+import me.shailesh.wordgraph.model.WordGraphDetailDto;
+import me.shailesh.wordgraph.model.WordGraphDto;
+import me.shailesh.wordgraph.model.WordGraphPage;
+import me.shailesh.wordgraph.service.FileIngestionDisabledException;
+import me.shailesh.wordgraph.service.WordGraphService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedFileSystemException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class WordGraphControllerTests {
+
+	private final WordGraphService wordGraphService = mock(WordGraphService.class);
+	private final BatchProperties batchProperties = new BatchProperties();
+	private final WordGraphController controller = new WordGraphController(wordGraphService, new ObjectMapper(), batchProperties);
+
+	@Test
+	void refusesAWordGraphThatCanNotBeBuiltWithTheReason() {
+		var wordGraphCreate = WordGraphCreateDto.builder().text("a b c").largeGraph(true).build();
+		when(wordGraphService.createWordGraph(wordGraphCreate)).thenThrow(new IllegalArgumentException("A sentence has too many words"));
+
+		var response = controller.createWordGraph(wordGraphCreate);
+		assertEquals(400, response.getStatusCode().value());
+		assertEquals("A sentence has too many words", response.getBody().getErrorMessage());
+	}
+
+	@Test
+	void refusesAStreamedTextThatCanNotBeTokenizedWithTheReason() throws Exception {
+		var text = new ByteArrayInputStream("fox".getBytes(StandardCharsets.UTF_8));
+		when(wordGraphService.createWordGraph(text, 0)).thenThrow(new IllegalArgumentException("The text has more than 16 characters without whitespace"));
+
+		var response = controller.createWordGraphFromStream(text, 0);
+		assertEquals(400, response.getStatusCode().value());
+		assertEquals("The text has more than 16 characters without whitespace", response.getBody().getErrorMessage());
+	}
+
+	@Test
+	void returnsTheNextCursorInAHeaderUntilTheLastPage() {
+		var wordGraph = WordGraphDto.builder().id("65f0c0ffee0000000000000a").build();
+		when(wordGraphService.getWordGraphs(null, 1)).thenReturn(new WordGraphPage(List.of(wordGraph), wordGraph.getId()));
+		when(wordGraphService.getWordGraphs(wordGraph.getId(), 1)).thenReturn(new WordGraphPage(List.of(), null));
+
+		var firstPage = controller.fetchAllWordGraphs(null, 1);
+		assertEquals(wordGraph.getId(), firstPage.getHeaders().getFirst("X-Next-Cursor"));
+		assertEquals(List.of(wordGraph), firstPage.getBody());
+		assertFalse(controller.fetchAllWordGraphs(wordGraph.getId(), 1).getHeaders().containsKey("X-Next-Cursor"));
+	}
+
+	@Test
+	void refusesAnInvalidCursor() {
+		when(wordGraphService.getWordGraphs("not-an-id", null)).thenThrow(new IllegalArgumentException("Invalid cursor: not-an-id"));
+
+		assertEquals(400, controller.fetchAllWordGraphs("not-an-id", null).getStatusCode().value());
+		assertEquals(400, controller.streamAllWordGraphs("not-an-id").getStatusCode().value());
+		verify(wordGraphService, never()).streamWordGraphs(any());
+	}
+
+	@Test
+	void refusesAnNdjsonBatchOnceItHasTooManyWordGraphsWithoutReadingTheRest() throws Exception {
+		batchProperties.setMaxSize(3);
+		var body = new EndlessNdjson("{\"text\": \"the quick brown fox\"}\n");
+
+		var response = controller.createWordGraphsFromNdjson(body);
+		assertEquals(400, response.getStatusCode().value());
+		assertEquals("A batch can have at most 3 word graphs", ((WordGraphDetailDto) response.getBody()).getErrorMessage());
+		verifyNoInteractions(wordGraphService);
+	}
+
+	@Test
+	void refusesAnNdjsonBatchOnceItHasTooMuchText() throws Exception {
+		batchProperties.setMaxTextLength(1_000);
+		var body = new EndlessNdjson("{\"text\": \"" + "fox ".repeat(100) + "\"}\n");
+
+		var response = controller.createWordGraphsFromNdjson(body);
+		assertEquals(400, response.getStatusCode().value());
+		assertEquals("A batch can have at most 1000 characters of text", ((WordGraphDetailDto) response.getBody()).getErrorMessage());
+		verifyNoInteractions(wordGraphService);
+	}
+
+	@Test
+	void refusesABatchOrFileWithTheReason() throws Exception {
+		when(wordGraphService.createWordGraphs(anyList())).thenThrow(new IllegalArgumentException("A batch can have at most 1000 word graphs"));
+		when(wordGraphService.createWordGraphFromFile("missing", 0)).thenThrow(new IllegalArgumentException("Path is not a file under the allowed root"));
+		when(wordGraphService.createWordGraphFromFile("disabled", 0)).thenThrow(new FileIngestionDisabledException("File ingestion is not enabled"));
+
+		var batch = controller.createWordGraphs(List.of());
+		assertEquals(400, batch.getStatusCode().value());
+		assertEquals("A batch can have at most 1000 word graphs", ((WordGraphDetailDto) batch.getBody()).getErrorMessage());
+		var invalid = controller.createWordGraphsFromNdjson(new ByteArrayInputStream("{\"text\": ".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(400, invalid.getStatusCode().value());
+		assertNotNull(((WordGraphDetailDto) invalid.getBody()).getErrorMessage());
+		var file = controller.createWordGraphFromFile("missing", 0);
+		assertEquals(400, file.getStatusCode().value());
+		assertEquals("Path is not a file under the allowed root", file.getBody().getErrorMessage());
+		var disabled = controller.createWordGraphFromFile("disabled", 0);
+		assertEquals(403, disabled.getStatusCode().value());
+		assertEquals("File ingestion is not enabled", disabled.getBody().getErrorMessage());
+		// Any other failure to read the file is not mistaken for ingestion being disabled
+		when(wordGraphService.createWordGraphFromFile("closed", 0)).thenThrow(new ClosedFileSystemException());
+		assertThrows(ClosedFileSystemException.class, () -> controller.createWordGraphFromFile("closed", 0));
+	}
+
+	@Test
+	void createsAnNdjsonBatchWithinTheLimits() throws Exception {
+		batchProperties.setMaxSize(2);
+		when(wordGraphService.createWordGraphs(anyList())).thenReturn(List.of());
+		var body = "{\"text\": \"a b\"}\n{\"text\": \"c d\"}\n".getBytes(StandardCharsets.UTF_8);
+
+		assertEquals(200, controller.createWordGraphsFromNdjson(new ByteArrayInputStream(body)).getStatusCode().value());
+		verify(wordGraphService).createWordGraphs(argThat(batch -> batch.size() == 2));
+	}
+
+	/**
+	 * The same line over and over, which fails once far more of it is read than any limit allows.
+	 */
+	private static class EndlessNdjson extends InputStream {
+		private static final int MAX_READ = 1 << 20;
+		private final byte[] line;
+		private int read = 0;
+
+		EndlessNdjson(String line) {
+			this.line = line.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public int read() {
+			if (read == MAX_READ) {
+				throw new IllegalStateException("The whole body was read");
+			}
+			return line[read++ % line.length];
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllPairsShortestPathsTests {
+
+	@Test
+	void blockedFloydWarshallMatchesTheReferenceAcrossSeveralBlocks() {
+		var wga = CompactWordGraphTests.generateGraph(new Random(31), 300, 4);
+		var reference = new ReferenceGraphAlgorithms(wga.getAdjacencyList());
+		for (boolean inverse : new boolean[]{false, true}) {
+			Map<String, SingleSourceShortestPath> expected = new HashMap<>();
+			reference.floydWarshallShortestPaths(inverse).forEach(paths -> expected.put(paths.getSource(), paths));
+			var allPairs = wga.floydWarshall(inverse);
+			for (var paths : allPairs.getSingleSourceShortestPaths()) {
+				CompactWordGraphTests.assertSameShortestPaths(wga, inverse, expected.get(paths.getSource()), paths);
+				assertEquals(paths, allPairs.getSingleSourceShortestPath(paths.getSource()));
+			}
+			var matrix = allPairs.getDistanceMatrix();
+			for (int i = 0; i < matrix.getVertices().size(); i++) {
+				var paths = expected.get(matrix.getVertices().get(i)).getShortestPaths();
+				assertEquals(0.0, matrix.getDistances()[i][i]);
+				for (int j = 0; j < matrix.getVertices().size(); j++) {
+					if (i != j) {
+						assertEquals(paths.get(matrix.getVertices().get(j)).getWeight(), matrix.getDistances()[i][j], 1e-9);
+					}
+				}
+			}
+			assertNull(allPairs.getSingleSourceShortestPath("not-a-word"));
+		}
+	}
+
+	@Test
+	void unreachablePairsHaveNoPath() {
+		var wga = new WordGraphAnalysis("a b. c d", 0);
+		var paths = wga.floydWarshall(false).getSingleSourceShortestPath("a").getShortestPaths();
+		assertEquals(Double.MAX_VALUE, paths.get("c").getWeight());
+		assertNull(paths.get("c").getPath());
+		assertEquals(1.0, paths.get("b").getWeight());
+	}
+
+	@Test
+	void restoresTheSameShortestPathsFromBytes() {
+		var wga = new WordGraphAnalysis("a b c. a b. b c. d e", 0);
+		var allPairs = wga.floydWarshall(true);
+		var restored = AllPairsShortestPaths.fromBytes(wga.getCompactGraph().inverse(), allPairs.toBytes());
+		assertEquals(allPairs.getSingleSourceShortestPaths(), restored.getSingleSourceShortestPaths());
+		assertArrayEquals(allPairs.getDistanceMatrix().getDistances(), restored.getDistanceMatrix().getDistances());
+		var otherGraph = new WordGraphAnalysis("a b", 0).getCompactGraph();
+		assertThrows(IllegalArgumentException.class, () -> AllPairsShortestPaths.fromBytes(otherGraph, allPairs.toBytes()));
+	}
+
+	@Test
+	void refusesAGraphWhoseMatricesDoNotFitInAnArray() {
+		// More vertices than MAX_VERTICES, with no edges, so the graph is small but its matrices would not be
+		var words = new StringBuilder();
+		for (int i = 0; i <= AllPairsShortestPaths.MAX_VERTICES; i++) {
+			words.append('w').append(i).append(". ");
+		}
+		var graph = new WordGraphAnalysis(words.toString(), AllPairsShortestPaths.MAX_VERTICES + 1, AnalysisOptions.builder().largeGraph(true).build()).getCompactGraph();
+		assertTrue(graph.getVertexCount() > AllPairsShortestPaths.MAX_VERTICES);
+		assertThrows(IllegalArgumentException.class, () -> AllPairsShortestPaths.floydWarshall(graph));
+		assertThrows(IllegalArgumentException.class, () -> AllPairsShortestPaths.fromBytes(graph, new byte[4]));
+	}
+}
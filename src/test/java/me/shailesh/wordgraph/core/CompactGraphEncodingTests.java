@@ -0,0 +1,59 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGraphEncodingTests {
+
+	@Test
+	void decodesTheSameGraphInTheSameOrder() {
+		for (var wga : CompactWordGraphTests.graphs()) {
+			var graph = wga.getCompactGraph();
+			var decoded = CompactGraphEncoding.decode(CompactGraphEncoding.encode(graph));
+			assertEquals(graph.toAdjacencyList(), decoded.toAdjacencyList());
+			assertEquals(wga.getAdjacencyList(), decoded.toAdjacencyList());
+			for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+				assertEquals(graph.getWord(vertex), decoded.getWord(vertex));
+				assertEquals(vertex, decoded.getId(graph.getWord(vertex)));
+			}
+			// The traversals depend on the order of the edges
+			var decodedWga = WordGraphAnalysis.builder().adjacencyList(decoded.toAdjacencyList()).build();
+			for (String start : wga.getAdjacencyList().keySet()) {
+				assertEquals(wga.bfs(start), decodedWga.bfs(start));
+				assertEquals(wga.dfs(start), decodedWga.dfs(start));
+			}
+		}
+	}
+
+	@Test
+	void keepsFractionalWeightsExactly() {
+		var graph = CompactWordGraphTests.generateGraph(new Random(41), 200, 6).getCompactGraph().inverse();
+		var decoded = CompactGraphEncoding.decode(CompactGraphEncoding.encode(graph));
+		for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+			assertEquals(graph.getTarget(edge), decoded.getTarget(edge));
+			assertEquals(graph.getWeight(edge), decoded.getWeight(edge));
+		}
+	}
+
+	@Test
+	void keepsWordsOutsideAscii() {
+		var wga = new WordGraphAnalysis("a b", 0);
+		var adjacencyList = wga.getAdjacencyList();
+		adjacencyList.put("café", new ArrayList<>());
+		var graph = CompactWordGraph.of(adjacencyList);
+		assertEquals(graph.toAdjacencyList(), CompactGraphEncoding.decode(CompactGraphEncoding.encode(graph)).toAdjacencyList());
+	}
+
+	@Test
+	void rejectsInvalidEncodings() {
+		var bytes = CompactGraphEncoding.encode(CompactWordGraphTests.graphs().getLast().getCompactGraph());
+		assertThrows(IllegalArgumentException.class, () -> CompactGraphEncoding.decode(Arrays.copyOf(bytes, bytes.length - 1)));
+		assertThrows(IllegalArgumentException.class, () -> CompactGraphEncoding.decode(new byte[]{2, 0, 0}));
+		assertThrows(IllegalArgumentException.class, () -> CompactGraphEncoding.decode(new byte[0]));
+	}
+}
@@ -0,0 +1,224 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactWordGraphTests {
+
+	private static final double DELTA = 1e-9;
+
+	static List<WordGraphAnalysis> graphs() {
+		return List.of(
+				new WordGraphAnalysis(WordGraphAnalysisTests.generateCorpus(new Random(11), 3_000, 200), 100),
+				new WordGraphAnalysis(WordGraphAnalysisTests.generateZipfCorpus(new Random(12), 3_000, 2_000), 60),
+				new WordGraphAnalysis("the quick brown fox. the lazy dog! the fox and the dog? a fox", 0)
+		);
+	}
+
+	@Test
+	void buildsTheSameGraphAsTheAdjacencyList() {
+		var wga = graphs().getFirst();
+		var graph = wga.getCompactGraph();
+		assertEquals(wga.getV(), graph.getVertexCount());
+		assertEquals(wga.getE(), graph.getEdgeCount());
+		assertEquals(-1, graph.getId("not-a-word"));
+		wga.getAdjacencyList().forEach((word, edges) -> {
+			int vertex = graph.getId(word);
+			assertEquals(word, graph.getWord(vertex));
+			assertEquals(edges.size(), graph.getEdgeEnd(vertex) - graph.getEdgeStart(vertex));
+			for (int i = 0; i < edges.size(); i++) {
+				assertEquals(edges.get(i).getTo(), graph.getWord(graph.getTarget(graph.getEdgeStart(vertex) + i)));
+				assertEquals(edges.get(i).getWeight(), graph.getWeight(graph.getEdgeStart(vertex) + i));
+			}
+		});
+	}
+
+	@Test
+	void traversalsMatchTheReference() {
+		for (var wga : graphs()) {
+			var reference = new ReferenceGraphAlgorithms(wga.getAdjacencyList());
+			for (String start : wga.getAdjacencyList().keySet()) {
+				assertEquals(reference.bfs(start), wga.bfs(start));
+				assertEquals(reference.dfs(start), wga.dfs(start));
+			}
+			assertNull(wga.bfs("not-a-word"));
+			assertNull(wga.dfs("not-a-word"));
+		}
+	}
+
+	@Test
+	void spanningTreesMatchTheReference() {
+		for (var wga : graphs()) {
+			var reference = new ReferenceGraphAlgorithms(wga.getAdjacencyList());
+			assertSpanningForest(wga, reference.kruskalsMst().getWeight(), wga.kruskalsMst());
+			assertSpanningForest(wga, reference.kruskalsMstMax().getWeight(), wga.kruskalsMstMax());
+			if (isConnected(wga)) {
+				assertSpanningTree(wga, reference.primsMst().getWeight(), wga.primsMst());
+				assertSpanningTree(wga, reference.primsMstMax().getWeight(), wga.primsMstMax());
+			}
+		}
+	}
+
+	@Test
+	void spanningTreesOfADisconnectedGraphAreSpanningForests() {
+		var wga = new WordGraphAnalysis("a b c. a b. b c. d e. d e. d f. e f", 0);
+		assertSpanningForest(wga, 5.0, wga.kruskalsMst());
+		assertSpanningForest(wga, 7.0, wga.kruskalsMstMax());
+		var mst = wga.primsMst();
+		assertSpanningTree(wga, wga.kruskalsMst().getWeight(), mst);
+		assertEquals(5.0, mst.getWeight());
+		var mstMax = wga.primsMstMax();
+		assertSpanningTree(wga, wga.kruskalsMstMax().getWeight(), mstMax);
+		assertEquals(7.0, mstMax.getWeight());
+	}
+
+	/**
+	 * Spanning trees may differ between implementations when edges have the same weight, so the tree is checked to
+	 * be a spanning forest of the graph with the expected weight rather than to be the same tree.
+	 */
+	static void assertSpanningTree(WordGraphAnalysis wga, double expectedWeight, SpanningTree mst) {
+		assertEquals(expectedWeight, mst.getWeight(), DELTA);
+		assertEquals(wga.getAdjacencyList().keySet(), mst.getAdjacencyList().keySet());
+		int roots = 0;
+		for (var entry : mst.getAdjacencyList().entrySet()) {
+			Edge parentEdge = entry.getValue().getFirst();
+			if (parentEdge.getTo().isEmpty()) {
+				roots++;
+				assertEquals(0.0, parentEdge.getWeight());
+				continue;
+			}
+			assertEquals(getEdgeWeight(wga, entry.getKey(), parentEdge.getTo(), false), parentEdge.getWeight());
+			// Following the parents always ends at a root
+			String vertex = entry.getKey();
+			for (int steps = 0; !vertex.isEmpty(); steps++) {
+				assertTrue(steps <= wga.getV(), "cycle through " + entry.getKey());
+				vertex = mst.getAdjacencyList().get(vertex).getFirst().getTo();
+			}
+		}
+		assertEquals(countComponents(wga), roots);
+	}
+
+	/**
+	 * Kruskal's spanning trees keep the accepted edges in the edge list of one of their endpoints, so the edges are
+	 * checked to be edges of the graph that join all the vertices of every component without a cycle.
+	 */
+	static void assertSpanningForest(WordGraphAnalysis wga, double expectedWeight, SpanningTree mst) {
+		assertEquals(expectedWeight, mst.getWeight(), DELTA);
+		assertEquals(wga.getAdjacencyList().keySet(), mst.getAdjacencyList().keySet());
+		var graph = wga.getCompactGraph();
+		var components = new UnionFind(graph.getVertexCount());
+		int edges = 0;
+		for (var entry : mst.getAdjacencyList().entrySet()) {
+			for (Edge edge : entry.getValue()) {
+				assertEquals(getEdgeWeight(wga, entry.getKey(), edge.getTo(), false), edge.getWeight());
+				assertTrue(components.union(graph.getId(entry.getKey()), graph.getId(edge.getTo())), "cycle through " + entry.getKey());
+				edges++;
+			}
+		}
+		assertEquals(wga.getV() - countComponents(wga), edges);
+	}
+
+	private static int countComponents(WordGraphAnalysis wga) {
+		Set<String> visited = new HashSet<>();
+		int components = 0;
+		for (String word : wga.getAdjacencyList().keySet()) {
+			if (visited.add(word)) {
+				components++;
+				visited.addAll(wga.bfs(word).getPath());
+			}
+		}
+		return components;
+	}
+
+	@Test
+	void shortestPathsMatchTheReference() {
+		for (var wga : graphs()) {
+			var reference = new ReferenceGraphAlgorithms(wga.getAdjacencyList());
+			for (boolean inverse : new boolean[]{false, true}) {
+				for (String source : wga.getAdjacencyList().keySet()) {
+					assertSameShortestPaths(wga, inverse, reference.dijkstraShortestPath(source, inverse), wga.dijkstraShortestPath(source, inverse));
+				}
+				assertSameShortestPaths(wga, inverse, reference.dijkstraShortestPath("not-a-word", inverse), wga.dijkstraShortestPath("not-a-word", inverse));
+
+				Map<String, SingleSourceShortestPath> expected = new HashMap<>();
+				reference.floydWarshallShortestPaths(inverse).forEach(paths -> expected.put(paths.getSource(), paths));
+				var actual = wga.floydWarshallShortestPaths(inverse);
+				assertEquals(expected.size(), actual.size());
+				for (var paths : actual) {
+					assertSameShortestPaths(wga, inverse, expected.get(paths.getSource()), paths);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shortest paths may differ between implementations when there are ties, so the paths are checked to be valid
+	 * paths of the same length rather than to be the same paths.
+	 */
+	static void assertSameShortestPaths(WordGraphAnalysis wga, boolean inverse, SingleSourceShortestPath expected, SingleSourceShortestPath actual) {
+		assertEquals(expected.getSource(), actual.getSource());
+		assertEquals(expected.getShortestPaths().keySet(), actual.getShortestPaths().keySet());
+		expected.getShortestPaths().forEach((target, expectedPath) -> {
+			Path actualPath = actual.getShortestPaths().get(target);
+			assertEquals(expectedPath.getWeight(), actualPath.getWeight(), DELTA, target);
+			if (expectedPath.getWeight() == Double.MAX_VALUE) {
+				assertEquals(expectedPath.getPath(), actualPath.getPath());
+				return;
+			}
+			List<String> path = actualPath.getPath();
+			assertEquals(actual.getSource(), path.getFirst());
+			assertEquals(target, path.getLast());
+			double weight = 0.0;
+			for (int i = 1; i < path.size(); i++) {
+				weight += getEdgeWeight(wga, path.get(i - 1), path.get(i), inverse);
+			}
+			assertEquals(expectedPath.getWeight(), weight, DELTA, target);
+		});
+	}
+
+	private static double getEdgeWeight(WordGraphAnalysis wga, String from, String to, boolean inverse) {
+		// The graph is undirected, so the inverse edge has the same endpoints
+		for (Edge edge : wga.getAdjacencyList().get(from)) {
+			if (edge.getTo().equals(to)) {
+				return inverse ? 1.0 / edge.getWeight() : edge.getWeight();
+			}
+		}
+		return fail("No edge from " + from + " to " + to);
+	}
+
+	/**
+	 * Generate a random undirected graph where every vertex has edges to about {@code degree} other vertices.
+	 */
+	static WordGraphAnalysis generateGraph(Random random, int vertexCount, int degree) {
+		Map<String, List<Edge>> adjacencyList = new HashMap<>();
+		for (int i = 0; i < vertexCount; i++) {
+			adjacencyList.put("w" + i, new ArrayList<>());
+		}
+		Set<Long> pairs = new HashSet<>();
+		for (int i = 0; i < vertexCount; i++) {
+			for (int d = 0; d < degree / 2; d++) {
+				// Connect every vertex to the previous one so the graph is connected
+				int j = d == 0 && i > 0 ? i - 1 : random.nextInt(vertexCount);
+				if (i == j || !pairs.add((long) Math.min(i, j) * vertexCount + Math.max(i, j))) {
+					continue;
+				}
+				double weight = 1 + random.nextInt(20);
+				adjacencyList.get("w" + i).add(new Edge("w" + j, weight));
+				adjacencyList.get("w" + j).add(new Edge("w" + i, weight));
+			}
+		}
+		return WordGraphAnalysis.builder()
+				.v(vertexCount)
+				.e(pairs.size() * 2)
+				.adjacencyList(adjacencyList)
+				.build();
+	}
+
+	static boolean isConnected(WordGraphAnalysis wga) {
+		var start = wga.getAdjacencyList().keySet().iterator().next();
+		return wga.bfs(start).getPath().size() == wga.getV();
+	}
+}
@@ -0,0 +1,108 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusCountsTests {
+
+	@Test
+	void snapshotOfTheCountsOfEveryDocumentIsTheGraphOfTheWholeCorpus() {
+		var random = new Random(17);
+		List<String> documents = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			documents.add(WordGraphAnalysisTests.generateCorpus(random, 300, 80));
+		}
+		// Every document ends a sentence, so no sentence spans two documents
+		var expected = new WordGraphAnalysis(String.join(". ", documents), 0);
+
+		var snapshot = count(documents).snapshot(0);
+		assertEquals(expected.getV(), snapshot.getV());
+		assertEquals(expected.getE(), snapshot.getE());
+		assertEquals(expected.getWordFrequencies(), snapshot.getWordFrequencies());
+		assertEquals(getEdges(expected), getEdges(snapshot));
+	}
+
+	@Test
+	void snapshotsKeepTheMostFrequentWords() {
+		var random = new Random(18);
+		List<String> documents = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			documents.add(WordGraphAnalysisTests.generateZipfCorpus(random, 500, 1_000));
+
+			// Words with the same frequency may be chosen differently, but not their frequencies
+			var expected = new WordGraphAnalysis(String.join(". ", documents), 30);
+			var pairCounts = sum(documents, CorpusDelta::getPairCounts);
+			var snapshot = new CorpusCounts(rank(sum(documents, CorpusDelta::getWordCounts)), pairCounts).snapshot(30);
+			assertEquals(sortedFrequencies(expected), sortedFrequencies(snapshot));
+			for (var edges : snapshot.getAdjacencyList().entrySet()) {
+				for (Edge edge : edges.getValue()) {
+					assertEquals(pairCounts.get(CorpusDelta.getPairKey(edges.getKey(), edge.getTo())).doubleValue(), edge.getWeight());
+				}
+			}
+		}
+	}
+
+	@Test
+	void countsWordsAndTheSentencesTheyAppearTogetherIn() {
+		var delta = CorpusDelta.of("The fox and the dog. The dog! A fox");
+		assertEquals(Map.of("the", 3L, "fox", 2L, "and", 1L, "dog", 2L, "a", 1L), delta.getWordCounts());
+		assertEquals(2L, delta.getPairCounts().get("dog|the"));
+		assertEquals(1L, delta.getPairCounts().get("a|fox"));
+		assertNull(delta.getPairCounts().get("the|the"));
+		assertEquals(9, delta.getTokenCount());
+
+		var snapshot = count(List.of("The fox and the dog. The dog! A fox", "the dog")).snapshot(3);
+		assertEquals(List.of("the", "dog", "fox"), new ArrayList<>(snapshot.getAdjacencyList().keySet()));
+		assertEquals(4, snapshot.getWordFrequencies().get("the"));
+		assertEquals(List.of(new Edge("dog", 3), new Edge("fox", 1)), snapshot.getAdjacencyList().get("the"));
+	}
+
+	@Test
+	void refusesDocumentsWithTooManyPairsOrWordsInASentence() {
+		assertEquals(3, CorpusDelta.of("a b c", 3).getPairCounts().size());
+		assertThrows(IllegalArgumentException.class, () -> CorpusDelta.of("a b c d", 3));
+		var sentence = new StringBuilder();
+		for (int i = 0; i <= WordGraphAnalysis.MAX_SENTENCE_WORDS; i++) {
+			sentence.append('w').append(i).append(' ');
+		}
+		assertThrows(IllegalArgumentException.class, () -> CorpusDelta.of(sentence.toString(), Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Count the documents, and rank the words as they are read from storage.
+	 */
+	private static CorpusCounts count(List<String> documents) {
+		return new CorpusCounts(rank(sum(documents, CorpusDelta::getWordCounts)), sum(documents, CorpusDelta::getPairCounts));
+	}
+
+	private static Map<String, Long> sum(List<String> documents, Function<CorpusDelta, Map<String, Long>> counts) {
+		Map<String, Long> sum = new HashMap<>();
+		for (String document : documents) {
+			counts.apply(CorpusDelta.of(document)).forEach((key, count) -> sum.merge(key, count, Long::sum));
+		}
+		return sum;
+	}
+
+	private static Map<String, Long> rank(Map<String, Long> wordCounts) {
+		Map<String, Long> ranked = new LinkedHashMap<>();
+		wordCounts.entrySet().stream()
+				.sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+				.forEach(word -> ranked.put(word.getKey(), word.getValue()));
+		return ranked;
+	}
+
+	private static Set<List<Object>> getEdges(WordGraphAnalysis wga) {
+		Set<List<Object>> edges = new HashSet<>();
+		wga.getAdjacencyList().forEach((word, wordEdges) ->
+				wordEdges.forEach(edge -> edges.add(List.of(word, edge.getTo(), edge.getWeight()))));
+		return edges;
+	}
+
+	private static List<Integer> sortedFrequencies(WordGraphAnalysis wga) {
+		return wga.getWordFrequencies().values().stream().sorted().toList();
+	}
+}
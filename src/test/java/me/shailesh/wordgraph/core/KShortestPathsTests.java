@@ -0,0 +1,98 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KShortestPathsTests {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	void findsTheSameWeightsAsEnumeratingEverySimplePath() {
+		Random random = new Random(25);
+		for (int round = 0; round < 30; round++) {
+			var wga = CompactWordGraphTests.generateGraph(random, 9, 4);
+			for (boolean inverse : new boolean[]{false, true}) {
+				var graph = inverse ? wga.getCompactGraph().inverse() : wga.getCompactGraph();
+				String source = "w" + random.nextInt(9);
+				String target = "w" + random.nextInt(9);
+				List<Double> expected = enumerateSimplePathWeights(graph, graph.getId(source), graph.getId(target));
+				List<Path> paths = wga.yenShortestPaths(source, target, 10, inverse);
+				assertEquals(Math.min(10, expected.size()), paths.size());
+				Set<List<String>> distinct = new HashSet<>();
+				for (int i = 0; i < paths.size(); i++) {
+					Path path = paths.get(i);
+					assertEquals(expected.get(i), path.getWeight(), DELTA);
+					assertEquals(source, path.getPath().getFirst());
+					assertEquals(target, path.getPath().getLast());
+					assertEquals(path.getPath().size(), new HashSet<>(path.getPath()).size(), "loop in " + path.getPath());
+					assertEquals(path.getWeight(), getWeight(graph, path.getPath()), DELTA);
+					assertTrue(distinct.add(path.getPath()));
+				}
+			}
+		}
+	}
+
+	@Test
+	void theFirstPathIsTheDijkstraShortestPath() {
+		var wga = new WordGraphAnalysis(WordGraphAnalysisTests.generateCorpus(new Random(26), 3_000, 200), 100);
+		var tree = wga.dijkstraShortestPathTree("w0", true);
+		for (String target : List.of("w1", "w5", "w20")) {
+			var paths = wga.yenShortestPaths("w0", target, 5, true);
+			assertEquals(5, paths.size());
+			assertEquals(tree.getPath(target).getWeight(), paths.getFirst().getWeight(), DELTA);
+			for (int i = 1; i < paths.size(); i++) {
+				assertTrue(paths.get(i - 1).getWeight() <= paths.get(i).getWeight());
+			}
+		}
+	}
+
+	@Test
+	void handlesMissingUnreachableAndEqualWords() {
+		var wga = new WordGraphAnalysis("a b c. a b. d e", 0);
+		assertNull(wga.yenShortestPaths("a", "not-a-word", 3, false));
+		assertEquals(List.of(), wga.yenShortestPaths("a", "d", 3, false));
+		assertEquals(List.of(new Path(0.0, List.of("a"))), wga.yenShortestPaths("a", "a", 3, false));
+		var paths = wga.yenShortestPaths("a", "c", 3, false);
+		assertEquals(List.of(new Path(1.0, List.of("a", "c")), new Path(3.0, List.of("a", "b", "c"))), paths);
+	}
+
+	private static List<Double> enumerateSimplePathWeights(CompactWordGraph graph, int source, int target) {
+		List<Double> weights = new ArrayList<>();
+		enumerate(graph, source, target, new boolean[graph.getVertexCount()], 0.0, weights);
+		Collections.sort(weights);
+		return weights;
+	}
+
+	private static void enumerate(CompactWordGraph graph, int vertex, int target, boolean[] onPath, double weight, List<Double> weights) {
+		if (vertex == target) {
+			weights.add(weight);
+			return;
+		}
+		onPath[vertex] = true;
+		for (int edge = graph.getEdgeStart(vertex); edge < graph.getEdgeEnd(vertex); edge++) {
+			if (!onPath[graph.getTarget(edge)]) {
+				enumerate(graph, graph.getTarget(edge), target, onPath, weight + graph.getWeight(edge), weights);
+			}
+		}
+		onPath[vertex] = false;
+	}
+
+	private static double getWeight(CompactWordGraph graph, List<String> path) {
+		double weight = 0.0;
+		for (int i = 1; i < path.size(); i++) {
+			int from = graph.getId(path.get(i - 1));
+			int to = graph.getId(path.get(i));
+			int edge = graph.getEdgeStart(from);
+			while (graph.getTarget(edge) != to) {
+				edge++;
+				assertTrue(edge < graph.getEdgeEnd(from), "no edge to " + path.get(i));
+			}
+			weight += graph.getWeight(edge);
+		}
+		return weight;
+	}
+}
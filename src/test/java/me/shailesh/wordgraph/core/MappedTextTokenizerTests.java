@@ -0,0 +1,68 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedTextTokenizerTests {
+
+	private static final String TEXT = "  \n The Quick brown FOX. Jumps over\tthe lazy dog!!  Dog-house? a_b Ünïcödé ΣΟΦΟΣ straße. KELVIN\n\n  ";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void tokenizesAndHashesLikeTheStreamedText() throws Exception {
+		String corpus = TEXT + WordGraphAnalysisTests.generateCorpus(new Random(3), 2_000, 300).toUpperCase() + TEXT;
+		Path file = Files.writeString(directory.resolve("corpus.txt"), corpus);
+		for (int chunkSize : new int[]{1, 7, 64, 1 << 16}) {
+			for (long segmentSize : new long[]{5, 1000, 1L << 30}) {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				TokenizedText mapped = MappedTextTokenizer.tokenize(file, digest, chunkSize, 1 << 24, segmentSize);
+				var tokenized = StreamingTextTokenizer.tokenize(new StringReader(corpus), MessageDigest.getInstance("SHA-256"));
+				TokenizedText streamed = tokenized.tokenizedText();
+				assertArrayEquals(tokenized.digest().digest(), digest.digest());
+				assertEquals(streamed.getIds(), mapped.getIds());
+				assertEquals(toList(streamed), toList(mapped));
+			}
+		}
+	}
+
+	@Test
+	void refusesAFileWithMoreThanTheMaximumChunkWithoutWhitespace() throws Exception {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		Path words = Files.writeString(directory.resolve("words.txt"), "word ".repeat(100));
+		assertEquals(100, MappedTextTokenizer.tokenize(words, digest, 4, 16, 1000).getTokenCount());
+		Path word = Files.writeString(directory.resolve("word.txt"), "word ".repeat(100) + "w".repeat(17));
+		assertThrows(IllegalArgumentException.class, () -> MappedTextTokenizer.tokenize(word, digest, 4, 16, 1000));
+	}
+
+	@Test
+	void emptyAndBlankFilesHaveNoWords() throws Exception {
+		for (String text : new String[]{"", " \n\t "}) {
+			Path file = Files.writeString(directory.resolve("blank.txt"), text);
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			TokenizedText tokenizedText = MappedTextTokenizer.tokenize(file, digest);
+			assertEquals(0, tokenizedText.getTokenCount());
+			assertArrayEquals(MessageDigest.getInstance("SHA-256").digest("".getBytes(StandardCharsets.UTF_8)), digest.digest());
+		}
+	}
+
+	private static List<Integer> toList(TokenizedText tokenizedText) {
+		List<Integer> tokens = new ArrayList<>();
+		tokenizedText.tokens().forEachRemaining((int token) -> tokens.add(token));
+		return tokens;
+	}
+}
@@ -0,0 +1,50 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairWeightsTests {
+
+	@Test
+	void sparseWeightsMatchDenseWeights() {
+		var random = new Random(19);
+		int vertexCount = 100;
+		var dense = PairWeights.create(vertexCount, true, Integer.MAX_VALUE);
+		var sparse = PairWeights.create(vertexCount, false, Integer.MAX_VALUE);
+		for (int i = 0; i < 20_000; i++) {
+			int vertex1 = random.nextInt(vertexCount);
+			int vertex2 = random.nextInt(vertexCount);
+			if (vertex1 == vertex2) {
+				continue;
+			}
+			double weight = 1 + random.nextInt(3);
+			dense.add(vertex1, vertex2, weight);
+			// Pairs are unordered, so either order adds to the same pair
+			sparse.add(vertex2, vertex1, weight);
+		}
+		assertArrayEquals(dense.getPairs(), sparse.getPairs());
+		for (long pair : dense.getPairs()) {
+			int vertex1 = (int) (pair >>> 32);
+			int vertex2 = (int) pair;
+			assertTrue(vertex1 < vertex2);
+			assertEquals(dense.get(vertex1, vertex2), sparse.get(vertex2, vertex1));
+		}
+		assertEquals(0.0, sparse.get(vertexCount, vertexCount + 1));
+	}
+
+	@Test
+	void sparseWeightsRefuseMoreThanTheMaximumPairs() {
+		var sparse = PairWeights.create(10_000, false, 3_000);
+		for (int vertex = 1; vertex <= 3_000; vertex++) {
+			sparse.add(0, vertex, 1.0);
+		}
+		// Pairs that are already held still add up
+		sparse.add(1, 0, 1.0);
+		assertEquals(2.0, sparse.get(0, 1));
+		assertThrows(IllegalArgumentException.class, () -> sparse.add(0, 3_001, 1.0));
+		assertEquals(3_000, sparse.getPairs().length);
+	}
+}
@@ -0,0 +1,377 @@
+package me.shailesh.wordgraph.core;
+
+import java.util.*;
+
+/**
+ * The graph algorithms as they were before they moved to {@link CompactWordGraph}, kept as a reference for the
+ * results of the compact implementations.
+ */
+class ReferenceGraphAlgorithms {
+	private final Map<String, List<Edge>> adjacencyList;
+	private final int v;
+
+	ReferenceGraphAlgorithms(Map<String, List<Edge>> adjacencyList) {
+		this.adjacencyList = adjacencyList;
+		this.v = adjacencyList.size();
+	}
+
+	// Time complexity: O(V + E)
+	public Path bfs(String start) {
+		if(!adjacencyList.containsKey(start)) {
+			return null;
+		}
+		Set<String> visited = new HashSet<>();
+		Queue<String> queue = new LinkedList<>();
+		double pathWeight = 0.0;
+		List<String> bfsOrder = new LinkedList<>();
+
+		visited.add(start);
+		queue.add(start);
+		while(!queue.isEmpty()) {
+			var current = queue.poll();
+			bfsOrder.add(current);
+			for(Edge e : adjacencyList.get(current)) {
+				if(!visited.contains(e.to)) {
+					visited.add(e.to);
+					queue.add(e.to);
+					pathWeight+= e.weight;
+				}
+			}
+		}
+		return Path.builder().weight(pathWeight).path(bfsOrder).build();
+	}
+
+	// Time complexity: O(V + E)
+	public Path dfs(String start) {
+		if(!adjacencyList.containsKey(start)) {
+			return null;
+		}
+		Stack<Edge> stack = new Stack<>();
+		Set<String> visited = new HashSet<>();
+		double pathWeight = 0.0;
+		List<String> dfsOrder = new LinkedList<>();
+
+		stack.push(new Edge(start, 0.0));
+		while(!stack.isEmpty()) {
+			var current = stack.pop();
+			if(!visited.contains(current.to)) {
+				visited.add(current.to);
+				dfsOrder.add(current.to);
+				pathWeight += current.weight;
+			}
+			for(var e : adjacencyList.get(current.to)) {
+				if(!visited.contains(e.to)) {
+					stack.push(e);
+				}
+			}
+		}
+		return Path.builder().weight(pathWeight).path(dfsOrder).build();
+	}
+
+	// Time complexity: O(V^2)
+	// Can be optimized to O(VlogV + E) using a priority queue
+	public SpanningTree primsMst() {
+		SpanningTree mst = new SpanningTree();
+		Set<String> visited = new HashSet<>();
+
+		String start = "";
+		for(var vertex : adjacencyList.keySet()) {
+			mst.addVertex(vertex);
+			if(start.isEmpty()) {
+				start = vertex;
+				mst.addEdge(start, "", 0.0);
+				continue;
+			}
+			mst.addEdge(vertex, "", Double.MAX_VALUE);
+		}
+
+		for(int i = 0; i < v - 1; i++) {
+			String minVertex = getMinVertex(visited, mst);
+			visited.add(minVertex);
+			for(var edge : adjacencyList.get(minVertex)) {
+				var vertex = edge.to;
+				var weight = edge.weight;
+				if(visited.contains(vertex)) {
+					continue;
+				}
+				double weightInMst = mst.getVertexWeight(vertex);
+				if(weight >= weightInMst) {
+					continue;
+				}
+				mst.updateEdge(vertex, minVertex, weight);
+			}
+		}
+		mst.computeWeight();
+		return mst;
+	}
+
+	private String getMinVertex(Set<String> visited, SpanningTree mst) {
+		double minWeight = Double.MAX_VALUE;
+		String minVertex = "";
+		for(var entry : mst.getAdjacencyList().entrySet()) {
+			var vertex = entry.getKey();
+			if(visited.contains(vertex))
+				continue;
+			var weight = entry.getValue().getFirst().weight;
+			if(weight < minWeight) {
+				minWeight = weight;
+				minVertex = vertex;
+			}
+		}
+		return minVertex;
+	}
+
+	// Time complexity: O(ElogE)
+	public SpanningTree kruskalsMst() {
+		SpanningTree mst = new SpanningTree();
+		Map<String, String> parent = new HashMap<>();
+		PriorityQueue<DirectedEdge> pq = new PriorityQueue<>(Comparator.comparingDouble(e -> e.weight));
+		for (var vertex : adjacencyList.keySet()) {
+			mst.addVertex(vertex);
+			parent.put(vertex, vertex);
+			for (var edge : adjacencyList.get(vertex)) {
+				pq.add(new DirectedEdge(vertex, edge.to, edge.weight));
+			}
+		}
+		while (!pq.isEmpty()) {
+			var edge = pq.poll();
+			String root1 = find(edge.from, parent);
+			String root2 = find(edge.to, parent);
+			if (!root1.equals(root2)) {
+				union(root1, root2, parent);
+				mst.addEdge(edge.from, edge.to, edge.weight);
+			}
+		}
+		mst.computeWeight();
+		return mst;
+	}
+
+	private String find(String vertex, Map<String, String> parent) {
+		if (!vertex.equals(parent.get(vertex))) {
+			parent.put(vertex, find(parent.get(vertex), parent));
+		}
+		return parent.get(vertex);
+	}
+
+	private void union(String root1, String root2, Map<String, String> parent) {
+		parent.put(root1, root2);
+	}
+
+	// Time complexity: O((V + E)logV)
+	public SingleSourceShortestPath dijkstraShortestPath(String source, boolean inverse) {
+		Map<String, List<Edge>> adjList;
+		if(inverse) {
+			adjList = getInverseAdjacencyList();
+		} else {
+			adjList = adjacencyList;
+		}
+		Set<String> visited = new HashSet<>();
+		PriorityQueue<Vertex> pq = new PriorityQueue<>();
+		for(String vertex : adjList.keySet()) {
+			if(vertex.equals(source)) {
+				pq.add(new Vertex(vertex, 0.0, null));
+			} else {
+				pq.add(new Vertex(vertex, Double.MAX_VALUE, null));
+			}
+		}
+		Map<String, Path> shortestPaths = new HashMap<>();
+		while(!pq.isEmpty()) {
+			var current = pq.poll();
+			if(visited.contains(current.name)) {
+				continue;
+			}
+			visited.add(current.name);
+			for(var edge : adjList.get(current.name)) {
+				var vertex = edge.to;
+				if(visited.contains(vertex)) {
+					continue;
+				}
+				double distance = current.distance + edge.weight;
+				if(distance < pq.stream().filter(v -> v.name.equals(vertex)).findFirst().get().distance) {
+					pq.removeIf(v -> v.name.equals(vertex));
+					pq.add(new Vertex(vertex, distance, current));
+				}
+			}
+			if(!current.name.equals(source)) {
+				List<String> path = new LinkedList<>();
+				Vertex currentVertex = current;
+				while(currentVertex != null) {
+					path.addFirst(currentVertex.name);
+					currentVertex = currentVertex.predecessor;
+				}
+				shortestPaths.put(current.name, new Path(current.distance, path));
+			}
+		}
+		return new SingleSourceShortestPath(source, shortestPaths);
+	}
+
+	private Map<String, List<Edge>> getInverseAdjacencyList() {
+		Map<String, List<Edge>> inverseAdjacencyList = new HashMap<>();
+		// Return an adjacency list with the the edge weights inversed, i.e. 1/weight
+		for (var entry : adjacencyList.entrySet()) {
+			String vertex = entry.getKey();
+			List<Edge> edges = entry.getValue();
+			for (Edge edge : edges) {
+				if (!inverseAdjacencyList.containsKey(edge.to)) {
+					inverseAdjacencyList.put(edge.to, new ArrayList<>());
+				}
+				inverseAdjacencyList.get(edge.to).add(new Edge(vertex, 1.0 / edge.weight));
+			}
+		}
+		return inverseAdjacencyList;
+	}
+
+	// Time complexity: O(V^3)
+	public List<SingleSourceShortestPath> floydWarshallShortestPaths(boolean inverse) {
+		Map<String, List<Edge>> adjList;
+		if(inverse) {
+			adjList = getInverseAdjacencyList();
+		} else {
+			adjList = adjacencyList;
+		}
+		int V = adjList.size();
+		double[][] dist = new double[V][V];
+		int[][] next = new int[V][V];
+		String[] vertices = adjList.keySet().toArray(new String[0]);
+
+		// Step 1: Initialize the solution matrix same as input graph matrix
+		for (int i = 0; i < V; i++) {
+			for (int j = 0; j < V; j++) {
+				if (i == j) {
+					dist[i][j] = 0;
+					next[i][j] = i;
+				} else {
+					dist[i][j] = Double.MAX_VALUE;
+					next[i][j] = -1;
+				}
+			}
+		}
+
+		// Step 2: Update dist value for every edge
+		for (int i = 0; i < V; i++) {
+			for (Edge edge : adjList.get(vertices[i])) {
+				int j = Arrays.asList(vertices).indexOf(edge.to);
+				dist[i][j] = edge.weight;
+				next[i][j] = j;
+			}
+		}
+
+		// Step 3: Update dist[i][j] = min(dist[i][j], dist[i][k] + dist[k][j])
+		for (int k = 0; k < V; k++) {
+			for (int i = 0; i < V; i++) {
+				for (int j = 0; j < V; j++) {
+					if (dist[i][k] != Double.MAX_VALUE && dist[k][j] != Double.MAX_VALUE && dist[i][k] + dist[k][j] < dist[i][j]) {
+						dist[i][j] = dist[i][k] + dist[k][j];
+						next[i][j] = next[i][k];
+					}
+				}
+			}
+		}
+
+		// Step 4: Build the result
+		List<SingleSourceShortestPath> allShortestPaths = new ArrayList<>();
+		for (int i = 0; i < V; i++) {
+			Map<String, Path> shortestPaths = new HashMap<>();
+			for (int j = 0; j < V; j++) {
+				if (i != j) {
+					List<String> path = constructPath(i, j, next, vertices);
+					shortestPaths.put(vertices[j], new Path(dist[i][j], path));
+				}
+			}
+			allShortestPaths.add(new SingleSourceShortestPath(vertices[i], shortestPaths));
+		}
+
+		return allShortestPaths;
+	}
+
+	private List<String> constructPath(int i, int j, int[][] next, String[] vertices) {
+		if (next[i][j] == -1) {
+			return null;
+		}
+		List<String> path = new ArrayList<>();
+		while (i != j) {
+			path.add(vertices[i]);
+			i = next[i][j];
+		}
+		path.add(vertices[j]);
+		return path;
+	}
+
+	// Time complexity: O(V^2)
+	// Can be optimized to O(VlogV + E) using a priority queue
+	public SpanningTree primsMstMax() {
+		SpanningTree mst = new SpanningTree();
+		Set<String> visited = new HashSet<>();
+
+		String start = "";
+		for(var vertex : adjacencyList.keySet()) {
+			mst.addVertex(vertex);
+			if(start.isEmpty()) {
+				start = vertex;
+				mst.addEdge(start, "", 0.0);
+				continue;
+			}
+			mst.addEdge(vertex, "", Double.NEGATIVE_INFINITY);
+		}
+
+		for(int i = 0; i < v - 1; i++) {
+			String maxVertex = getMaxVertex(visited, mst);
+			visited.add(maxVertex);
+			for(var edge : adjacencyList.get(maxVertex)) {
+				var vertex = edge.to;
+				var weight = edge.weight;
+				if(visited.contains(vertex)) {
+					continue;
+				}
+				double weightInMst = mst.getVertexWeight(vertex);
+				if(weight <= weightInMst) {
+					continue;
+				}
+				mst.updateEdge(vertex, maxVertex, weight);
+			}
+		}
+		mst.computeWeight();
+		return mst;
+	}
+
+	private String getMaxVertex(Set<String> visited, SpanningTree mst) {
+		double maxWeight = Double.NEGATIVE_INFINITY;
+		String maxVertex = "";
+		for(var entry : mst.getAdjacencyList().entrySet()) {
+			var vertex = entry.getKey();
+			if(visited.contains(vertex))
+				continue;
+			var weight = entry.getValue().getFirst().weight;
+			if(weight > maxWeight) {
+				maxWeight = weight;
+				maxVertex = vertex;
+			}
+		}
+		return maxVertex;
+	}
+
+	// Time complexity: O(ElogE)
+	public SpanningTree kruskalsMstMax() {
+		SpanningTree mst = new SpanningTree();
+		Map<String, String> parent = new HashMap<>();
+		PriorityQueue<DirectedEdge> pq = new PriorityQueue<>(Comparator.comparingDouble(e -> -e.weight));
+		for (var vertex : adjacencyList.keySet()) {
+			mst.addVertex(vertex);
+			parent.put(vertex, vertex);
+			for (var edge : adjacencyList.get(vertex)) {
+				pq.add(new DirectedEdge(vertex, edge.to, edge.weight));
+			}
+		}
+		while (!pq.isEmpty()) {
+			var edge = pq.poll();
+			String root1 = find(edge.from, parent);
+			String root2 = find(edge.to, parent);
+			if (!root1.equals(root2)) {
+				union(root1, root2, parent);
+				mst.addEdge(edge.from, edge.to, edge.weight);
+			}
+		}
+		mst.computeWeight();
+		return mst;
+	}
+}
@@ -0,0 +1,47 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathTreeTests {
+
+	@Test
+	void indexedMinHeapPollsInKeyOrder() {
+		Random random = new Random(21);
+		double[] keys = new double[1_000];
+		var heap = new IndexedMinHeap(keys.length);
+		for (int vertex = 0; vertex < keys.length; vertex++) {
+			keys[vertex] = random.nextDouble() * 100;
+			heap.insert(vertex, keys[vertex]);
+		}
+		for (int vertex = 0; vertex < keys.length; vertex += 3) {
+			keys[vertex] = keys[vertex] / 2;
+			heap.decreaseKey(vertex, keys[vertex]);
+		}
+		double[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		for (double key : sorted) {
+			int vertex = heap.poll();
+			assertFalse(heap.contains(vertex));
+			assertEquals(key, keys[vertex]);
+		}
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	void pathsBuiltOnDemandMatchTheSingleSourceShortestPaths() {
+		var wga = CompactWordGraphTests.generateGraph(new Random(22), 500, 6);
+		for (boolean inverse : new boolean[]{false, true}) {
+			var tree = wga.dijkstraShortestPathTree("w0", inverse);
+			var shortestPaths = wga.dijkstraShortestPath("w0", inverse).getShortestPaths();
+			shortestPaths.forEach((target, path) -> assertEquals(path, tree.getPath(target)));
+			assertNull(tree.getPath("not-a-word"));
+			var reference = new ReferenceGraphAlgorithms(wga.getAdjacencyList());
+			CompactWordGraphTests.assertSameShortestPaths(wga, inverse, reference.dijkstraShortestPath("w0", inverse), wga.dijkstraShortestPath("w0", inverse));
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingCounterTests {
+
+	@Test
+	void countsAreOverestimatedWithinTheErrorBound() {
+		String corpus = WordGraphAnalysisTests.generateZipfCorpus(new Random(5), 100_000, 20_000);
+		var counter = SpaceSavingCounter.withErrorBound(0.005, 100);
+		Map<String, Integer> exactCounts = new HashMap<>();
+		int[] n = {0};
+		TokenizedText.forEachWord(corpus, word -> {
+			counter.add(word);
+			exactCounts.merge(word, 1, Integer::sum);
+			n[0]++;
+		});
+		assertEquals(200, counter.getCapacity());
+		assertEquals(500, SpaceSavingCounter.withErrorBound(0.005, 500).getCapacity());
+		int maxError = n[0] / counter.getCapacity();
+		exactCounts.forEach((word, count) -> {
+			if (count > maxError) {
+				assertTrue(counter.getWords().contains(word), word + " occurs " + count + " times but is not monitored");
+			}
+			if (counter.getWords().contains(word)) {
+				assertTrue(counter.getCount(word) >= count && counter.getCount(word) <= count + maxError, word);
+			}
+		});
+	}
+}
@@ -0,0 +1,76 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingTextTokenizerTests {
+
+	private static final String TEXT = "  \n The Quick brown FOX. Jumps over\tthe lazy dog!!  Dog-house? a_b\n\n  ";
+
+	@Test
+	void tokenizesAndHashesLikeTheWholeText() throws Exception {
+		String corpus = TEXT + WordGraphAnalysisTests.generateCorpus(new Random(1), 2_000, 300).toUpperCase() + TEXT;
+		for (int chunkSize : new int[]{1, 7, 64, 1 << 16}) {
+			var streamed = StreamingTextTokenizer.tokenize(new StringReader(corpus), MessageDigest.getInstance("SHA-256"), chunkSize, 1 << 24, 1 << 16);
+			String trimmedText = corpus.trim().toLowerCase();
+			byte[] expectedHash = MessageDigest.getInstance("SHA-256").digest(trimmedText.getBytes(StandardCharsets.UTF_8));
+			assertArrayEquals(expectedHash, streamed.digest().digest());
+			assertSameTokens(TokenizedText.of(trimmedText), streamed.tokenizedText());
+		}
+	}
+
+	@Test
+	void holdsBackABoundedRunOfWhitespaceAndHashesLikeTheWholeText() throws Exception {
+		String whitespace = " \t\n\u0001".repeat(1_000);
+		for (String corpus : new String[]{"the fox" + whitespace + "the dog", "the fox" + whitespace, whitespace + "the fox" + whitespace}) {
+			for (int chunkSize : new int[]{1, 7, 64}) {
+				var streamed = StreamingTextTokenizer.tokenize(new StringReader(corpus), MessageDigest.getInstance("SHA-256"), chunkSize, 1 << 24, 16);
+				String trimmedText = corpus.trim().toLowerCase();
+				byte[] expectedHash = MessageDigest.getInstance("SHA-256").digest(trimmedText.getBytes(StandardCharsets.UTF_8));
+				assertArrayEquals(expectedHash, streamed.digest().digest());
+				assertSameTokens(TokenizedText.of(trimmedText), streamed.tokenizedText());
+			}
+		}
+	}
+
+	@Test
+	void refusesATextWithMoreThanTheMaximumChunkWithoutWhitespace() throws Exception {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		String words = "word ".repeat(100);
+		assertEquals(100, StreamingTextTokenizer.tokenize(new StringReader(words), digest, 4, 16, 16).tokenizedText().getTokenCount());
+		String word = "w".repeat(17);
+		assertThrows(IllegalArgumentException.class, () -> StreamingTextTokenizer.tokenize(new StringReader(words + word), digest, 4, 16, 16));
+	}
+
+	@Test
+	void spilledTokensAreReadBackInOrder() {
+		String corpus = WordGraphAnalysisTests.generateCorpus(new Random(2), 5_000, 300);
+		try (TokenizedText spilled = new TokenizedText(100)) {
+			spilled.accept(corpus);
+			assertSameTokens(TokenizedText.of(corpus), spilled);
+			assertEquals(new WordGraphAnalysis(corpus, 50).getAdjacencyList(), new WordGraphAnalysis(spilled, 50).getAdjacencyList());
+		}
+	}
+
+	private static void assertSameTokens(TokenizedText expected, TokenizedText actual) {
+		assertEquals(expected.getIds(), actual.getIds());
+		assertEquals(expected.getTokenCount(), actual.getTokenCount());
+		assertEquals(toList(expected), toList(actual));
+	}
+
+	private static List<Integer> toList(TokenizedText tokenizedText) {
+		List<Integer> tokens = new ArrayList<>();
+		tokenizedText.tokens().forEachRemaining((int token) -> tokens.add(token));
+		return tokens;
+	}
+}
@@ -0,0 +1,128 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenizedTextTests {
+
+	private static final Pattern WORD_PATTERN = Pattern.compile("[a-z0-9_-]+");
+	// Word characters, delimiters, whitespace and characters the regex treats as separators, including non-ASCII ones
+	private static final String ALPHABET = "abcz09_-.!?  \t\nAZ,;'\"()é€ ";
+
+	@Test
+	void tokenizesLikeTheRegex() {
+		Random random = new Random(22);
+		for (int round = 0; round < 500; round++) {
+			String text = generateText(random, random.nextInt(300));
+			try (TokenizedText tokenizedText = TokenizedText.of(text)) {
+				assertEquals(tokenizeWithRegex(text), toWords(tokenizedText), text);
+			}
+		}
+	}
+
+	@Test
+	void tokenizesChunksLikeTheWholeText() {
+		Random random = new Random(23);
+		for (int round = 0; round < 200; round++) {
+			String text = generateText(random, random.nextInt(300));
+			try (TokenizedText chunked = new TokenizedText()) {
+				int start = 0;
+				for (int i = 0; i <= text.length(); i++) {
+					// Chunks may only end outside of a word
+					boolean cut = i == text.length() || (!TokenizedText.isWordChar(text.charAt(i)) && random.nextInt(8) == 0);
+					if (cut) {
+						chunked.accept(text.substring(start, i));
+						start = i;
+					}
+				}
+				assertEquals(tokenizeWithRegex(text), toWords(chunked), text);
+			}
+		}
+	}
+
+	@Test
+	void forEachWordFindsEveryWord() {
+		Random random = new Random(24);
+		for (int round = 0; round < 200; round++) {
+			String text = generateText(random, random.nextInt(300));
+			List<String> expected = new ArrayList<>();
+			Matcher matcher = WORD_PATTERN.matcher(text);
+			while (matcher.find()) {
+				expected.add(matcher.group());
+			}
+			List<String> actual = new ArrayList<>();
+			TokenizedText.forEachWord(text, actual::add);
+			assertEquals(expected, actual, text);
+		}
+	}
+
+	@Test
+	void onlyKeepsVocabularyWords() {
+		try (TokenizedText tokenizedText = new TokenizedText(Set.of("fox", "dog"))) {
+			tokenizedText.accept("the fox. the dog! a fox");
+			assertEquals(List.of("fox", ".", "dog", ".", "fox"), toWords(tokenizedText));
+			assertEquals(0, tokenizedText.getId("fox"));
+			assertEquals(-1, tokenizedText.getId("the"));
+			assertEquals(2, tokenizedText.getFrequency(0));
+		}
+	}
+
+	@Test
+	void wordTableInternsEveryDistinctWordOnce() {
+		var table = new WordTable();
+		List<String> words = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			words.add("w" + i);
+		}
+		for (int round = 0; round < 2; round++) {
+			for (int i = 0; i < words.size(); i++) {
+				String padded = " " + words.get(i) + "!";
+				assertEquals(i, table.intern(padded, 1, padded.length() - 1));
+			}
+		}
+		assertEquals(words.size(), table.size());
+		assertSame(table.getWord(42), table.getWord(table.getId("w42")));
+		assertEquals("w42", table.getWord(42));
+		assertEquals(-1, table.getId("w10000"));
+	}
+
+	/**
+	 * The tokenizer as it was written with a regex, where a sentence ends when a delimiter is found between two words.
+	 */
+	private static List<String> tokenizeWithRegex(String text) {
+		List<String> words = new ArrayList<>();
+		Matcher matcher = WORD_PATTERN.matcher(text);
+		int previousEnd = 0;
+		while (matcher.find()) {
+			if (!words.isEmpty() && !words.getLast().equals(".") && text.substring(previousEnd, matcher.start()).matches("(?s).*[.!?].*")) {
+				words.add(".");
+			}
+			words.add(matcher.group());
+			previousEnd = matcher.end();
+		}
+		return words;
+	}
+
+	private static List<String> toWords(TokenizedText tokenizedText) {
+		List<String> words = new ArrayList<>();
+		tokenizedText.tokens().forEachRemaining((int token) ->
+				words.add(token == TokenizedText.SENTENCE_BREAK ? "." : tokenizedText.getWord(token)));
+		return words;
+	}
+
+	private static String generateText(Random random, int length) {
+		StringBuilder text = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,31 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnionFindTests {
+
+	@Test
+	void unionsLongChainsWithoutOverflowingTheStack() {
+		int vertexCount = 1_000_000;
+		var components = new UnionFind(vertexCount);
+		for (int vertex = 1; vertex < vertexCount; vertex++) {
+			assertTrue(components.union(vertex - 1, vertex));
+		}
+		assertFalse(components.union(0, vertexCount - 1));
+		assertEquals(components.find(0), components.find(vertexCount - 1));
+	}
+
+	@Test
+	void keepsSeparateSetsApart() {
+		var components = new UnionFind(6);
+		components.union(0, 1);
+		components.union(2, 3);
+		components.union(1, 3);
+		components.union(4, 5);
+		assertEquals(components.find(0), components.find(2));
+		assertNotEquals(components.find(0), components.find(4));
+		assertFalse(components.union(0, 3));
+	}
+}
@@ -0,0 +1,264 @@
+package me.shailesh.wordgraph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WordGraphAnalysisTests {
+
+	private static final String TEXT = """
+			the quick brown fox jumps over the lazy dog. the dog sleeps! does the fox sleep? no, the fox runs
+			over the hill and the dog-house... a_b c-d the quick dog runs. fox fox fox!? dog
+			""".toLowerCase();
+
+	@Test
+	void buildsTheSameGraphAsSentenceScanning() {
+		for (int maxWords : new int[]{0, 3, 10, 100, 150}) {
+			assertSameGraph(TEXT, maxWords);
+		}
+	}
+
+	@Test
+	void buildsTheSameGraphOnAGeneratedCorpus() {
+		assertSameGraph(generateCorpus(new Random(42), 5_000, 500), 100);
+	}
+
+	@Test
+	void approximateTopWordsRecallTheExactTopWordsOnASkewedCorpus() {
+		String corpus = generateZipfCorpus(new Random(3), 200_000, 50_000);
+		var exact = new WordGraphAnalysis(corpus, 100);
+		var approximate = new WordGraphAnalysis(corpus, 100, AnalysisOptions.builder().approximate(true).errorBound(0.001).build());
+		long recalled = exact.getWordFrequencies().keySet().stream()
+				.filter(approximate.getWordFrequencies()::containsKey)
+				.count();
+		assertTrue(recalled >= 95, "recalled " + recalled + " of the top 100 words");
+		approximate.getWordFrequencies().forEach((word, frequency) ->
+				assertEquals(countOccurrences(corpus, word), frequency, word));
+	}
+
+	@Test
+	void windowModesMatchCountingEveryPairOfWordsInTheWindow() {
+		for (String text : List.of(TEXT, generateCorpus(new Random(5), 3_000, 300))) {
+			for (var mode : new CoOccurrenceMode[]{CoOccurrenceMode.WINDOW, CoOccurrenceMode.DISTANCE_WEIGHTED}) {
+				for (int windowSize : new int[]{1, 3, 10}) {
+					var options = AnalysisOptions.builder().coOccurrence(mode).windowSize(windowSize).build();
+					var actual = new WordGraphAnalysis(text, 20, options);
+					var expected = countWindowPairs(text, actual.getWordFrequencies().keySet(), windowSize, mode == CoOccurrenceMode.DISTANCE_WEIGHTED);
+					int edges = 0;
+					for (var entry : actual.getAdjacencyList().entrySet()) {
+						for (Edge edge : entry.getValue()) {
+							assertEquals(expected.get(Set.of(entry.getKey(), edge.getTo())), edge.getWeight(), 1e-9);
+							edges++;
+						}
+					}
+					assertEquals(expected.size() * 2, edges);
+					assertEquals(edges, actual.getE());
+				}
+			}
+		}
+	}
+
+	@Test
+	void windowsKeepTheGraphOfAnUnpunctuatedTextSparse() {
+		String transcript = generateCorpus(new Random(6), 5_000, 300).replaceAll("[.!?]", "");
+		var sentences = new WordGraphAnalysis(transcript, 100);
+		var windows = new WordGraphAnalysis(transcript, 100, AnalysisOptions.builder().coOccurrence(CoOccurrenceMode.WINDOW).windowSize(2).build());
+		assertEquals(100 * 99, sentences.getE());
+		assertTrue(windows.getE() < sentences.getE() / 2, "window edges " + windows.getE());
+	}
+
+	@Test
+	void parallelBuildsAreTheSameAsSequentialBuilds() {
+		// Long enough for several chunks, with a delimiter right at the end of the text
+		String corpus = generateZipfCorpus(new Random(9), 150_000, 5_000) + "w1 w2!";
+		for (var mode : CoOccurrenceMode.values()) {
+			for (boolean largeGraph : new boolean[]{false, true}) {
+				var options = AnalysisOptions.builder().coOccurrence(mode).largeGraph(largeGraph);
+				var sequential = new WordGraphAnalysis(corpus, 500, options.build());
+				for (int parallelism : new int[]{2, 7, 64}) {
+					var parallel = new WordGraphAnalysis(corpus, 500, options.parallelism(parallelism).build());
+					assertEquals(sequential.getWordFrequencies(), parallel.getWordFrequencies());
+					// Edge lists are compared in order, with the weights compared exactly
+					assertEquals(sequential.getAdjacencyList(), parallel.getAdjacencyList(), mode + " " + parallelism);
+					assertEquals(sequential.getE(), parallel.getE());
+				}
+			}
+		}
+		// A text without delimiters can not be split, and a short text is not worth splitting
+		for (String text : List.of(corpus.replaceAll("[.!?]", ""), TEXT)) {
+			var options = AnalysisOptions.builder().parallelism(4).build();
+			assertEquals(new WordGraphAnalysis(text, 100).getAdjacencyList(), new WordGraphAnalysis(text, 100, options).getAdjacencyList());
+		}
+	}
+
+	@Test
+	void refusesALargeGraphOfASentenceWithTooManyWordsButCountsItInWindows() {
+		var text = new StringBuilder();
+		for (int i = 0; i < WordGraphAnalysis.MAX_LARGE_N; i++) {
+			text.append('w').append(i).append(' ');
+		}
+		var sentences = AnalysisOptions.builder().largeGraph(true);
+		var exception = assertThrows(IllegalArgumentException.class,
+				() -> new WordGraphAnalysis(text.toString(), WordGraphAnalysis.MAX_LARGE_N, sentences.build()));
+		assertTrue(exception.getMessage().contains("windows"), exception.getMessage());
+		assertThrows(IllegalArgumentException.class,
+				() -> new WordGraphAnalysis(text.toString(), WordGraphAnalysis.MAX_LARGE_N, sentences.parallelism(4).build()));
+
+		var windows = AnalysisOptions.builder().largeGraph(true).coOccurrence(CoOccurrenceMode.WINDOW).windowSize(2).build();
+		var wga = new WordGraphAnalysis(text.toString(), WordGraphAnalysis.MAX_LARGE_N, windows);
+		assertEquals(WordGraphAnalysis.MAX_LARGE_N, wga.getV());
+		assertEquals(2 * (2 * WordGraphAnalysis.MAX_LARGE_N - 3), wga.getE());
+	}
+
+	@Test
+	void largeGraphsHaveMoreThanTheDefaultMaximumOfWords() {
+		String corpus = generateZipfCorpus(new Random(8), 100_000, 20_000);
+		assertEquals(100, new WordGraphAnalysis(corpus, 2_000).getV());
+
+		var large = new WordGraphAnalysis(corpus, 2_000, AnalysisOptions.builder().largeGraph(true).build());
+		assertEquals(2_000, large.getV());
+		// The edges are the sentence counts of every pair of top words, as counted for a corpus
+		var delta = CorpusDelta.of(corpus, Integer.MAX_VALUE);
+		int edges = 0;
+		for (var entry : large.getAdjacencyList().entrySet()) {
+			assertEquals(delta.getWordCounts().get(entry.getKey()).intValue(), large.getWordFrequencies().get(entry.getKey()));
+			for (Edge edge : entry.getValue()) {
+				assertEquals(delta.getPairCounts().get(CorpusDelta.getPairKey(entry.getKey(), edge.getTo())).doubleValue(), edge.getWeight());
+				edges++;
+			}
+		}
+		long expectedEdges = delta.getPairCounts().keySet().stream()
+				.map(pair -> pair.split("\\|"))
+				.filter(pair -> large.getWordFrequencies().containsKey(pair[0]) && large.getWordFrequencies().containsKey(pair[1]))
+				.count();
+		assertEquals(expectedEdges * 2, edges);
+		assertEquals(edges, large.getE());
+		assertEquals(WordGraphAnalysis.MAX_LARGE_N, WordGraphAnalysis.getWordsToInclude(1_000_000, true));
+	}
+
+	/**
+	 * Count the occurrences of different top words at most the window size apart in every sentence, by comparing
+	 * every pair of positions in the sentence.
+	 */
+	private static Map<Set<String>, Double> countWindowPairs(String text, Set<String> topWords, int windowSize, boolean distanceWeighted) {
+		Map<Set<String>, Double> weights = new HashMap<>();
+		for (String sentence : text.split("[.!?]")) {
+			List<String> words = new ArrayList<>();
+			Matcher matcher = Pattern.compile("[a-z0-9_-]+").matcher(sentence);
+			while (matcher.find()) {
+				words.add(matcher.group());
+			}
+			for (int i = 0; i < words.size(); i++) {
+				for (int j = i + 1; j <= i + windowSize && j < words.size(); j++) {
+					if (topWords.contains(words.get(i)) && topWords.contains(words.get(j)) && !words.get(i).equals(words.get(j))) {
+						weights.merge(Set.of(words.get(i), words.get(j)), distanceWeighted ? 1.0 / (j - i) : 1.0, Double::sum);
+					}
+				}
+			}
+		}
+		return weights;
+	}
+
+	private static void assertSameGraph(String text, int maxWords) {
+		var expected = new SentenceScanningGraph(text, maxWords);
+		var actual = new WordGraphAnalysis(text, maxWords);
+		assertEquals(expected.wordFrequencies, actual.getWordFrequencies());
+		assertEquals(expected.adjacencyList, actual.getAdjacencyList());
+		assertEquals(expected.adjacencyList.size(), actual.getV());
+		assertEquals(expected.e, actual.getE());
+	}
+
+	static String generateCorpus(Random random, int words, int vocabulary) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			// Skew the distribution so that a few words are much more frequent than the rest
+			int word = (int) (vocabulary * Math.pow(random.nextDouble(), 3));
+			text.append('w').append(word);
+			text.append(random.nextInt(12) == 0 ? ". " : " ");
+		}
+		return text.toString();
+	}
+
+	static String generateZipfCorpus(Random random, int words, int vocabulary) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			// The rank of a word is log-uniform, so its frequency is roughly proportional to 1 / rank
+			int word = (int) Math.exp(random.nextDouble() * Math.log(vocabulary));
+			text.append('w').append(word);
+			text.append(random.nextInt(12) == 0 ? ". " : " ");
+		}
+		return text.toString();
+	}
+
+	private static int countOccurrences(String text, String word) {
+		int[] count = {0};
+		TokenizedText.forEachWord(text, w -> count[0] += w.equals(word) ? 1 : 0);
+		return count[0];
+	}
+
+	/**
+	 * The graph construction as it was before the single pass builder: every pair of top words is checked
+	 * against every sentence.
+	 */
+	static class SentenceScanningGraph {
+		private static final String WORD_REGEX = "[a-z0-9_-]+";
+		private final Map<String, Integer> wordFrequencies = new HashMap<>();
+		private final Map<String, List<Edge>> adjacencyList = new HashMap<>();
+		private int e = 0;
+
+		SentenceScanningGraph(String text, int maxWords) {
+			int wordsToInclude = maxWords == 0 || maxWords > 100 ? 100 : maxWords;
+			var allWordFrequencies = new HashMap<String, Integer>();
+			Matcher matcher = Pattern.compile(WORD_REGEX).matcher(text);
+			while (matcher.find()) {
+				allWordFrequencies.merge(matcher.group(), 1, Integer::sum);
+			}
+			List<String> words = new ArrayList<>(allWordFrequencies.keySet());
+			words.sort((a, b) -> allWordFrequencies.get(b) - allWordFrequencies.get(a));
+			for (int i = 0; i < Math.min(wordsToInclude, words.size()); i++) {
+				wordFrequencies.put(words.get(i), allWordFrequencies.get(words.get(i)));
+				adjacencyList.put(words.get(i), new ArrayList<>());
+			}
+			String[] sentences = text.split("[.!?]");
+			Set<Set<String>> wordPairs = new HashSet<>();
+			for (String word : adjacencyList.keySet()) {
+				for (String otherWord : adjacencyList.keySet()) {
+					if (!word.equals(otherWord)) {
+						wordPairs.add(new HashSet<>(List.of(word, otherWord)));
+					}
+				}
+			}
+			for (Set<String> wordPair : wordPairs) {
+				for (String sentence : sentences) {
+					Set<String> wordsInSentence = new HashSet<>();
+					matcher = Pattern.compile(WORD_REGEX).matcher(sentence);
+					while (matcher.find()) {
+						wordsInSentence.add(matcher.group());
+					}
+					String[] wordsInPair = wordPair.toArray(new String[0]);
+					if (wordsInSentence.contains(wordsInPair[0]) && wordsInSentence.contains(wordsInPair[1])) {
+						updateEdge(wordsInPair[0], wordsInPair[1]);
+						updateEdge(wordsInPair[1], wordsInPair[0]);
+					}
+				}
+			}
+		}
+
+		private void updateEdge(String word1, String word2) {
+			for (Edge edge : adjacencyList.get(word1)) {
+				if (edge.to.equals(word2)) {
+					edge.weight++;
+					return;
+				}
+			}
+			adjacencyList.get(word1).add(new Edge(word2, 1));
+			e++;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package me.shailesh.wordgraph.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.AlgorithmResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AlgorithmResultCacheTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private AlgorithmResultCache inProcessCache(DataSize maxSize) {
+		return new AlgorithmResultCache(null, maxSize, Duration.ofHours(1), false, new WordGraphMetrics(registry));
+	}
+
+	@Test
+	void computesEachResultOncePerGraphAndParameters() {
+		var cache = inProcessCache(DataSize.ofMegabytes(1));
+		var wga = new WordGraphAnalysis("a b c. a b. b c. c d", 0);
+		var computed = new AtomicInteger();
+		for (int i = 0; i < 3; i++) {
+			cache.getSpanningTree("hash", "prims/minimum", () -> {
+				computed.incrementAndGet();
+				return wga.primsMst();
+			});
+			cache.getAllPairsShortestPaths("hash", "floyd-warshall/false", wga::getCompactGraph, () -> {
+				computed.incrementAndGet();
+				return wga.floydWarshall(false);
+			});
+			cache.get("hash", "bfs/a", () -> {
+				computed.incrementAndGet();
+				return wga.bfs("a");
+			});
+		}
+		cache.get("other-hash", "bfs/a", () -> {
+			computed.incrementAndGet();
+			return wga.bfs("a");
+		});
+		assertEquals(4, computed.get());
+		var stats = cache.getStats();
+		assertEquals(6, stats.getHits());
+		assertEquals(4, stats.getMisses());
+		assertEquals(0, cache.getStoredStats().getHits() + cache.getStoredStats().getMisses());
+		// Only the computed results are timed, by algorithm without its parameters
+		assertEquals(1, registry.get("wordgraph.algorithm").tag("algorithm", "prims").timer().count());
+		assertEquals(1, registry.get("wordgraph.algorithm").tag("algorithm", "floyd-warshall").timer().count());
+		assertEquals(2, registry.get("wordgraph.algorithm").tag("algorithm", "bfs").timer().count());
+	}
+
+	@Test
+	void countsTheResultsThatCanNotBeStored() {
+		var mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.save(any(AlgorithmResult.class))).thenThrow(new DataAccessResourceFailureException("Disk full"));
+		var wga = new WordGraphAnalysis("a b c. a b. b c. c d", 0);
+		var cache = new AlgorithmResultCache(mongoTemplate, DataSize.ofMegabytes(1), Duration.ofHours(1), true, 100_000, new WordGraphMetrics(registry));
+
+		assertNotNull(cache.getSpanningTree("hash", "prims/minimum", wga::primsMst));
+		assertEquals(1, registry.get("wordgraph.results.stored").tag("outcome", "failed").counter().count());
+
+		var tooSmall = new AlgorithmResultCache(mongoTemplate, DataSize.ofMegabytes(1), Duration.ofHours(1), true, 10, new WordGraphMetrics(registry));
+		assertNotNull(tooSmall.getSpanningTree("other-hash", "prims/minimum", wga::primsMst));
+		assertNotNull(tooSmall.getAllPairsShortestPaths("other-hash", "floyd-warshall/false", wga::getCompactGraph, () -> wga.floydWarshall(false)));
+		assertEquals(2, registry.get("wordgraph.results.stored").tag("outcome", "too_large").counter().count());
+		verify(mongoTemplate, times(1)).save(any(AlgorithmResult.class));
+	}
+
+	@Test
+	void staysWithinItsSizeBound() {
+		var cache = inProcessCache(DataSize.ofBytes(2_000));
+		var wga = new WordGraphAnalysis("a b c d e f g h. a c e g. b d f h", 0);
+		for (String start : wga.getAdjacencyList().keySet()) {
+			cache.get("hash", "dijkstra/false/" + start, () -> wga.dijkstraShortestPath(start, false));
+		}
+		var stats = cache.getStats();
+		assertTrue(stats.getEstimatedBytes() <= 2_000);
+		assertTrue(stats.getEvictions() > 0);
+	}
+}
@@ -0,0 +1,38 @@
+package me.shailesh.wordgraph.service;
+
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.WordGraph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisGraphTests {
+
+	private static final String TEXT = "the quick brown fox. the lazy dog! the fox and the dog? a fox";
+
+	@Test
+	void keepsOnlyTheCompactGraphAndBuildsTheAdjacencyListOnDemand() {
+		var wga = new WordGraphAnalysis(TEXT, 0);
+		var wordGraph = WordGraph.builder().id("id").hash("hash").text(TEXT).compactGraph(wga.getCompactGraph())
+				.wordFrequencies(wga.getWordFrequencies()).wordCount(wga.getV()).edgeCount(wga.getE()).build();
+		for (var analysisGraph : new AnalysisGraph[]{new AnalysisGraph(wordGraph, wga), AnalysisGraph.of(wordGraph)}) {
+			assertNull(analysisGraph.getWordGraph().getText());
+			assertNull(analysisGraph.getWordGraph().getAdjacencyList());
+			assertNull(analysisGraph.getAnalysis().getAdjacencyList());
+			assertSame(analysisGraph.getAnalysis().getCompactGraph(), analysisGraph.getWordGraph().getCompactGraph());
+			assertEquals(wga.getAdjacencyList(), AnalysisGraph.getAdjacencyList(analysisGraph.getWordGraph()));
+			assertEquals(wga.bfs("the"), analysisGraph.getAnalysis().bfs("the"));
+		}
+	}
+
+	@Test
+	void readsWordGraphsStoredAsAnAdjacencyList() {
+		var wga = new WordGraphAnalysis(TEXT, 0);
+		var wordGraph = WordGraph.builder().id("id").hash("hash").adjacencyList(wga.getAdjacencyList())
+				.wordFrequencies(wga.getWordFrequencies()).wordCount(wga.getV()).edgeCount(wga.getE()).build();
+		var analysisGraph = AnalysisGraph.of(wordGraph);
+		assertNull(analysisGraph.getWordGraph().getAdjacencyList());
+		assertEquals(wga.getAdjacencyList(), AnalysisGraph.getAdjacencyList(analysisGraph.getWordGraph()));
+		assertTrue(analysisGraph.getEstimatedBytes() > 0);
+	}
+}
@@ -0,0 +1,182 @@
+package me.shailesh.wordgraph.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import me.shailesh.wordgraph.model.Corpus;
+import me.shailesh.wordgraph.model.CorpusPair;
+import me.shailesh.wordgraph.model.CorpusWord;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CorpusServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations wordOperations = mock(BulkOperations.class);
+	private final BulkOperations pairOperations = mock(BulkOperations.class);
+	private final AtomicInteger transactions = new AtomicInteger();
+	private final CorpusService corpusService = new CorpusService(mongoTemplate, countingTransactions(transactions),
+			DataSize.ofMegabytes(1), Duration.ofHours(1));
+
+	private static TransactionOperations countingTransactions(AtomicInteger transactions) {
+		return new TransactionOperations() {
+			@Override
+			public <T> T execute(TransactionCallback<T> action) {
+				transactions.incrementAndGet();
+				return action.doInTransaction(null);
+			}
+		};
+	}
+
+	private static Corpus corpus(long version, long distinctWordCount) {
+		return Corpus.builder().id("corpus").maxWords(10).version(version).documentCount(version)
+				.distinctWordCount(distinctWordCount).createdAt(LocalDateTime.now()).build();
+	}
+
+	private static BulkWriteResult upserted(int count) {
+		List<BulkWriteUpsert> upserts = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			upserts.add(new BulkWriteUpsert(i, new BsonString("id" + i)));
+		}
+		return BulkWriteResult.acknowledged(0, 0, 0, 0, upserts, List.of());
+	}
+
+	private void storeCounts(Map<String, Long> words, Map<String, Long> pairs) {
+		when(mongoTemplate.find(any(Query.class), eq(CorpusWord.class))).thenReturn(words.entrySet().stream()
+				.sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+				.map(word -> CorpusWord.builder().corpusId("corpus").word(word.getKey()).count(word.getValue()).build())
+				.toList());
+		when(mongoTemplate.find(any(Query.class), eq(CorpusPair.class))).thenReturn(pairs.entrySet().stream()
+				.map(pair -> CorpusPair.builder().corpusId("corpus").pair(pair.getKey()).count(pair.getValue()).build())
+				.toList());
+	}
+
+	@Test
+	void addsTheCountsOfADocumentInOneTransaction() {
+		when(mongoTemplate.findById("corpus", Corpus.class)).thenReturn(corpus(0, 0));
+		storeCounts(Map.of(), Map.of());
+		var snapshot = corpusService.getCorpus("corpus");
+		assertEquals(0, snapshot.getWordCount());
+
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Corpus.class)))
+				.thenReturn(corpus(1, 0));
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CorpusWord.class)).thenReturn(wordOperations);
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CorpusPair.class)).thenReturn(pairOperations);
+		when(wordOperations.execute()).thenReturn(upserted(3));
+		when(pairOperations.execute()).thenReturn(upserted(2));
+		storeCounts(Map.of("the", 2L, "fox", 1L, "dog", 1L), Map.of("fox|the", 1L, "dog|the", 1L));
+		transactions.set(0);
+
+		snapshot = corpusService.addDocument("corpus", "the fox. the dog");
+
+		assertEquals(1, transactions.get());
+		assertEquals(1, snapshot.getVersion());
+		assertEquals(3, snapshot.getDistinctWordCount());
+		assertEquals(Map.of("the", 2, "fox", 1, "dog", 1), snapshot.getWordFrequencies());
+		assertEquals(4, snapshot.getEdgeCount());
+		// Every word and pair is an upsert of its own document, keyed by the corpus and the word or pair
+		ArgumentCaptor<Query> wordQueries = ArgumentCaptor.forClass(Query.class);
+		verify(wordOperations, times(3)).upsert(wordQueries.capture(), any(Update.class));
+		assertTrue(wordQueries.getAllValues().stream().map(Query::getQueryObject)
+				.anyMatch(new Document("corpusId", "corpus").append("word", "the")::equals));
+		ArgumentCaptor<Query> pairQueries = ArgumentCaptor.forClass(Query.class);
+		verify(pairOperations, times(2)).upsert(pairQueries.capture(), argThat((Update update) ->
+				update.getUpdateObject().equals(new Document("$inc", new Document("count", 1L)))));
+		assertEquals(Set.of(new Document("corpusId", "corpus").append("pair", "fox|the"), new Document("corpusId", "corpus").append("pair", "dog|the")),
+				Set.copyOf(pairQueries.getAllValues().stream().map(Query::getQueryObject).toList()));
+		verify(mongoTemplate).updateFirst(any(Query.class), eq(new Update().inc("distinctWordCount", 3)), eq(Corpus.class));
+		assertSame(snapshot, corpusService.getCorpus("corpus"));
+	}
+
+	@Test
+	void readsOnlyTheTopWordsAndThePairsAmongThem() {
+		when(mongoTemplate.findById("corpus", Corpus.class)).thenReturn(corpus(2, 500));
+		storeCounts(Map.of("the", 5L, "cat", 2L, "sat", 1L), Map.of("cat|the", 1L));
+
+		var snapshot = corpusService.getCorpus("corpus");
+
+		assertEquals(500, snapshot.getDistinctWordCount());
+		assertEquals(1.0, snapshot.getAdjacencyList().get("cat").getFirst().getWeight());
+		ArgumentCaptor<Query> wordsQuery = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(wordsQuery.capture(), eq(CorpusWord.class));
+		assertEquals(10, wordsQuery.getValue().getLimit());
+		assertEquals(new Document("count", -1).append("word", 1), wordsQuery.getValue().getSortObject());
+		ArgumentCaptor<Query> pairsQuery = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(pairsQuery.capture(), eq(CorpusPair.class));
+		Document pairsFilter = pairsQuery.getValue().getQueryObject().get("pair", Document.class);
+		assertEquals(Set.of("cat|the", "sat|the", "cat|sat"), Set.copyOf((Collection<?>) pairsFilter.get("$in")));
+	}
+
+	@Test
+	void retriesATransactionThatConflictedWithAnother() {
+		when(mongoTemplate.findById("corpus", Corpus.class)).thenReturn(corpus(0, 0));
+		storeCounts(Map.of("dog", 1L), Map.of());
+		var conflict = new MongoException(112, "WriteConflict");
+		conflict.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Corpus.class)))
+				.thenThrow(new UncategorizedMongoDbException("WriteConflict", conflict))
+				.thenReturn(corpus(1, 0));
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CorpusWord.class)).thenReturn(wordOperations);
+		when(wordOperations.execute()).thenReturn(upserted(0));
+
+		var snapshot = corpusService.addDocument("corpus", "dog");
+
+		assertEquals(1, snapshot.getVersion());
+		verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Corpus.class));
+	}
+
+	@Test
+	void refusesADocumentWithTooManyPairsBeforeWritingAnything() {
+		when(mongoTemplate.findById("corpus", Corpus.class)).thenReturn(corpus(0, 0));
+		storeCounts(Map.of(), Map.of());
+		var document = new StringBuilder();
+		for (int i = 0; i < 50_000; i++) {
+			document.append('w').append(i).append(' ');
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> corpusService.addDocument("corpus", document.toString()));
+		verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+		verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Corpus.class));
+	}
+
+	@Test
+	void writesNothingForACorpusDeletedBeforeTheDocumentIsAdded() {
+		when(mongoTemplate.findById("corpus", Corpus.class)).thenReturn(corpus(0, 0));
+		storeCounts(Map.of(), Map.of());
+		corpusService.getCorpus("corpus");
+
+		assertNull(corpusService.addDocument("corpus", "the dog"));
+		verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+	}
+
+	@Test
+	void missingCorporaAreNotFound() {
+		assertNull(corpusService.getCorpus("missing"));
+		assertNull(corpusService.addDocument("missing", "text"));
+		assertThrows(IllegalArgumentException.class, () -> corpusService.addDocument("corpus", " "));
+	}
+}
@@ -0,0 +1,188 @@
+package me.shailesh.wordgraph.service;
+
+import me.shailesh.wordgraph.config.JobProperties;
+import me.shailesh.wordgraph.model.JobDto;
+import me.shailesh.wordgraph.model.JobOperation;
+import me.shailesh.wordgraph.model.JobRequest;
+import me.shailesh.wordgraph.model.JobStatus;
+import me.shailesh.wordgraph.model.WordGraphCreateDto;
+import me.shailesh.wordgraph.model.WordGraphDetailDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobServiceTests {
+
+	private final WordGraphService wordGraphService = mock(WordGraphService.class);
+	private JobService jobService;
+
+	private JobService createJobService(int maxPendingJobs) {
+		return createJobService(maxPendingJobs, 256);
+	}
+
+	private JobService createJobService(int maxPendingJobs, int maxFinishedJobs) {
+		var properties = new JobProperties();
+		properties.setCpuThreads(1);
+		properties.setMaxPendingJobs(maxPendingJobs);
+		properties.setMaxFinishedJobs(maxFinishedJobs);
+		jobService = new JobService(wordGraphService, properties);
+		return jobService;
+	}
+
+	@AfterEach
+	void shutdown() {
+		jobService.shutdown();
+	}
+
+	private static JobRequest createRequest(String text) {
+		return JobRequest.builder().operation(JobOperation.CREATE).wordGraph(WordGraphCreateDto.builder().text(text).build()).build();
+	}
+
+	private JobDto awaitFinished(String id) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!jobService.getJob(id).getStatus().isFinished()) {
+			assertTrue(System.nanoTime() < deadline, "job never finished");
+			Thread.sleep(5);
+		}
+		return jobService.getJob(id);
+	}
+
+	@Test
+	void runsTheAnalysisOnTheCpuPool() throws Exception {
+		var service = createJobService(4);
+		when(wordGraphService.createWordGraph(any(WordGraphCreateDto.class), any(AnalysisRunner.class))).thenAnswer(invocation -> {
+			AnalysisRunner runner = invocation.getArgument(1);
+			runner.run(() -> {
+				assertTrue(Thread.currentThread().getName().startsWith("wordgraph-cpu-"));
+				return null;
+			});
+			return WordGraphDetailDto.builder().id("graph").build();
+		});
+		var job = service.submit(createRequest("a b c"));
+		var finished = awaitFinished(job.getId());
+		assertEquals(JobStatus.SUCCEEDED, finished.getStatus());
+		assertEquals("graph", finished.getResult().getId());
+		assertEquals(1.0, finished.getProgress());
+	}
+
+	@Test
+	void rejectsJobsBeyondTheMaximumPendingAndCancelsThem() throws Exception {
+		var service = createJobService(1);
+		var release = new CountDownLatch(1);
+		when(wordGraphService.createWordGraph(any(WordGraphCreateDto.class), any(AnalysisRunner.class))).thenAnswer(invocation -> {
+			release.await(10, TimeUnit.SECONDS);
+			return WordGraphDetailDto.builder().build();
+		});
+		var job = service.submit(createRequest("a b c"));
+		assertThrows(JobRejectedException.class, () -> service.submit(createRequest("d e f")));
+
+		var cancelled = service.cancel(job.getId());
+		assertEquals(JobStatus.CANCELLED, cancelled.getStatus());
+		assertNull(awaitFinished(job.getId()).getResult());
+		release.countDown();
+		// The cancelled job no longer counts as pending once the creation it started ends
+		awaitSubmitted(service, createRequest("d e f"));
+	}
+
+	private static void awaitSubmitted(JobService service, JobRequest request) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (true) {
+			try {
+				service.submit(request);
+				return;
+			} catch (JobRejectedException e) {
+				assertTrue(System.nanoTime() < deadline, "slot never released");
+				Thread.sleep(5);
+			}
+		}
+	}
+
+	@Test
+	void aCancelledJobCountsAsPendingUntilItsAlgorithmEnds() throws Exception {
+		var service = createJobService(1);
+		var running = new CountDownLatch(1);
+		var done = new AtomicBoolean();
+		when(wordGraphService.createWordGraph(any(WordGraphCreateDto.class), any(AnalysisRunner.class))).thenAnswer(invocation -> {
+			AnalysisRunner runner = invocation.getArgument(1);
+			runner.run(() -> {
+				running.countDown();
+				// An algorithm that does not stop when it is interrupted
+				while (!done.get()) {
+					Thread.onSpinWait();
+				}
+				return null;
+			});
+			return WordGraphDetailDto.builder().build();
+		});
+		var job = service.submit(createRequest("a b c"));
+		assertTrue(running.await(10, TimeUnit.SECONDS));
+
+		assertEquals(JobStatus.CANCELLED, service.cancel(job.getId()).getStatus());
+		assertEquals(JobStatus.CANCELLED, awaitFinished(job.getId()).getStatus());
+		assertThrows(JobRejectedException.class, () -> service.submit(createRequest("d e f")));
+		done.set(true);
+		awaitSubmitted(service, createRequest("d e f"));
+	}
+
+	@Test
+	void cancellingACreateJobDoesNotStopTheCreationSharedWithOthers() throws Exception {
+		var service = createJobService(4);
+		var started = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		var created = new CountDownLatch(1);
+		when(wordGraphService.createWordGraph(any(WordGraphCreateDto.class), any(AnalysisRunner.class))).thenAnswer(invocation -> {
+			started.countDown();
+			// Interrupting the creation would throw here, and fail every request waiting for the same word graph
+			release.await();
+			created.countDown();
+			return WordGraphDetailDto.builder().id("graph").build();
+		});
+		var job = service.submit(createRequest("a b c"));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		service.cancel(job.getId());
+		assertEquals(JobStatus.CANCELLED, awaitFinished(job.getId()).getStatus());
+		release.countDown();
+		assertTrue(created.await(10, TimeUnit.SECONDS));
+		assertEquals(JobStatus.CANCELLED, service.getJob(job.getId()).getStatus());
+	}
+
+	@Test
+	void keepsAtMostTheMaximumFinishedJobs() throws Exception {
+		var service = createJobService(4, 2);
+		when(wordGraphService.getWordGraphForAnalysis(anyString(), anyBoolean())).thenReturn(null);
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			var job = service.submit(JobRequest.builder().operation(JobOperation.MST).wordGraphId("missing").build());
+			awaitFinished(job.getId());
+			ids.add(job.getId());
+		}
+
+		assertNull(service.getJob(ids.get(0)));
+		assertEquals(JobStatus.FAILED, service.getJob(ids.get(1)).getStatus());
+		assertEquals(JobStatus.FAILED, service.getJob(ids.get(2)).getStatus());
+	}
+
+	@Test
+	void reportsFailuresAndInvalidRequests() throws Exception {
+		var service = createJobService(4);
+		when(wordGraphService.getWordGraphForAnalysis(eq("missing"), anyBoolean())).thenReturn(null);
+		var job = service.submit(JobRequest.builder().operation(JobOperation.MST).wordGraphId("missing").build());
+		var finished = awaitFinished(job.getId());
+		assertEquals(JobStatus.FAILED, finished.getStatus());
+		assertEquals("Word graph missing not found", finished.getErrorMessage());
+
+		assertThrows(IllegalArgumentException.class, () -> service.submit(JobRequest.builder().operation(JobOperation.MST).build()));
+		assertThrows(IllegalArgumentException.class, () -> service.submit(new JobRequest()));
+		assertNull(service.getJob("no-such-job"));
+	}
+}
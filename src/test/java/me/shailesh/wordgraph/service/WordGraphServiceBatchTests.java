@@ -0,0 +1,101 @@
+package me.shailesh.wordgraph.service;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.config.AnalysisProperties;
+import me.shailesh.wordgraph.config.BatchProperties;
+import me.shailesh.wordgraph.config.IngestProperties;
+import me.shailesh.wordgraph.config.ListingProperties;
+import me.shailesh.wordgraph.model.WordGraph;
+import me.shailesh.wordgraph.model.WordGraphBatchItemDto;
+import me.shailesh.wordgraph.model.WordGraphBatchItemDto.Status;
+import me.shailesh.wordgraph.model.WordGraphCreateDto;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WordGraphServiceBatchTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations bulkOperations = mock(BulkOperations.class);
+	private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+	private final WordGraphMetrics metrics = new WordGraphMetrics(registry);
+	private final WordGraphService wordGraphService = new WordGraphService(mongoTemplate,
+			new ExpiringLruCache<>(1_000_000, Duration.ofHours(1), AnalysisGraph::getEstimatedBytes),
+			new AlgorithmResultCache(null, DataSize.ofMegabytes(1), Duration.ofHours(1), false, metrics),
+			new ListingProperties(), new BatchProperties(), new AnalysisProperties(), new IngestProperties(), metrics);
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void createsOnlyTheMissingWordGraphsWithOneLookupAndOneBulkInsert() {
+		String existingHash = wordGraphService.getSHA256Hash("stored text" + 0);
+		when(mongoTemplate.find(any(Query.class), eq(WordGraph.class)))
+				.thenReturn(List.of(WordGraph.builder().id("stored").hash(existingHash).build()));
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(WordGraph.class))).thenReturn(bulkOperations);
+		when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+
+		var items = wordGraphService.createWordGraphs(Arrays.asList(
+				WordGraphCreateDto.builder().text("The new text. New words").build(),
+				WordGraphCreateDto.builder().text(" Stored text ").build(),
+				WordGraphCreateDto.builder().text("the new text. new words").build(),
+				WordGraphCreateDto.builder().build(),
+				null));
+
+		assertEquals(List.of(Status.CREATED, Status.EXISTING, Status.EXISTING, Status.FAILED, Status.FAILED),
+				items.stream().map(WordGraphBatchItemDto::getStatus).toList());
+		assertEquals("stored", items.get(1).getId());
+		assertNotNull(items.get(0).getId());
+		assertEquals(items.get(0).getId(), items.get(2).getId());
+		assertEquals("Text is required", items.get(3).getErrorMessage());
+		for (int i = 0; i < items.size(); i++) {
+			assertEquals(i, items.get(i).getIndex());
+		}
+
+		verify(mongoTemplate, times(1)).find(any(Query.class), eq(WordGraph.class));
+		ArgumentCaptor<List<WordGraph>> inserted = ArgumentCaptor.forClass(List.class);
+		verify(bulkOperations).insert(inserted.capture());
+		assertEquals(1, inserted.getValue().size());
+		assertEquals(items.get(0).getId(), inserted.getValue().getFirst().getId());
+		assertNotNull(inserted.getValue().getFirst().getCompactGraph());
+		verify(bulkOperations).execute();
+
+		assertEquals(2, registry.get("wordgraph.dedup.hits").counter().count());
+		assertEquals(1, registry.get("wordgraph.build").tag("phase", "build_edges").timer().count());
+		assertEquals(4, registry.get("wordgraph.graph.vertices").summary().totalAmount());
+		// Histograms are published, so Prometheus gets buckets and not only the count, sum and max
+		String scrape = registry.scrape();
+		assertTrue(scrape.contains("wordgraph_graph_vertices_bucket"));
+		assertTrue(scrape.contains("wordgraph_build_seconds_bucket{phase=\"build_edges\""));
+	}
+
+	@Test
+	void rejectsBatchesLargerThanTheMaximumSize() {
+		List<WordGraphCreateDto> batch = new ArrayList<>();
+		for (int i = 0; i <= new BatchProperties().getMaxSize(); i++) {
+			batch.add(WordGraphCreateDto.builder().text("text " + i).build());
+		}
+		assertThrows(IllegalArgumentException.class, () -> wordGraphService.createWordGraphs(batch));
+		verifyNoInteractions(mongoTemplate);
+	}
+
+	@Test
+	void rejectsBatchesWithMoreTextThanTheMaximumLength() {
+		String text = "fox ".repeat((int) (new BatchProperties().getMaxTextLength() / 8) + 1);
+		var batch = List.of(WordGraphCreateDto.builder().text(text).build(), WordGraphCreateDto.builder().text(text).build());
+		assertThrows(IllegalArgumentException.class, () -> wordGraphService.createWordGraphs(batch));
+		verifyNoInteractions(mongoTemplate);
+	}
+}
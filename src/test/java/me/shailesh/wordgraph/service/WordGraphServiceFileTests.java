@@ -0,0 +1,75 @@
+package me.shailesh.wordgraph.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.config.AnalysisProperties;
+import me.shailesh.wordgraph.config.BatchProperties;
+import me.shailesh.wordgraph.config.IngestProperties;
+import me.shailesh.wordgraph.config.ListingProperties;
+import me.shailesh.wordgraph.model.WordGraph;
+import me.shailesh.wordgraph.model.WordGraphCreateDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WordGraphServiceFileTests {
+
+	private static final String TEXT = " The quick brown fox. The lazy dog! The fox and the dog? A fox \n";
+
+	@TempDir
+	Path directory;
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final IngestProperties ingestProperties = new IngestProperties();
+	private final WordGraphMetrics metrics = new WordGraphMetrics(new SimpleMeterRegistry());
+	private final WordGraphService wordGraphService = new WordGraphService(mongoTemplate,
+			new ExpiringLruCache<>(1_000_000, Duration.ofHours(1), AnalysisGraph::getEstimatedBytes),
+			new AlgorithmResultCache(null, DataSize.ofMegabytes(1), Duration.ofHours(1), false, metrics),
+			new ListingProperties(), new BatchProperties(), new AnalysisProperties(), ingestProperties, metrics);
+
+	@Test
+	void createsTheSameWordGraphAsTheText() throws Exception {
+		Path root = Files.createDirectory(directory.resolve("corpora"));
+		Files.writeString(root.resolve("fox.txt"), TEXT);
+		ingestProperties.setAllowedRoot(root.toString());
+		when(mongoTemplate.save(any(WordGraph.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		var fromFile = wordGraphService.createWordGraphFromFile("fox.txt", 0);
+		var fromText = wordGraphService.createWordGraph(WordGraphCreateDto.builder().text(TEXT).build());
+		var fromStream = wordGraphService.createWordGraph(new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)), 0);
+
+		assertEquals(fromText.getHash(), fromFile.getHash());
+		assertEquals(fromStream.getHash(), fromFile.getHash());
+		assertEquals(fromText.getAdjacencyList(), fromFile.getAdjacencyList());
+		assertEquals(fromText.getWordFrequencies(), fromFile.getWordFrequencies());
+		assertNull(fromFile.getText());
+	}
+
+	@Test
+	void onlyReadsFilesUnderTheAllowedRoot() throws Exception {
+		Path root = Files.createDirectory(directory.resolve("corpora"));
+		Files.writeString(directory.resolve("secret.txt"), TEXT);
+		Files.createSymbolicLink(root.resolve("link.txt"), directory.resolve("secret.txt"));
+
+		assertThrows(FileIngestionDisabledException.class, () -> wordGraphService.createWordGraphFromFile("secret.txt", 0));
+		ingestProperties.setAllowedRoot(root.toString());
+		assertThrows(IllegalArgumentException.class, () -> wordGraphService.createWordGraphFromFile("../secret.txt", 0));
+		assertThrows(IllegalArgumentException.class, () -> wordGraphService.createWordGraphFromFile(directory.resolve("secret.txt").toString(), 0));
+		assertThrows(IllegalArgumentException.class, () -> wordGraphService.createWordGraphFromFile("link.txt", 0));
+		assertThrows(IllegalArgumentException.class, () -> wordGraphService.createWordGraphFromFile(".", 0));
+		assertThrows(NoSuchFileException.class, () -> wordGraphService.createWordGraphFromFile("missing.txt", 0));
+		verifyNoInteractions(mongoTemplate);
+	}
+}
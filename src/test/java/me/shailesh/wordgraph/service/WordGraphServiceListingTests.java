@@ -0,0 +1,128 @@
+package me.shailesh.wordgraph.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.config.AnalysisProperties;
+import me.shailesh.wordgraph.config.BatchProperties;
+import me.shailesh.wordgraph.config.IngestProperties;
+import me.shailesh.wordgraph.config.ListingProperties;
+import me.shailesh.wordgraph.model.WordGraph;
+import me.shailesh.wordgraph.model.WordGraphDto;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WordGraphServiceListingTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final ListingProperties listingProperties = new ListingProperties();
+	private final WordGraphMetrics metrics = new WordGraphMetrics(new SimpleMeterRegistry());
+	private final WordGraphService wordGraphService = new WordGraphService(mongoTemplate,
+			new ExpiringLruCache<>(1_000_000, Duration.ofHours(1), AnalysisGraph::getEstimatedBytes),
+			new AlgorithmResultCache(null, DataSize.ofMegabytes(1), Duration.ofHours(1), false, metrics),
+			listingProperties, new BatchProperties(), new AnalysisProperties(), new IngestProperties(), metrics);
+
+	@Test
+	void getsTheFirstPageInIdOrderWithOnlyAPreviewOfTheText() {
+		List<WordGraph> stored = generateWordGraphs(listingProperties.getDefaultPageSize());
+		when(mongoTemplate.find(any(Query.class), eq(WordGraph.class))).thenReturn(stored);
+
+		var page = wordGraphService.getWordGraphs(null, null);
+
+		Query query = captureFindQuery();
+		assertEquals(listingProperties.getDefaultPageSize(), query.getLimit());
+		assertTrue(query.getQueryObject().isEmpty());
+		assertEquals(new Document("id", 1), query.getSortObject());
+		Document fields = query.getFieldsObject();
+		assertTrue(fields.containsKey("text"));
+		assertFalse(fields.containsKey("compactGraph"));
+		assertFalse(fields.containsKey("adjacencyList"));
+		assertFalse(fields.containsKey("wordFrequencies"));
+		assertEquals(stored.stream().map(WordGraph::getId).toList(), page.getWordGraphs().stream().map(WordGraphDto::getId).toList());
+		assertEquals(stored.getLast().getId(), page.getNextCursor());
+	}
+
+	@Test
+	void getsThePageAfterTheCursor() {
+		String after = new ObjectId().toHexString();
+		when(mongoTemplate.find(any(Query.class), eq(WordGraph.class))).thenReturn(generateWordGraphs(3));
+
+		var page = wordGraphService.getWordGraphs(after, 10);
+
+		Query query = captureFindQuery();
+		assertEquals(10, query.getLimit());
+		assertEquals(new Document("$gt", new ObjectId(after)), query.getQueryObject().get("id"));
+		// A page shorter than the page size is the last page
+		assertEquals(3, page.getWordGraphs().size());
+		assertNull(page.getNextCursor());
+	}
+
+	@Test
+	void capsThePageSize() {
+		when(mongoTemplate.find(any(Query.class), eq(WordGraph.class))).thenReturn(List.of());
+
+		wordGraphService.getWordGraphs(null, listingProperties.getMaxPageSize() + 1);
+		wordGraphService.getWordGraphs(null, 0);
+		wordGraphService.getWordGraphs(null, -1);
+
+		ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate, times(3)).find(queries.capture(), eq(WordGraph.class));
+		assertEquals(List.of(listingProperties.getMaxPageSize(), listingProperties.getDefaultPageSize(), listingProperties.getDefaultPageSize()),
+				queries.getAllValues().stream().map(Query::getLimit).toList());
+	}
+
+	@Test
+	void refusesAnInvalidCursor() {
+		assertThrows(IllegalArgumentException.class, () -> wordGraphService.getWordGraphs("not-an-id", null));
+		assertThrows(IllegalArgumentException.class, () -> wordGraphService.streamWordGraphs("not-an-id"));
+		verifyNoInteractions(mongoTemplate);
+	}
+
+	@Test
+	void streamsEveryWordGraphAfterTheCursorWithoutALimit() {
+		String after = new ObjectId().toHexString();
+		List<WordGraph> stored = generateWordGraphs(1_000);
+		when(mongoTemplate.stream(any(Query.class), eq(WordGraph.class))).thenReturn(stored.stream());
+
+		List<String> ids;
+		try (Stream<WordGraphDto> wordGraphs = wordGraphService.streamWordGraphs(after)) {
+			ids = wordGraphs.map(WordGraphDto::getId).toList();
+		}
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).stream(query.capture(), eq(WordGraph.class));
+		assertEquals(0, query.getValue().getLimit());
+		assertEquals(new Document("$gt", new ObjectId(after)), query.getValue().getQueryObject().get("id"));
+		assertEquals(new Document("id", 1), query.getValue().getSortObject());
+		assertFalse(query.getValue().getFieldsObject().containsKey("compactGraph"));
+		assertEquals(stored.stream().map(WordGraph::getId).toList(), ids);
+	}
+
+	private Query captureFindQuery() {
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(query.capture(), eq(WordGraph.class));
+		return query.getValue();
+	}
+
+	private static List<WordGraph> generateWordGraphs(int count) {
+		List<WordGraph> wordGraphs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			wordGraphs.add(WordGraph.builder().id(new ObjectId().toHexString()).hash("hash" + i).text("text " + i).build());
+		}
+		return wordGraphs;
+	}
+}
@@ -0,0 +1,98 @@
+package me.shailesh.wordgraph.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.config.AnalysisProperties;
+import me.shailesh.wordgraph.config.BatchProperties;
+import me.shailesh.wordgraph.config.IngestProperties;
+import me.shailesh.wordgraph.config.ListingProperties;
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.WordGraph;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WordGraphServiceProjectionTests {
+
+	private static final String ID = "65f0c0ffee0000000000000a";
+	private static final String TEXT = "the quick brown fox. the lazy dog! the fox and the dog? a fox";
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final WordGraphMetrics metrics = new WordGraphMetrics(new SimpleMeterRegistry());
+	private final WordGraphService wordGraphService = new WordGraphService(mongoTemplate,
+			new ExpiringLruCache<>(1_000_000, Duration.ofHours(1), AnalysisGraph::getEstimatedBytes),
+			new AlgorithmResultCache(null, DataSize.ofMegabytes(1), Duration.ofHours(1), false, metrics),
+			new ListingProperties(), new BatchProperties(), new AnalysisProperties(), new IngestProperties(), metrics);
+	private final WordGraphAnalysis wga = new WordGraphAnalysis(TEXT, 0);
+
+	// The stored word graph as the projection without the text returns it
+	private WordGraph storedWithoutText() {
+		return WordGraph.builder().id(ID).hash("hash").compactGraph(wga.getCompactGraph())
+				.wordFrequencies(wga.getWordFrequencies()).wordCount(wga.getV()).edgeCount(wga.getE()).build();
+	}
+
+	@Test
+	void loadsTheGraphForAnalysisWithoutTheTextOnce() {
+		when(mongoTemplate.findOne(any(Query.class), eq(WordGraph.class))).thenReturn(storedWithoutText());
+
+		var wordGraphDetail = wordGraphService.getWordGraphForAnalysis(ID, false);
+		wordGraphService.getWordGraphForAnalysis(ID, true);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).findOne(query.capture(), eq(WordGraph.class));
+		assertEquals(new Document("id", ID), query.getValue().getQueryObject());
+		assertEquals(new Document("text", 0), query.getValue().getFieldsObject());
+		assertNull(wordGraphDetail.getText());
+		assertEquals(wga.getAdjacencyList(), wordGraphDetail.getAdjacencyList());
+		assertEquals(wga.getWordFrequencies(), wordGraphDetail.getWordFrequencies());
+	}
+
+	@Test
+	void resultOnlyLeavesOutTheTextAndTheGraph() {
+		when(mongoTemplate.findOne(any(Query.class), eq(WordGraph.class))).thenReturn(storedWithoutText());
+
+		var wordGraphDetail = wordGraphService.getWordGraphForAnalysis(ID, true);
+		assertNull(wordGraphDetail.getText());
+		assertNull(wordGraphDetail.getAdjacencyList());
+		assertNull(wordGraphDetail.getWordFrequencies());
+		assertEquals(wga.getV(), wordGraphDetail.getWordCount());
+		assertEquals(wga.getE(), wordGraphDetail.getEdgeCount());
+
+		// The algorithms still run on the cached graph
+		wordGraphDetail = wordGraphService.traversal(wordGraphDetail, "the", "bfs");
+		assertEquals(wga.bfs("the"), wordGraphDetail.getBfs());
+		assertNull(wordGraphDetail.getAdjacencyList());
+	}
+
+	@Test
+	void getsTheTextWithItsOwnProjection() {
+		when(mongoTemplate.findOne(any(Query.class), eq(WordGraph.class)))
+				.thenReturn(storedWithoutText())
+				.thenReturn(WordGraph.builder().id(ID).text(TEXT).build());
+
+		var wordGraphDetail = wordGraphService.getWordGraphById(ID);
+
+		ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate, times(2)).findOne(queries.capture(), eq(WordGraph.class));
+		assertEquals(new Document("text", 0), queries.getAllValues().get(0).getFieldsObject());
+		assertEquals(new Document("text", 1), queries.getAllValues().get(1).getFieldsObject());
+		assertEquals(TEXT, wordGraphDetail.getText());
+		assertEquals(wga.getAdjacencyList(), wordGraphDetail.getAdjacencyList());
+	}
+
+	@Test
+	void missingWordGraphsAreNotFound() {
+		assertNull(wordGraphService.getWordGraphForAnalysis(ID, true));
+		assertNull(wordGraphService.getWordGraphById(ID));
+	}
+}
@@ -0,0 +1,101 @@
+package me.shailesh.wordgraph.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shailesh.wordgraph.cache.ExpiringLruCache;
+import me.shailesh.wordgraph.config.AnalysisProperties;
+import me.shailesh.wordgraph.config.BatchProperties;
+import me.shailesh.wordgraph.config.IngestProperties;
+import me.shailesh.wordgraph.config.ListingProperties;
+import me.shailesh.wordgraph.core.WordGraphAnalysis;
+import me.shailesh.wordgraph.model.WordGraphDetailDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WordGraphServiceShortestPathTests {
+
+	private final AnalysisProperties analysisProperties = new AnalysisProperties();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final WordGraphMetrics metrics = new WordGraphMetrics(registry);
+	private final WordGraphService wordGraphService = new WordGraphService(mock(MongoTemplate.class),
+			new ExpiringLruCache<>(1_000_000, Duration.ofHours(1), AnalysisGraph::getEstimatedBytes),
+			new AlgorithmResultCache(null, DataSize.ofMegabytes(1), Duration.ofHours(1), false, metrics),
+			new ListingProperties(), new BatchProperties(), analysisProperties, new IngestProperties(), metrics);
+
+	private static WordGraphDetailDto wordGraphDetail() {
+		var wga = new WordGraphAnalysis("the quick brown fox. the lazy dog. the fox and the dog", 0);
+		return WordGraphDetailDto.builder()
+				.wordCount(wga.getV())
+				.edgeCount(wga.getE())
+				.wordFrequencies(wga.getWordFrequencies())
+				.adjacencyList(wga.getAdjacencyList())
+				.build();
+	}
+
+	@Test
+	void refusesAllPairsShortestPathsAboveTheConfiguredSize() {
+		analysisProperties.setMaxAllPairsVertices(3);
+
+		var allPairs = wordGraphService.shortestPath(wordGraphDetail(), null, "floyd-warshall", false, false);
+		assertNull(allPairs.getFloydWarshallShortestPaths());
+		assertTrue(allPairs.getErrorMessage().contains("at most 3 words"), allPairs.getErrorMessage());
+
+		// Without a type, only the paths from the start word are found, and the refusal of the others is reported
+		var singleSource = wordGraphService.shortestPath(wordGraphDetail(), "the", null, false, false);
+		assertEquals(allPairs.getErrorMessage(), singleSource.getErrorMessage());
+		assertNull(singleSource.getFloydWarshallShortestPaths());
+		assertEquals("the", singleSource.getDijkstraShortestPath().getSource());
+
+		var matrix = wordGraphService.shortestPath(wordGraphDetail(), "the", null, false, true);
+		assertEquals(allPairs.getErrorMessage(), matrix.getErrorMessage());
+		assertNull(matrix.getFloydWarshallDistances());
+		assertEquals("the", matrix.getDijkstraShortestPath().getSource());
+	}
+
+	@Test
+	void runsAllPairsShortestPathsUpToTheConfiguredSize() {
+		var allPairs = wordGraphService.shortestPath(wordGraphDetail(), null, "floyd-warshall", false, false);
+		assertNull(allPairs.getErrorMessage());
+		assertEquals(allPairs.getWordCount(), allPairs.getFloydWarshallShortestPaths().size());
+	}
+
+	@Test
+	void refusesDepthFirstSearchAboveTheConfiguredSize() {
+		analysisProperties.setMaxDfsVertices(3);
+
+		var dfs = wordGraphService.traversal(wordGraphDetail(), "the", "dfs");
+		assertNull(dfs.getDfs());
+		assertTrue(dfs.getErrorMessage().contains("at most 3 words"), dfs.getErrorMessage());
+
+		// Without a type, only the breadth first search runs
+		var traversal = wordGraphService.traversal(wordGraphDetail(), "the", null);
+		assertNull(traversal.getErrorMessage());
+		assertNull(traversal.getDfs());
+		assertEquals("the", traversal.getBfs().getPath().getFirst());
+
+		analysisProperties.setMaxDfsVertices(new AnalysisProperties().getMaxDfsVertices());
+		var allowed = wordGraphService.traversal(wordGraphDetail(), "the", null);
+		assertEquals(allowed.getWordCount(), allowed.getDfs().getPath().size());
+	}
+
+	@Test
+	void findsTheKShortestPathsBetweenTwoWords() {
+		var kShortest = wordGraphService.kShortestPaths(wordGraphDetail(), "quick", "lazy", 3, false);
+		assertNull(kShortest.getErrorMessage());
+		assertEquals(3, kShortest.getYenShortestPaths().size());
+		assertEquals(List.of("quick", "the", "lazy"), kShortest.getYenShortestPaths().getFirst().getPath());
+
+		assertNotNull(wordGraphService.kShortestPaths(wordGraphDetail(), "quick", null, 3, false).getErrorMessage());
+		assertNotNull(wordGraphService.kShortestPaths(wordGraphDetail(), "quick", "lazy", 0, false).getErrorMessage());
+		analysisProperties.setMaxShortestPaths(2);
+		var tooMany = wordGraphService.kShortestPaths(wordGraphDetail(), "quick", "lazy", 3, false);
+		assertTrue(tooMany.getErrorMessage().contains("between 1 and 2"), tooMany.getErrorMessage());
+		assertNull(tooMany.getYenShortestPaths());
+	}
+}